@@ -6,6 +6,7 @@ plugins {
     alias(libs.plugins.kotlinJvm)
     alias(libs.plugins.dokka)
     alias(libs.plugins.detekt)
+    alias(libs.plugins.jmh)
     signing
     `maven-publish`
     alias(libs.plugins.nexusPublish) // https://github.com/gradle-nexus/publish-plugin
@@ -21,6 +22,11 @@ dependencies {
     api(libs.j8583)
     api(libs.slf4j.api)
     api(kotlin("stdlib-jdk8"))
+    // native transports are optional, see Transport
+    compileOnly(libs.netty.epoll)
+    compileOnly(libs.netty.iouring)
+    // coroutine extensions are optional, see com.github.kpavlov.jreactive8583.coroutines
+    compileOnly(libs.kotlinx.coroutines)
 
     testImplementation(libs.commons.lang3)
     testImplementation(libs.assertj)
@@ -32,7 +38,12 @@ dependencies {
     testImplementation(libs.spring.context)
     testImplementation(libs.spring.test)
     testImplementation(kotlin("test-junit5"))
+    testImplementation(libs.kotlinx.coroutines)
     testRuntimeOnly(libs.junit.jupiter.engine)
+    testImplementation(libs.netty.epoll)
+    testImplementation(libs.netty.iouring)
+    testRuntimeOnly(variantOf(libs.netty.epoll) { classifier("linux-x86_64") })
+    testRuntimeOnly(variantOf(libs.netty.iouring) { classifier("linux-x86_64") })
 }
 
 group = "com.github.kpavlov.jreactive8583"
@@ -69,6 +80,13 @@ tasks.test {
     }
 }
 
+jmh {
+    jmhVersion = libs.versions.jmh
+    includeTests = true
+    findProperty("jmh.includes")?.let { includes.add(it.toString()) }
+    findProperty("jmh.profilers")?.let { profilers.add(it.toString()) }
+}
+
 val dokkaJavadocJar by tasks.registering(Jar::class) {
     dependsOn(tasks.dokkaJavadoc)
     from(tasks.dokkaJavadoc.flatMap { it.outputDirectory })
@@ -0,0 +1,111 @@
+package com.github.kpavlov.jreactive8583;
+
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.channel.ChannelHandlerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures request-response round trip over loopback with each {@link ExecutionModel}:
+ * the cost of handing messages over from I/O event loops to other threads.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ExecutionModelBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionModelBenchmark {
+
+    @Param({"WORKER_GROUP", "EVENT_LOOP", "OFFLOAD_LISTENERS"})
+    public ExecutionModel executionModel;
+
+    private Iso8583Server<IsoMessage> server;
+    private Iso8583Client<IsoMessage> client;
+    private IsoMessage request;
+    private volatile CompletableFuture<IsoMessage> response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.<IsoMessage>createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        final var messageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        final int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .executionModel(executionModel)
+            .build(), messageFactory);
+        client = new Iso8583Client<>(new InetSocketAddress("127.0.0.1", port), ClientConfiguration.newBuilder()
+            .executionModel(executionModel)
+            .build(), messageFactory);
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                response.complete(isoMessage);
+                return false;
+            }
+        });
+        server.init();
+        server.start();
+        client.init();
+        client.connect();
+        while (!client.isConnected()) {
+            Thread.onSpinWait();
+        }
+
+        request = messageFactory.newMessage(0x0800);
+        request.setValue(11, 123456, IsoType.NUMERIC, 6);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public IsoMessage roundTrip() throws Exception {
+        final var future = new CompletableFuture<IsoMessage>();
+        response = future;
+        client.sendAsync(request);
+        return future.get(1, TimeUnit.SECONDS);
+    }
+}
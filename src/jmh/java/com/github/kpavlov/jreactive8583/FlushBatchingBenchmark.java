@@ -0,0 +1,160 @@
+package com.github.kpavlov.jreactive8583;
+
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.bootstrap.AbstractBootstrap;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures throughput of pipelined requests over loopback, with and without flush batching.
+ * <p>
+ * Each operation sends a burst of requests and waits for all responses.
+ * {@code socketFlushes} counts flushes which reached the transport of client and server,
+ * each of them is a {@code write} syscall, compare it to {@code messages}.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=FlushBatchingBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlushBatchingBenchmark {
+
+    private static final int BURST = 64;
+
+    /**
+     * Maximum number of coalesced flushes, 0 to flush every message.
+     */
+    @Param({"0", "16", "256"})
+    public int flushBatchSize;
+
+    private final LongAdder flushes = new LongAdder();
+    private final Semaphore responses = new Semaphore(0);
+
+    private Iso8583Server<IsoMessage> server;
+    private Iso8583Client<IsoMessage> client;
+    private IsoMessage request;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long messages;
+        public long socketFlushes;
+    }
+
+    @ChannelHandler.Sharable
+    private final class FlushCounter extends ChannelOutboundHandlerAdapter {
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            flushes.increment();
+            ctx.flush();
+        }
+    }
+
+    private <C extends ConnectorConfiguration, B extends AbstractBootstrap<B, ?>> ConnectorConfigurer<C, B> countFlushes() {
+        final var counter = new FlushCounter();
+        return new ConnectorConfigurer<>() {
+            @Override
+            public void configurePipeline(ChannelPipeline pipeline, C configuration) {
+                pipeline.addFirst("flushCounter", counter);
+            }
+        };
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.<IsoMessage>createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        final var messageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        final int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .flushBatching(flushBatchSize, 0)
+            .build(), messageFactory);
+        server.setConfigurer(countFlushes());
+        client = new Iso8583Client<>(new InetSocketAddress("127.0.0.1", port), ClientConfiguration.newBuilder()
+            .flushBatching(flushBatchSize, 0)
+            .build(), messageFactory);
+        client.setConfigurer(countFlushes());
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                responses.release();
+                return false;
+            }
+        });
+        server.init();
+        server.start();
+        client.init();
+        client.connect();
+        while (!client.isConnected()) {
+            Thread.onSpinWait();
+        }
+
+        request = messageFactory.newMessage(0x0800);
+        request.setValue(11, 123456, IsoType.NUMERIC, 6);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void burst(Counters counters) throws Exception {
+        final long flushesBefore = flushes.sum();
+        for (int i = 0; i < BURST; i++) {
+            client.sendAsync(request);
+        }
+        if (!responses.tryAcquire(BURST, 1, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Responses timed out");
+        }
+        counters.messages += 2 * BURST;
+        counters.socketFlushes += flushes.sum() - flushesBefore;
+    }
+}
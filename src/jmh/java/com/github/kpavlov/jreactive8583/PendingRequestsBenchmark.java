@@ -0,0 +1,95 @@
+package com.github.kpavlov.jreactive8583;
+
+import com.github.kpavlov.jreactive8583.client.MessageMatcher;
+import com.github.kpavlov.jreactive8583.client.PendingRequests;
+import com.solab.iso8583.IsoMessage;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.util.collection.LongObjectHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Measures cost of tracking a request until its response: the timing wheel of {@link PendingRequests}
+ * against a {@code ScheduledFuture} per request on the event loop.
+ * <p>
+ * Each operation registers a request with 30 seconds timeout and completes it. Run with the GC profiler,
+ * {@code gc.alloc.rate.norm} is the memory allocated per request:
+ * {@code ./gradlew jmh -Pjmh.includes=PendingRequestsBenchmark -Pjmh.profilers=gc}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PendingRequestsBenchmark {
+
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final IsoMessage request = new IsoMessage();
+    private DefaultEventLoop eventLoop;
+    private PendingRequests<IsoMessage> pendingRequests;
+    private LongObjectHashMap<CompletableFuture<IsoMessage>> futures;
+    private long key;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventLoop = new DefaultEventLoop();
+        pendingRequests = new PendingRequests<>(MessageMatcher.DEFAULT, 10, 512, null);
+        // keeps the ticker running
+        pendingRequests.register(-1, request, TIMEOUT_NANOS, eventLoop);
+        futures = new LongObjectHashMap<>();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pendingRequests.failAll(new IllegalStateException("Benchmark is over"));
+        eventLoop.shutdownGracefully();
+    }
+
+    @Benchmark
+    public Object timingWheel() {
+        final var pending = pendingRequests.register(key++, request, TIMEOUT_NANOS, eventLoop);
+        pendingRequests.remove(pending);
+        pending.getFuture().complete(request);
+        return pending;
+    }
+
+    @Benchmark
+    public Object scheduledFuture() {
+        final long requestKey = key++;
+        final var future = new CompletableFuture<IsoMessage>();
+        synchronized (futures) {
+            futures.put(requestKey, future);
+        }
+        final var timeout = eventLoop.schedule(() -> {
+            final boolean removed;
+            synchronized (futures) {
+                removed = futures.remove(requestKey) == future;
+            }
+            if (removed) {
+                future.completeExceptionally(new TimeoutException());
+            }
+        }, TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+        future.whenComplete((response, cause) -> timeout.cancel(false));
+        synchronized (futures) {
+            futures.remove(requestKey);
+        }
+        future.complete(request);
+        return future;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.kpavlov.jreactive8583.iso;
+
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares j8583 {@code createResponse}, which clones every copied field,
+ * with responses built from compiled copy plans.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ResponseTemplatesBenchmark -Pjmh.profilers=gc}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseTemplatesBenchmark {
+
+    @Param({"true", "false"})
+    public boolean copyAllFields;
+
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private J8583MessageFactory<IsoMessage> compiledFactory;
+    private IsoMessage request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.<IsoMessage>createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        compiledFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, false, true);
+
+        request = messageFactory.newMessage(0x0200);
+        request.setValue(4, new BigDecimal("123.45"), IsoType.AMOUNT, 0);
+        request.setValue(11, 123456, IsoType.NUMERIC, 6);
+        request.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        request.setValue(48, "Private data", IsoType.LLLVAR, 0);
+    }
+
+    @Benchmark
+    public IsoMessage j8583() {
+        return messageFactory.createResponse(request, copyAllFields);
+    }
+
+    @Benchmark
+    public IsoMessage compiled() {
+        return compiledFactory.createResponse(request, copyAllFields);
+    }
+}
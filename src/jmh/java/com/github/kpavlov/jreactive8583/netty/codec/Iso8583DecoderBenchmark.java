@@ -0,0 +1,116 @@
+package com.github.kpavlov.jreactive8583.netty.codec;
+
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageHeader;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.iso.PooledIsoMessage;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares copying a frame to {@code byte[]} before parsing with parsing the frame in place,
+ * with parsing into pooled messages, with lazy parsing followed by reading two fields,
+ * and with routing header parsing.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=Iso8583DecoderBenchmark -Pjmh.profilers=gc}
+ * to compare allocation rate ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Iso8583DecoderBenchmark {
+
+    private static final int[] ROUTING_FIELDS = {2, 3, 11, 41};
+
+    @Param({"heap", "direct"})
+    public String bufferType;
+
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private J8583MessageFactory<IsoMessage> lazyMessageFactory;
+    private J8583MessageFactory<IsoMessage> pooledMessageFactory;
+    private ByteBuf frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        j8583MessageFactory.setAssignDate(true);
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        lazyMessageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, true);
+        pooledMessageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, true);
+
+        final var message = messageFactory.newMessage(0x0200);
+        message.setValue(3, "650000", IsoType.NUMERIC, 6);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(43, "Merchant name and location", IsoType.ALPHA, 40);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        final var bytes = message.writeData();
+
+        final var allocator = PooledByteBufAllocator.DEFAULT;
+        frame = "heap".equals(bufferType) ? allocator.heapBuffer(bytes.length) : allocator.directBuffer(bytes.length);
+        frame.writeBytes(bytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frame.release();
+    }
+
+    @Benchmark
+    public IsoMessage copyToArray() throws Exception {
+        final var bytes = new byte[frame.readableBytes()];
+        frame.getBytes(frame.readerIndex(), bytes);
+        return messageFactory.parseMessage(bytes, 0);
+    }
+
+    @Benchmark
+    public IsoMessage parseInPlace() throws Exception {
+        return messageFactory.parseMessage(frame.nioBuffer(), 0);
+    }
+
+    @Benchmark
+    public int parsePooledAndRelease() throws Exception {
+        final var message = (PooledIsoMessage) pooledMessageFactory.parseMessage(frame.nioBuffer(), 0);
+        final var type = message.getType();
+        message.release();
+        return type;
+    }
+
+    @Benchmark
+    public Object parseLazyAndReadTwoFields() throws Exception {
+        final var message = lazyMessageFactory.parseMessage(frame.nioBuffer(), 0);
+        message.getObjectValue(11);
+        return message.getObjectValue(41);
+    }
+
+    @Benchmark
+    public MessageHeader parseRoutingHeader() throws Exception {
+        return messageFactory.parseHeader(frame.nioBuffer(), 0, ROUTING_FIELDS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.kpavlov.jreactive8583.netty.codec;
+
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serializing a message via {@link IsoMessage#writeToBuffer(int)} and copying it
+ * with writing it directly into the outbound buffer.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=Iso8583EncoderBenchmark -Pjmh.profilers=gc}
+ * to compare allocation rate ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Iso8583EncoderBenchmark {
+
+    private final Iso8583Encoder encoder = new Iso8583Encoder(2, false);
+    private ChannelHandlerContext ctx;
+    private IsoMessage message;
+    private ByteBuf out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final var messageFactory = ConfigParser.createDefault();
+        messageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory.setAssignDate(true);
+        message = messageFactory.newMessage(0x0200);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        ctx = new EmbeddedChannel(encoder).pipeline().firstContext();
+        out = PooledByteBufAllocator.DEFAULT.directBuffer(512);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        out.release();
+    }
+
+    @Benchmark
+    public ByteBuf copyFromArray() {
+        out.clear();
+        return out.writeBytes(message.writeToBuffer(2));
+    }
+
+    @Benchmark
+    public ByteBuf writeDirect() {
+        out.clear();
+        encoder.encode(ctx, message, out);
+        return out;
+    }
+}
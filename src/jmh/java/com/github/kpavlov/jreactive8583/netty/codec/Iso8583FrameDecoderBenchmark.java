@@ -0,0 +1,97 @@
+package com.github.kpavlov.jreactive8583.netty.codec;
+
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LengthFieldBasedFrameDecoder} followed by {@link Iso8583Decoder}
+ * with {@link Iso8583FrameDecoder}, decoding a read of {@value #MESSAGES} framed messages.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=Iso8583FrameDecoderBenchmark -Pjmh.profilers=gc}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Iso8583FrameDecoderBenchmark {
+
+    private static final int MESSAGES = 16;
+
+    private EmbeddedChannel twoHandlers;
+    private EmbeddedChannel singlePass;
+    private ByteBuf read;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        final var messageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+
+        twoHandlers = new EmbeddedChannel(
+            new LengthFieldBasedFrameDecoder(8192, 0, 2, 0, 2),
+            new Iso8583Decoder(messageFactory));
+        singlePass = new EmbeddedChannel(new Iso8583FrameDecoder(messageFactory, 8192, 0, 2, 0, false));
+
+        final var message = messageFactory.newMessage(0x0200);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        final var bytes = message.writeData();
+        read = PooledByteBufAllocator.DEFAULT.directBuffer();
+        for (int i = 0; i < MESSAGES; i++) {
+            read.writeShort(bytes.length).writeBytes(bytes);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        twoHandlers.finishAndReleaseAll();
+        singlePass.finishAndReleaseAll();
+        read.release();
+    }
+
+    private static Object decode(EmbeddedChannel channel, ByteBuf read) {
+        channel.writeInbound(read.retainedDuplicate());
+        Object last = null;
+        for (int i = 0; i < MESSAGES; i++) {
+            last = channel.readInbound();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object twoHandlers() {
+        return decode(twoHandlers, read);
+    }
+
+    @Benchmark
+    public Object singlePass() {
+        return decode(singlePass, read);
+    }
+}
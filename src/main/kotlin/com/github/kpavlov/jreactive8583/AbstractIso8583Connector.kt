@@ -5,15 +5,20 @@ package com.github.kpavlov.jreactive8583
 import com.github.kpavlov.jreactive8583.iso.MessageFactory
 import com.github.kpavlov.jreactive8583.netty.pipeline.CompositeIsoMessageHandler
 import com.github.kpavlov.jreactive8583.netty.pipeline.EchoMessageListener
+import com.github.kpavlov.jreactive8583.netty.pipeline.Iso8583ChannelInitializer
+import com.github.kpavlov.jreactive8583.netty.transport.ChannelTransport
 import com.solab.iso8583.IsoMessage
 import io.netty.bootstrap.AbstractBootstrap
 import io.netty.channel.Channel
 import io.netty.channel.ChannelOption
 import io.netty.channel.EventLoopGroup
-import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.MultiThreadIoEventLoopGroup
+import io.netty.channel.WriteBufferWaterMark
+import io.netty.channel.local.LocalIoHandler
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import java.lang.Boolean.parseBoolean
+import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicReference
 
 public abstract class AbstractIso8583Connector<
@@ -35,8 +40,35 @@ public abstract class AbstractIso8583Connector<
         protected lateinit var bossEventLoopGroup: EventLoopGroup
             private set
         protected lateinit var workerEventLoopGroup: EventLoopGroup
+
+        /**
+         * Event loop group passed to [Iso8583ChannelInitializer]: a dedicated one
+         * for [ExecutionModel.OFFLOAD_LISTENERS], otherwise [workerEventLoopGroup].
+         */
+        protected lateinit var handlerEventLoopGroup: EventLoopGroup
+            private set
         protected lateinit var bootstrap: B
 
+        /**
+         * Transport resolved from [ConnectorConfiguration.transport].
+         */
+        internal val channelTransport: ChannelTransport by lazy {
+            configuration.eventLoopGroups?.channelTransport ?: ChannelTransport.resolve(configuration.transport)
+        }
+
+        private val sharedGroupsRetained = AtomicBoolean()
+
+        /**
+         * Watermarks from the configuration, or `null` for Netty defaults.
+         */
+        protected val writeBufferWaterMark: WriteBufferWaterMark?
+            get() =
+                if (configuration.writeBufferHighWaterMark > 0) {
+                    WriteBufferWaterMark(configuration.writeBufferLowWaterMark, configuration.writeBufferHighWaterMark)
+                } else {
+                    null
+                }
+
         public fun addMessageListener(handler: IsoMessageListener<M>) {
             messageHandler.addListener(handler)
         }
@@ -53,19 +85,52 @@ public abstract class AbstractIso8583Connector<
          */
         public fun init() {
             logger.info("Initializing")
-            bossEventLoopGroup = createBossEventLoopGroup()
-            workerEventLoopGroup = createWorkerEventLoopGroup()
+            val sharedGroups = configuration.eventLoopGroups
+            if (sharedGroups != null) {
+                // init may be called again, shutdown releases once
+                if (sharedGroupsRetained.compareAndSet(false, true)) {
+                    sharedGroups.retain()
+                }
+                bossEventLoopGroup = sharedGroups.bossGroup
+                workerEventLoopGroup = sharedGroups.workerGroup
+            } else {
+                bossEventLoopGroup = createBossEventLoopGroup()
+                workerEventLoopGroup = createWorkerEventLoopGroup()
+            }
+            handlerEventLoopGroup =
+                if (configuration.executionModel == ExecutionModel.OFFLOAD_LISTENERS) {
+                    createOffloadEventLoopGroup()
+                } else {
+                    workerEventLoopGroup
+                }
             bootstrap = createBootstrap()
         }
 
+        /**
+         * Shuts down own event loop groups, or releases [ConnectorConfiguration.eventLoopGroups].
+         */
         public open fun shutdown() {
-            workerEventLoopGroup.shutdownGracefully()
-            bossEventLoopGroup.shutdownGracefully()
+            if (handlerEventLoopGroup !== workerEventLoopGroup) {
+                handlerEventLoopGroup.shutdownGracefully()
+            }
+            val sharedGroups = configuration.eventLoopGroups
+            if (sharedGroups == null) {
+                workerEventLoopGroup.shutdownGracefully()
+                bossEventLoopGroup.shutdownGracefully()
+            } else if (sharedGroupsRetained.compareAndSet(true, false)) {
+                sharedGroups.release()
+            }
         }
 
-        protected fun configureBootstrap(bootstrap: B) {
-            bootstrap
-                .option(
+        /**
+         * @param tcp whether to set TCP options, `false` for Unix domain sockets
+         */
+        protected fun configureBootstrap(
+            bootstrap: B,
+            tcp: Boolean = true,
+        ) {
+            if (tcp) {
+                bootstrap.option(
                     ChannelOption.TCP_NODELAY,
                     parseBoolean(
                         System.getProperty(
@@ -73,18 +138,28 @@ public abstract class AbstractIso8583Connector<
                             "true",
                         ),
                     ),
-                ).option(ChannelOption.AUTO_READ, true)
+                )
+            }
+            bootstrap.option(ChannelOption.AUTO_READ, true)
             configurer?.configureBootstrap(bootstrap, configuration)
         }
 
         protected abstract fun createBootstrap(): B
 
-        protected fun createBossEventLoopGroup(): EventLoopGroup = NioEventLoopGroup()
+        protected open fun createBossEventLoopGroup(): EventLoopGroup = channelTransport.newEventLoopGroup(0)
+
+        /**
+         * Creates executor for message listeners with [ExecutionModel.OFFLOAD_LISTENERS].
+         * Handlers of a channel are bound to a single thread of the group, which does no socket I/O.
+         */
+        protected open fun createOffloadEventLoopGroup(): EventLoopGroup =
+            MultiThreadIoEventLoopGroup(configuration.workerThreadsCount, LocalIoHandler.newFactory())
 
         protected fun createWorkerEventLoopGroup(): EventLoopGroup {
-            val group = NioEventLoopGroup(configuration.workerThreadsCount)
+            val group = channelTransport.newEventLoopGroup(configuration.workerThreadsCount)
             logger.debug(
-                "Created worker EventLoopGroup with {} executor threads",
+                "Created {} worker EventLoopGroup with {} executor threads",
+                channelTransport,
                 group.executorCount(),
             )
             return group
@@ -1,5 +1,11 @@
 package com.github.kpavlov.jreactive8583
 
+import com.github.kpavlov.jreactive8583.netty.codec.Iso8583Decoder
+import com.github.kpavlov.jreactive8583.netty.codec.Iso8583FrameDecoder
+import com.github.kpavlov.jreactive8583.netty.codec.RoutingEnvelope
+import com.github.kpavlov.jreactive8583.netty.codec.RoutingHeaderDecoder
+import com.github.kpavlov.jreactive8583.netty.pipeline.FlushBatchingHandler
+
 /**
  * Default read/write idle timeout in seconds (ping interval) = 30 sec.
  *
@@ -124,6 +130,71 @@ public abstract class ConnectorConfiguration protected constructor(
      */
     public val encodeFrameLengthAsString: Boolean
 
+    /**
+     * Numbers of fields to decode for routing, or empty array to decode messages completely.
+     *
+     * When set, inbound messages are decoded with [RoutingHeaderDecoder] into [RoutingEnvelope]s
+     * carrying these fields and the raw message frame.
+     */
+    public val routingHeaderFields: IntArray
+
+    /**
+     * Whether inbound messages are decoded with a single [Iso8583FrameDecoder],
+     * instead of a frame decoder followed by [Iso8583Decoder].
+     *
+     * Default value is `false`, so the pipeline keeps its `"lengthFieldFrameDecoder"` handler.
+     * Doesn't apply when [routingHeaderFields] are set.
+     */
+    public val singlePassDecoder: Boolean
+
+    /**
+     * Netty transport for sockets and event loops.
+     *
+     * Default value is [Transport.AUTO].
+     */
+    public val transport: Transport
+
+    /**
+     * Channel becomes not writable when outbound buffer exceeds the high watermark, in bytes,
+     * and writable again when it drops below the low watermark.
+     * `0` for Netty defaults, 32 KiB and 64 KiB.
+     */
+    public val writeBufferLowWaterMark: Int
+
+    /**
+     * @see writeBufferLowWaterMark
+     */
+    public val writeBufferHighWaterMark: Int
+
+    /**
+     * Maximum number of flushes coalesced by [FlushBatchingHandler], or `0` to flush every message.
+     *
+     * Default value is `0`.
+     */
+    public val flushBatchSize: Int
+
+    /**
+     * Maximum delay of a coalesced flush outside of a read, in microseconds.
+     * `0` flushes at the end of the event loop tick.
+     *
+     * Default value is `0`.
+     */
+    public val flushDelayMicros: Long
+
+    /**
+     * Where pipeline handlers and message listeners are executed.
+     *
+     * Default value is [ExecutionModel.WORKER_GROUP].
+     */
+    public val executionModel: ExecutionModel
+
+    /**
+     * Event loop groups shared with other connectors, or `null` to create own groups.
+     *
+     * When set, [transport] and [workerThreadsCount] are not used.
+     */
+    public val eventLoopGroups: SharedEventLoopGroups?
+
     /**
      * Allows to add default echo message listener to [AbstractIso8583Connector].
      *
@@ -186,6 +257,15 @@ public abstract class ConnectorConfiguration protected constructor(
         this.logSensitiveData = b.logSensitiveData
         this.maxFrameLength = b.maxFrameLength
         this.replyOnError = b.replyOnError
+        this.routingHeaderFields = b.routingHeaderFields
+        this.singlePassDecoder = b.singlePassDecoder
+        this.transport = b.transport
+        this.eventLoopGroups = b.eventLoopGroups
+        this.executionModel = b.executionModel
+        this.flushBatchSize = b.flushBatchSize
+        this.writeBufferLowWaterMark = b.writeBufferLowWaterMark
+        this.writeBufferHighWaterMark = b.writeBufferHighWaterMark
+        this.flushDelayMicros = b.flushDelayMicros
         this.sensitiveDataFields = b.sensitiveDataFields
         this.workerThreadsCount = b.workerThreadsCount
     }
@@ -205,6 +285,15 @@ public abstract class ConnectorConfiguration protected constructor(
         internal var frameLengthFieldOffset = DEFAULT_FRAME_LENGTH_FIELD_OFFSET
         internal var frameLengthFieldAdjust = DEFAULT_FRAME_LENGTH_FIELD_ADJUST
         internal var encodeFrameLengthAsString = false
+        internal var routingHeaderFields: IntArray = IntArray(0)
+        internal var singlePassDecoder = false
+        internal var transport = Transport.AUTO
+        internal var eventLoopGroups: SharedEventLoopGroups? = null
+        internal var executionModel = ExecutionModel.WORKER_GROUP
+        internal var flushBatchSize = 0
+        internal var writeBufferLowWaterMark = 0
+        internal var writeBufferHighWaterMark = 0
+        internal var flushDelayMicros = 0L
 
         /**
          * @param shouldAddEchoMessageListener `true` to add echo message handler.
@@ -289,6 +378,81 @@ public abstract class ConnectorConfiguration protected constructor(
                 this.encodeFrameLengthAsString = encodeFrameLengthAsString
             } as B
 
+        /**
+         * Decode only MTI, bitmap and given fields of inbound messages, e.g. `2, 3, 11, 41`.
+         * Messages are passed down the pipeline as [RoutingEnvelope]s.
+         *
+         * @param fields Numbers of fields to decode, none to decode messages completely
+         */
+        public fun routingHeaderFields(vararg fields: Int): B =
+            apply {
+                routingHeaderFields = fields
+            } as B
+
+        /**
+         * @param singlePassDecoder `true` to decode frame and message with a single [Iso8583FrameDecoder],
+         *  when neither of the separate handlers is customized
+         */
+        public fun singlePassDecoder(singlePassDecoder: Boolean = true): B =
+            apply {
+                this.singlePassDecoder = singlePassDecoder
+            } as B
+
+        /**
+         * @param transport Netty transport, falls back to NIO when the native one is not available
+         */
+        public fun transport(transport: Transport): B =
+            apply {
+                this.transport = transport
+            } as B
+
+        /**
+         * @param low Outbound buffer size in bytes, below which the channel becomes writable again
+         * @param high Outbound buffer size in bytes, above which the channel becomes not writable
+         */
+        public fun writeBufferWaterMark(
+            low: Int,
+            high: Int,
+        ): B =
+            apply {
+                require(low in 1..high) { "Invalid write buffer watermarks: low=$low, high=$high" }
+                writeBufferLowWaterMark = low
+                writeBufferHighWaterMark = high
+            } as B
+
+        /**
+         * Coalesces flushes of outbound messages, so they are written to the socket in batches.
+         *
+         * @param maxBatchSize Maximum number of flushes to coalesce, `0` to disable batching
+         * @param maxDelayMicros Maximum delay of a flush, in microseconds, `0` for the end of event loop tick
+         */
+        public fun flushBatching(
+            maxBatchSize: Int,
+            maxDelayMicros: Long = 0,
+        ): B =
+            apply {
+                require(maxBatchSize >= 0) { "maxBatchSize must not be negative: $maxBatchSize" }
+                require(maxDelayMicros >= 0) { "maxDelayMicros must not be negative: $maxDelayMicros" }
+                flushBatchSize = maxBatchSize
+                flushDelayMicros = maxDelayMicros
+            } as B
+
+        /**
+         * @param executionModel Where pipeline handlers and message listeners are executed
+         */
+        public fun executionModel(executionModel: ExecutionModel): B =
+            apply {
+                this.executionModel = executionModel
+            } as B
+
+        /**
+         * @param eventLoopGroups Event loop groups shared by connectors, retained while the connector is initialized
+         */
+        public fun eventLoopGroups(eventLoopGroups: SharedEventLoopGroups?): B =
+            apply {
+                this.eventLoopGroups = eventLoopGroups
+            } as B
+
         public fun workerThreadsCount(numberOfThreads: Int): B =
             apply {
                 workerThreadsCount = numberOfThreads
@@ -0,0 +1,27 @@
+package com.github.kpavlov.jreactive8583
+
+/**
+ * Where handlers of a channel pipeline are executed, relative to the channel's I/O event loop.
+ *
+ * Frame and message codecs always run on the I/O event loop.
+ */
+public enum class ExecutionModel {
+    /**
+     * Logging, error reply, idle and listener handlers run on the worker event loop group.
+     * Every inbound message is handed over from the I/O event loop to another thread.
+     */
+    WORKER_GROUP,
+
+    /**
+     * All handlers run on the channel's own event loop, there is no thread hop.
+     * Listeners must not block.
+     */
+    EVENT_LOOP,
+
+    /**
+     * Logging, error reply and idle handlers run on the channel's own event loop,
+     * message listeners are offloaded to a dedicated executor, so they may block.
+     * Messages of a channel are still processed in order.
+     */
+    OFFLOAD_LISTENERS,
+}
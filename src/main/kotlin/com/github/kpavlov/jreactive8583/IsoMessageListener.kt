@@ -2,10 +2,22 @@
 
 package com.github.kpavlov.jreactive8583
 
+import com.github.kpavlov.jreactive8583.iso.MessageHeader
 import com.solab.iso8583.IsoMessage
 import io.netty.channel.ChannelHandlerContext
 
 public interface IsoMessageListener<T : IsoMessage> {
+    /**
+     * Returns `false` if the message can be skipped judging by its [header] only,
+     * so it is not decoded for this listener. Called for messages decoded
+     * with [com.github.kpavlov.jreactive8583.netty.codec.RoutingHeaderDecoder].
+     *
+     * Default implementation returns `true`: the message is decoded and passed to [applies].
+     *
+     * @param header message type and routing fields
+     */
+    public fun appliesToHeader(header: MessageHeader): Boolean = true
+
     /**
      * Returns `true` if given message can be handled
      * by [.onMessage].
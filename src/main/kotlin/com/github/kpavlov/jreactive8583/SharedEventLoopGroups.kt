@@ -0,0 +1,69 @@
+package com.github.kpavlov.jreactive8583
+
+import com.github.kpavlov.jreactive8583.netty.transport.ChannelTransport
+import io.netty.channel.EventLoopGroup
+import io.netty.util.AbstractReferenceCounted
+import io.netty.util.ReferenceCounted
+import java.util.concurrent.ThreadFactory
+
+/**
+ * Boss and worker event loop groups shared by many connectors in one JVM,
+ * configured with [ConnectorConfiguration.Builder.eventLoopGroups].
+ *
+ * Groups are reference counted. The creator holds the initial reference,
+ * each connector retains the groups in [AbstractIso8583Connector.init]
+ * and releases them in [AbstractIso8583Connector.shutdown].
+ * The groups are shut down gracefully when the last reference is released.
+ *
+ * Connectors create channels of the transport of the groups, [ConnectorConfiguration.transport] is ignored.
+ * Clients perform I/O on the [bossGroup], servers accept connections on it.
+ */
+public class SharedEventLoopGroups private constructor(
+    internal val channelTransport: ChannelTransport,
+    public val bossGroup: EventLoopGroup,
+    public val workerGroup: EventLoopGroup,
+) : AbstractReferenceCounted() {
+    /**
+     * Creates groups of the [transport].
+     *
+     * @param transport Netty transport, falls back to NIO when the native one is not available
+     * @param bossThreads Number of boss threads, `0` for Netty default
+     * @param workerThreads Number of worker threads, `0` for Netty default
+     * @param threadFactory Factory of event loop threads, e.g. pinning them to CPU cores, or `null` for Netty default
+     */
+    @JvmOverloads
+    public constructor(
+        transport: Transport = Transport.AUTO,
+        bossThreads: Int = 0,
+        workerThreads: Int = 0,
+        threadFactory: ThreadFactory? = null,
+    ) : this(ChannelTransport.resolve(transport), bossThreads, workerThreads, threadFactory)
+
+    private constructor(
+        channelTransport: ChannelTransport,
+        bossThreads: Int,
+        workerThreads: Int,
+        threadFactory: ThreadFactory?,
+    ) : this(
+        channelTransport,
+        channelTransport.newEventLoopGroup(bossThreads, threadFactory),
+        channelTransport.newEventLoopGroup(workerThreads, threadFactory),
+    )
+
+    /**
+     * Wraps externally created groups, which must be able to run channels of the [transport].
+     * The groups are still shut down when the last reference is released.
+     */
+    public constructor(
+        transport: Transport,
+        bossGroup: EventLoopGroup,
+        workerGroup: EventLoopGroup,
+    ) : this(ChannelTransport.resolve(transport), bossGroup, workerGroup)
+
+    override fun deallocate() {
+        workerGroup.shutdownGracefully()
+        bossGroup.shutdownGracefully()
+    }
+
+    override fun touch(hint: Any?): ReferenceCounted = this
+}
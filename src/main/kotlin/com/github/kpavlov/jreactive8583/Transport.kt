@@ -0,0 +1,34 @@
+package com.github.kpavlov.jreactive8583
+
+/**
+ * Netty transport used by connectors for sockets and event loops.
+ *
+ * Native transports require `netty-transport-native-epoll` or `netty-transport-native-io_uring`
+ * with a classifier matching the platform, e.g. `linux-x86_64`, on the classpath.
+ * When the requested native transport is not available, connectors fall back to the next one,
+ * ending up with [NIO].
+ *
+ * All transports support Unix domain sockets, given either `java.net.UnixDomainSocketAddress`
+ * or `io.netty.channel.unix.DomainSocketAddress`. The address is converted to the type of the transport.
+ */
+public enum class Transport {
+    /**
+     * [EPOLL] when available, otherwise [NIO].
+     */
+    AUTO,
+
+    /**
+     * Java NIO, available everywhere.
+     */
+    NIO,
+
+    /**
+     * Linux epoll, falls back to [NIO].
+     */
+    EPOLL,
+
+    /**
+     * Linux io_uring, falls back to [EPOLL] and then to [NIO].
+     */
+    IO_URING,
+}
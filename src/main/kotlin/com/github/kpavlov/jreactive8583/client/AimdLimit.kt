@@ -0,0 +1,65 @@
+package com.github.kpavlov.jreactive8583.client
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Additive increase, multiplicative decrease.
+ *
+ * The limit grows by one with every answered request while at least half of the limit is in use,
+ * and is multiplied by [backoffRatio] when a request times out or takes longer than [latencyThresholdMillis].
+ *
+ * @param initialLimit limit before the first sample
+ * @param minLimit lower bound of the limit
+ * @param maxLimit upper bound of the limit
+ * @param backoffRatio multiplier applied on congestion, between `0.5` and `1`
+ * @param latencyThresholdMillis round-trip time considered congestion
+ */
+public class AimdLimit
+    @JvmOverloads
+    constructor(
+        initialLimit: Int = DEFAULT_INITIAL_LIMIT,
+        private val minLimit: Int = 1,
+        private val maxLimit: Int = DEFAULT_MAX_LIMIT,
+        private val backoffRatio: Double = DEFAULT_BACKOFF_RATIO,
+        latencyThresholdMillis: Long = ClientConfiguration.DEFAULT_LATENCY_THRESHOLD,
+    ) : ConcurrencyLimit {
+        private val latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis)
+
+        @Volatile
+        override var limit: Int = initialLimit
+            private set
+
+        init {
+            require(minLimit in 1..maxLimit) { "minLimit must be in 1..maxLimit: $minLimit" }
+            require(initialLimit in minLimit..maxLimit) { "initialLimit must be in minLimit..maxLimit: $initialLimit" }
+            require(backoffRatio >= MIN_BACKOFF_RATIO && backoffRatio < 1) {
+                "backoffRatio must be in [0.5, 1): $backoffRatio"
+            }
+            require(latencyThresholdNanos > 0) { "latencyThresholdMillis must be positive: $latencyThresholdMillis" }
+        }
+
+        @Synchronized
+        override fun onSample(
+            rttNanos: Long,
+            inFlight: Int,
+            dropped: Boolean,
+        ) {
+            val current = limit
+            limit =
+                if (dropped || rttNanos > latencyThresholdNanos) {
+                    maxOf(minLimit, (current * backoffRatio).toInt())
+                } else if (inFlight * 2 >= current) {
+                    minOf(maxLimit, current + 1)
+                } else {
+                    // not enough load to tell whether a higher limit is sustainable
+                    current
+                }
+        }
+
+        public companion object {
+            public const val DEFAULT_INITIAL_LIMIT: Int = 20
+            public const val DEFAULT_MAX_LIMIT: Int = 1000
+            public const val DEFAULT_BACKOFF_RATIO: Double = 0.9
+            private const val MIN_BACKOFF_RATIO = 0.5
+        }
+    }
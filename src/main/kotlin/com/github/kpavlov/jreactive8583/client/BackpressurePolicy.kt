@@ -0,0 +1,24 @@
+package com.github.kpavlov.jreactive8583.client
+
+/**
+ * What [Iso8583Client.sendAsync] does when the channel is not writable
+ * and the send queue of [ClientConfiguration.sendQueueCapacity] messages is full.
+ */
+public enum class BackpressurePolicy {
+    /**
+     * Throw `IllegalStateException`.
+     */
+    FAIL_FAST,
+
+    /**
+     * Block the caller until the queue has space, at most [ClientConfiguration.sendTimeout] milliseconds,
+     * then throw `IllegalStateException`. Calls from the channel's event loop fail fast.
+     */
+    WAIT,
+
+    /**
+     * Discard the oldest queued message, failing its future, and queue the new one.
+     * Requires non-empty queue.
+     */
+    DROP_OLDEST,
+}
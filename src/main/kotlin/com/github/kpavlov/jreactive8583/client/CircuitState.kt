@@ -0,0 +1,24 @@
+package com.github.kpavlov.jreactive8583.client
+
+/**
+ * State of the client circuit breaker, driven by consecutive failed connection attempts.
+ *
+ * @see ClientConfiguration.circuitBreakerThreshold
+ */
+public enum class CircuitState {
+    /**
+     * Connected, or failed to connect fewer times than the threshold. Reconnects back off with jitter.
+     */
+    CLOSED,
+
+    /**
+     * Failed to connect the threshold number of times in a row.
+     * Reconnects are attempted every [ClientConfiguration.maxReconnectInterval].
+     */
+    OPEN,
+
+    /**
+     * A connection attempt is in progress after [OPEN] state.
+     */
+    HALF_OPEN,
+}
@@ -3,6 +3,7 @@
 package com.github.kpavlov.jreactive8583.client
 
 import com.github.kpavlov.jreactive8583.ConnectorConfiguration
+import java.util.function.Supplier
 
 public open class ClientConfiguration(
     builder: Builder,
@@ -14,12 +15,154 @@ public open class ClientConfiguration(
      */
     public val reconnectInterval: Int = builder.reconnectInterval
 
+    /**
+     * Maximum delay between reconnects in milliseconds.
+     * Delays grow from [reconnectInterval] up to this value with decorrelated jitter.
+     *
+     * Default value is [reconnectInterval]: delays don't grow, but are random
+     * between half of [reconnectInterval] and [reconnectInterval].
+     */
+    public val maxReconnectInterval: Int = builder.maxReconnectInterval ?: reconnectInterval
+
+    /**
+     * Number of failed connection attempts in a row which open the circuit, see [CircuitState].
+     */
+    public val circuitBreakerThreshold: Int = builder.circuitBreakerThreshold
+
+    /**
+     * Limits concurrent reconnect attempts of clients sharing it, `null` for no limit.
+     */
+    public val connectLimiter: ConnectLimiter? = builder.connectLimiter
+
+    /**
+     * Maximum number of messages queued by [Iso8583Client.sendAsync] while the channel is not writable.
+     *
+     * Default value is `0`, messages are not queued.
+     */
+    public val sendQueueCapacity: Int = builder.sendQueueCapacity
+
+    /**
+     * What [Iso8583Client.sendAsync] does when the channel is not writable and the send queue is full.
+     *
+     * Default value is [BackpressurePolicy.FAIL_FAST].
+     */
+    public val backpressurePolicy: BackpressurePolicy = builder.backpressurePolicy
+
+    /**
+     * Maximum time to wait for the send queue with [BackpressurePolicy.WAIT], in milliseconds.
+     */
+    public val sendTimeout: Long = builder.sendTimeout
+
+    /**
+     * Time to wait for a response, in milliseconds.
+     *
+     * Used by [Iso8583Client.sendAndReceive] and [Iso8583FailoverClient].
+     */
+    public val responseTimeout: Long = builder.responseTimeout
+
+    /**
+     * Average response time above which an endpoint of [Iso8583FailoverClient] gets less traffic, in milliseconds.
+     */
+    public val latencyThreshold: Long = builder.latencyThreshold
+
+    /**
+     * Whether [Iso8583FailoverClient] resends requests awaiting response over another endpoint
+     * when the connection is lost. Requests are resent unchanged, so the server should detect duplicates.
+     *
+     * Default value is `false`, requests are reported to [UnansweredMessageListener].
+     */
+    public val retryInFlight: Boolean = builder.retryInFlight
+
+    /**
+     * Matches responses to requests.
+     *
+     * Default value is [MessageMatcher.DEFAULT].
+     */
+    public val messageMatcher: MessageMatcher = builder.messageMatcher
+
+    /**
+     * Duration of a tick of the wheel expiring [Iso8583Client.sendAndReceive] requests, in milliseconds.
+     * Requests time out up to a tick late.
+     */
+    public val timeoutTickMillis: Long = builder.timeoutTickMillis
+
+    /**
+     * Number of ticks of the timeout wheel, a power of two.
+     * Timeouts longer than a wheel round are supported, but requests of later rounds are visited every round.
+     */
+    public val timeoutWheelSize: Int = builder.timeoutWheelSize
+
+    /**
+     * Maximum number of [Iso8583Client.sendAndReceive] requests awaiting response per connection.
+     * Excess requests are queued and sent in order as responses arrive or requests time out.
+     *
+     * Default value is `0`, not limited.
+     * With [adaptiveLimit] set, caps the adaptive limit.
+     */
+    public val maxInFlight: Int = builder.maxInFlight
+
+    /**
+     * Creates a [ConcurrencyLimit] for every connection, adjusting the number of
+     * [Iso8583Client.sendAndReceive] requests in flight to observed latency.
+     *
+     * Default value is `null`, the limit is fixed by [maxInFlight].
+     */
+    public val adaptiveLimit: Supplier<ConcurrencyLimit>? = builder.adaptiveLimit
+
+    init {
+        require(reconnectInterval >= 0) { "reconnectInterval must not be negative: $reconnectInterval" }
+        require(maxReconnectInterval >= reconnectInterval) {
+            "maxReconnectInterval must not be less than reconnectInterval: $maxReconnectInterval < $reconnectInterval"
+        }
+        require(circuitBreakerThreshold > 0) { "circuitBreakerThreshold must be positive: $circuitBreakerThreshold" }
+        require(responseTimeout > 0) { "responseTimeout must be positive: $responseTimeout" }
+        require(latencyThreshold > 0) { "latencyThreshold must be positive: $latencyThreshold" }
+        require(timeoutTickMillis > 0) { "timeoutTickMillis must be positive: $timeoutTickMillis" }
+        require(timeoutWheelSize > 0 && timeoutWheelSize and (timeoutWheelSize - 1) == 0) {
+            "timeoutWheelSize must be a power of two: $timeoutWheelSize"
+        }
+        require(maxInFlight >= 0) { "maxInFlight must not be negative: $maxInFlight" }
+        require(backpressurePolicy != BackpressurePolicy.DROP_OLDEST || sendQueueCapacity > 0) {
+            "DROP_OLDEST backpressure policy requires non-empty send queue"
+        }
+    }
+
     public companion object {
         /**
          * Default client reconnect interval in milliseconds.
          */
         public const val DEFAULT_RECONNECT_INTERVAL: Int = 100
 
+        /**
+         * Default number of failed connection attempts in a row which open the circuit.
+         */
+        public const val DEFAULT_CIRCUIT_BREAKER_THRESHOLD: Int = 5
+
+        /**
+         * Default send timeout in milliseconds.
+         */
+        public const val DEFAULT_SEND_TIMEOUT: Long = 1000
+
+        /**
+         * Default response timeout in milliseconds.
+         */
+        public const val DEFAULT_RESPONSE_TIMEOUT: Long = 30_000
+
+        /**
+         * Default tick of the timeout wheel in milliseconds.
+         */
+        public const val DEFAULT_TIMEOUT_TICK: Long = 10
+
+        /**
+         * Default number of ticks of the timeout wheel, a round of about 5 seconds with default tick.
+         */
+        public const val DEFAULT_TIMEOUT_WHEEL_SIZE: Int = 512
+
+        /**
+         * Default latency threshold in milliseconds.
+         */
+        public const val DEFAULT_LATENCY_THRESHOLD: Long = 1000
+
         @JvmStatic
         public fun newBuilder(): Builder = Builder()
 
@@ -28,13 +171,112 @@ public open class ClientConfiguration(
         public fun getDefault(): ClientConfiguration = newBuilder().build()
     }
 
-    @Suppress("unused")
+    @Suppress("unused", "TooManyFunctions")
     public data class Builder(
         var reconnectInterval: Int = DEFAULT_RECONNECT_INTERVAL,
     ) : ConnectorConfiguration.Builder<Builder>() {
+        internal var maxReconnectInterval: Int? = null
+        internal var circuitBreakerThreshold = DEFAULT_CIRCUIT_BREAKER_THRESHOLD
+        internal var connectLimiter: ConnectLimiter? = null
+        internal var sendQueueCapacity = 0
+        internal var backpressurePolicy = BackpressurePolicy.FAIL_FAST
+        internal var sendTimeout = DEFAULT_SEND_TIMEOUT
+        internal var responseTimeout = DEFAULT_RESPONSE_TIMEOUT
+        internal var latencyThreshold = DEFAULT_LATENCY_THRESHOLD
+        internal var retryInFlight = false
+        internal var messageMatcher = MessageMatcher.DEFAULT
+        internal var timeoutTickMillis = DEFAULT_TIMEOUT_TICK
+        internal var timeoutWheelSize = DEFAULT_TIMEOUT_WHEEL_SIZE
+        internal var maxInFlight = 0
+        internal var adaptiveLimit: Supplier<ConcurrencyLimit>? = null
+
         public fun reconnectInterval(reconnectInterval: Int): Builder =
             apply { this.reconnectInterval = reconnectInterval }
 
+        /**
+         * @param maxReconnectInterval Maximum delay between reconnects with exponential backoff, in milliseconds
+         */
+        public fun reconnectBackoff(maxReconnectInterval: Int): Builder =
+            apply { this.maxReconnectInterval = maxReconnectInterval }
+
+        /**
+         * @param circuitBreakerThreshold Number of failed connection attempts in a row which open the circuit
+         */
+        public fun circuitBreakerThreshold(circuitBreakerThreshold: Int): Builder =
+            apply { this.circuitBreakerThreshold = circuitBreakerThreshold }
+
+        /**
+         * @param connectLimiter Limiter of concurrent reconnects, shared by clients
+         */
+        public fun connectLimiter(connectLimiter: ConnectLimiter?): Builder =
+            apply { this.connectLimiter = connectLimiter }
+
+        /**
+         * @param capacity Maximum number of messages queued while the channel is not writable
+         * @param policy What to do when the queue is full
+         */
+        public fun backpressure(
+            capacity: Int,
+            policy: BackpressurePolicy,
+        ): Builder =
+            apply {
+                require(capacity >= 0) { "capacity must not be negative: $capacity" }
+                sendQueueCapacity = capacity
+                backpressurePolicy = policy
+            }
+
+        /**
+         * @param sendTimeout Maximum time to wait for the send queue with [BackpressurePolicy.WAIT], in milliseconds
+         */
+        public fun sendTimeout(sendTimeout: Long): Builder = apply { this.sendTimeout = sendTimeout }
+
+        /**
+         * @param responseTimeout Time to wait for a response, in milliseconds
+         */
+        public fun responseTimeout(responseTimeout: Long): Builder = apply { this.responseTimeout = responseTimeout }
+
+        /**
+         * @param latencyThreshold Average response time above which an endpoint gets less traffic, in milliseconds
+         */
+        public fun latencyThreshold(latencyThreshold: Long): Builder =
+            apply { this.latencyThreshold = latencyThreshold }
+
+        /**
+         * @param retryInFlight Whether to resend requests awaiting response over another endpoint
+         */
+        public fun retryInFlight(retryInFlight: Boolean): Builder = apply { this.retryInFlight = retryInFlight }
+
+        /**
+         * @param messageMatcher Matches responses to requests
+         */
+        public fun messageMatcher(messageMatcher: MessageMatcher): Builder =
+            apply { this.messageMatcher = messageMatcher }
+
+        /**
+         * @param tickMillis Duration of a tick of the request timeout wheel, in milliseconds
+         * @param wheelSize Number of ticks of the wheel, a power of two
+         */
+        public fun timeoutWheel(
+            tickMillis: Long,
+            wheelSize: Int,
+        ): Builder =
+            apply {
+                timeoutTickMillis = tickMillis
+                timeoutWheelSize = wheelSize
+            }
+
+        /**
+         * @param maxInFlight Maximum number of requests awaiting response per connection, `0` for no limit
+         */
+        public fun maxInFlight(maxInFlight: Int): Builder = apply { this.maxInFlight = maxInFlight }
+
+        /**
+         * @param adaptiveLimit Creates an adaptive in-flight limit for every connection,
+         * e.g. `Supplier { AimdLimit() }`, or `null` for a fixed limit
+         */
+        public fun adaptiveLimit(adaptiveLimit: Supplier<ConcurrencyLimit>?): Builder =
+            apply { this.adaptiveLimit = adaptiveLimit }
+
         public fun build(): ClientConfiguration = ClientConfiguration(this)
     }
 }
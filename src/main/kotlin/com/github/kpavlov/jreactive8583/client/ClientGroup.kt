@@ -0,0 +1,107 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener
+import com.solab.iso8583.IsoMessage
+import io.netty.channel.ChannelFutureListener
+import io.netty.util.concurrent.GlobalEventExecutor
+import io.netty.util.concurrent.ScheduledFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Lifecycle of several [Iso8583Client]s used together, shared by [Iso8583ClientPool] and [Iso8583FailoverClient].
+ *
+ * @param clients clients of the group, every one with its own reconnect logic
+ */
+internal class ClientGroup<T : IsoMessage>(
+    val clients: List<Iso8583Client<T>>,
+) {
+    private var sweep: ScheduledFuture<*>? = null
+
+    /**
+     * Whether at least one client is connected.
+     */
+    val isConnected: Boolean
+        get() = clients.any { it.isConnected }
+
+    fun addMessageListener(listener: IsoMessageListener<T>) {
+        clients.forEach { it.addMessageListener(listener) }
+    }
+
+    fun removeMessageListener(listener: IsoMessageListener<T>) {
+        clients.forEach { it.removeMessageListener(listener) }
+    }
+
+    fun init() {
+        clients.forEach { it.init() }
+    }
+
+    /**
+     * Initializes all clients and runs [sweep] several times per [responseTimeout] until [shutdown].
+     *
+     * @param responseTimeout response timeout in milliseconds
+     */
+    fun init(
+        responseTimeout: Long,
+        sweep: Runnable,
+    ) {
+        init()
+        val period = maxOf(MIN_SWEEP_PERIOD_MILLIS, responseTimeout / SWEEPS_PER_TIMEOUT)
+        this.sweep =
+            GlobalEventExecutor.INSTANCE.scheduleAtFixedRate(sweep, period, period, TimeUnit.MILLISECONDS)
+    }
+
+    /**
+     * Connects all clients asynchronously. Clients which fail to connect keep reconnecting.
+     */
+    fun connectAsync() {
+        clients.forEach { it.connectAsync() }
+    }
+
+    /**
+     * Connects all clients and waits until one of them is connected, or all connection attempts fail.
+     *
+     * @return `true` if a client is connected
+     */
+    @Throws(InterruptedException::class)
+    fun connect(
+        timeout: Long,
+        timeUnit: TimeUnit,
+    ): Boolean {
+        val done = CountDownLatch(1)
+        val failures = AtomicInteger()
+        clients.forEach { client ->
+            client.connectAsync().addListener(
+                ChannelFutureListener {
+                    if (it.isSuccess || failures.incrementAndGet() == clients.size) {
+                        done.countDown()
+                    }
+                },
+            )
+        }
+        done.await(timeout, timeUnit)
+        return isConnected
+    }
+
+    @Throws(InterruptedException::class)
+    fun disconnect() {
+        clients.forEach { it.disconnect() }
+    }
+
+    fun shutdown() {
+        sweep?.cancel(false)
+        clients.forEach { it.shutdown() }
+    }
+
+    companion object {
+        /**
+         * Set in message function of responses, acknowledgements and advice responses.
+         */
+        private const val RESPONSE_BIT = 0x0010
+        private const val SWEEPS_PER_TIMEOUT = 4
+        private const val MIN_SWEEP_PERIOD_MILLIS = 10L
+
+        fun isResponse(isoMessage: IsoMessage): Boolean = isoMessage.type and RESPONSE_BIT != 0
+    }
+}
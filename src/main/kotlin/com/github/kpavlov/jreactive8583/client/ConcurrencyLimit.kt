@@ -0,0 +1,47 @@
+package com.github.kpavlov.jreactive8583.client
+
+/**
+ * Algorithm adjusting the number of [Iso8583Client.sendAndReceive] requests allowed in flight
+ * from observed round-trip times.
+ *
+ * An instance serves a single connection. Samples come from the connection event loop,
+ * implementations still guard their state, as timeouts may be reported by another thread.
+ *
+ * @see AimdLimit
+ * @see VegasLimit
+ * @see ClientConfiguration.Builder.adaptiveLimit
+ */
+public interface ConcurrencyLimit {
+    /**
+     * Current limit, at least `1`.
+     */
+    public val limit: Int
+
+    /**
+     * Updates the limit with a completed request.
+     *
+     * @param rttNanos time from writing the request to its response or timeout
+     * @param inFlight requests in flight when the request completed, including it
+     * @param dropped whether the request timed out
+     */
+    public fun onSample(
+        rttNanos: Long,
+        inFlight: Int,
+        dropped: Boolean,
+    )
+}
+
+/**
+ * Limit which never changes, used for [ClientConfiguration.maxInFlight] without adaptive limit.
+ */
+internal class FixedLimit(
+    override val limit: Int,
+) : ConcurrencyLimit {
+    override fun onSample(
+        rttNanos: Long,
+        inFlight: Int,
+        dropped: Boolean,
+    ) {
+        // fixed
+    }
+}
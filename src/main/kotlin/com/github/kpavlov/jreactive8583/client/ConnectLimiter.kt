@@ -0,0 +1,35 @@
+package com.github.kpavlov.jreactive8583.client
+
+import java.util.concurrent.Semaphore
+
+/**
+ * Limits the number of concurrent reconnect attempts of all clients sharing the instance,
+ * so that clients of a recovering server don't reconnect all at once.
+ *
+ * A reconnect which can't get a permit is postponed by the client reconnect delay.
+ *
+ * @param maxConcurrentConnects maximum number of connection attempts in progress
+ * @see ClientConfiguration.Builder.connectLimiter
+ */
+public class ConnectLimiter(
+    maxConcurrentConnects: Int,
+) {
+    private val permits: Semaphore
+
+    init {
+        require(maxConcurrentConnects > 0) { "maxConcurrentConnects must be positive: $maxConcurrentConnects" }
+        permits = Semaphore(maxConcurrentConnects)
+    }
+
+    /**
+     * Number of connection attempts which can be started now.
+     */
+    public val availablePermits: Int
+        get() = permits.availablePermits()
+
+    internal fun tryAcquire(): Boolean = permits.tryAcquire()
+
+    internal fun release() {
+        permits.release()
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.kpavlov.jreactive8583.client
+
+/**
+ * In-flight window of [Iso8583Client.sendAndReceive] requests at the moment of [Iso8583Client.inFlightMetrics] call.
+ *
+ * @param limit current maximum number of requests awaiting response, `0` if not limited
+ * @param inFlight requests sent and awaiting response
+ * @param queueDepth requests waiting for a permit to be sent
+ * @param waitedRequests requests which waited in the queue since the client was created
+ * @param totalWaitNanos total time the [waitedRequests] spent in the queue, in nanoseconds
+ * @see ClientConfiguration.maxInFlight
+ * @see ClientConfiguration.adaptiveLimit
+ */
+public data class InFlightMetrics(
+    val limit: Int,
+    val inFlight: Int,
+    val queueDepth: Int,
+    val waitedRequests: Long,
+    val totalWaitNanos: Long,
+) {
+    /**
+     * Average time a request waited in the queue, in nanoseconds.
+     */
+    val averageWaitNanos: Long
+        get() = if (waitedRequests == 0L) 0 else totalWaitNanos / waitedRequests
+}
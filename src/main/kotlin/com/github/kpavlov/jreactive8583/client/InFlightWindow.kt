@@ -0,0 +1,154 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.solab.iso8583.IsoMessage
+import io.netty.util.ReferenceCountUtil
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Limits the number of [PendingRequests.Pending] requests written and not yet answered
+ * to the limit of [concurrencyLimit], but no more than [maxLimit].
+ *
+ * Requests in flight are counted with compare-and-set, requests over the limit wait in a FIFO queue
+ * and are passed to [send] as permits are released. A request holds its permit until it is [released][release]:
+ * answered, timed out, failed to write or failed with the connection.
+ * Round-trip times of answered and timed out requests are passed to [concurrencyLimit].
+ * A request released while queued, e.g. timed out or cancelled, leaves the queue at once.
+ */
+internal class InFlightWindow<T : IsoMessage>(
+    private val concurrencyLimit: ConcurrencyLimit,
+    private val maxLimit: Int,
+    private val send: (PendingRequests.Pending<T>) -> Unit,
+) {
+    /**
+     * How a request left the window.
+     */
+    enum class Outcome {
+        ANSWERED,
+        TIMED_OUT,
+        FAILED,
+    }
+
+    private val inFlight = AtomicInteger()
+    private val queue = ConcurrentLinkedQueue<PendingRequests.Pending<T>>()
+    private val queueDepth = AtomicInteger()
+    private val waitedRequests = LongAdder()
+    private val totalWaitNanos = LongAdder()
+
+    init {
+        require(maxLimit > 0) { "In-flight limit must be positive: $maxLimit" }
+    }
+
+    val limit: Int
+        get() = concurrencyLimit.limit.coerceIn(1, maxLimit)
+
+    /**
+     * Sends the request if a permit is available and nothing is queued, otherwise queues it.
+     */
+    fun submit(pending: PendingRequests.Pending<T>) {
+        if (queueDepth.get() == 0 && tryAcquire()) {
+            grant(pending)
+            return
+        }
+        pending.queuedAtNanos = System.nanoTime()
+        queueDepth.incrementAndGet()
+        queue.add(pending)
+        if (pending.permitState == DONE) {
+            // released before it was queued
+            dequeue(pending)
+        }
+        // a permit may have been released before the request was queued
+        drain()
+    }
+
+    /**
+     * Returns the permit of a completed request, or makes sure a queued one is not sent.
+     */
+    fun release(
+        pending: PendingRequests.Pending<T>,
+        outcome: Outcome,
+    ) {
+        if (PERMIT_STATE.compareAndSet(pending, HOLDING, DONE)) {
+            val current = inFlight.getAndDecrement()
+            if (outcome != Outcome.FAILED) {
+                val rttNanos = System.nanoTime() - pending.sentAtNanos
+                concurrencyLimit.onSample(rttNanos, current, outcome == Outcome.TIMED_OUT)
+            }
+            drain()
+        } else if (PERMIT_STATE.compareAndSet(pending, WAITING, DONE)) {
+            dequeue(pending)
+        }
+    }
+
+    fun metrics(): InFlightMetrics =
+        InFlightMetrics(
+            limit = limit,
+            inFlight = inFlight.get(),
+            queueDepth = queueDepth.get(),
+            waitedRequests = waitedRequests.sum(),
+            totalWaitNanos = totalWaitNanos.sum(),
+        )
+
+    /**
+     * Removes the request released while queued, unless [drain] has taken it.
+     * The request is not sent, so it is released, as the encoder would have done.
+     */
+    private fun dequeue(pending: PendingRequests.Pending<T>) {
+        if (queue.remove(pending)) {
+            queueDepth.decrementAndGet()
+            ReferenceCountUtil.release(pending.request)
+        }
+    }
+
+    private fun tryAcquire(): Boolean {
+        while (true) {
+            val current = inFlight.get()
+            if (current >= limit) {
+                return false
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true
+            }
+        }
+    }
+
+    private fun drain() {
+        while (queue.peek() != null && tryAcquire()) {
+            val next = queue.poll()
+            if (next == null) {
+                // taken by a concurrent drain
+                inFlight.decrementAndGet()
+                continue
+            }
+            queueDepth.decrementAndGet()
+            waitedRequests.increment()
+            totalWaitNanos.add(System.nanoTime() - next.queuedAtNanos)
+            grant(next)
+        }
+    }
+
+    /**
+     * Hands the acquired permit to the request, or returns it if the request completed while queued.
+     * A request which is not sent is released, as the encoder would have done.
+     */
+    private fun grant(pending: PendingRequests.Pending<T>) {
+        if (PERMIT_STATE.compareAndSet(pending, WAITING, HOLDING)) {
+            pending.sentAtNanos = System.nanoTime()
+            send(pending)
+        } else {
+            inFlight.decrementAndGet()
+            ReferenceCountUtil.release(pending.request)
+        }
+    }
+
+    private companion object {
+        private const val WAITING = 0
+        private const val HOLDING = 1
+        private const val DONE = 2
+
+        private val PERMIT_STATE =
+            AtomicIntegerFieldUpdater.newUpdater(PendingRequests.Pending::class.java, "permitState")
+    }
+}
@@ -6,21 +6,59 @@ import com.github.kpavlov.jreactive8583.AbstractIso8583Connector
 import com.github.kpavlov.jreactive8583.iso.MessageFactory
 import com.github.kpavlov.jreactive8583.netty.pipeline.Iso8583ChannelInitializer
 import com.github.kpavlov.jreactive8583.netty.pipeline.ReconnectOnCloseListener
+import com.github.kpavlov.jreactive8583.netty.transport.ChannelTransport
 import com.solab.iso8583.IsoMessage
 import io.netty.bootstrap.Bootstrap
 import io.netty.channel.Channel
 import io.netty.channel.ChannelFuture
-import io.netty.channel.socket.nio.NioSocketChannel
+import io.netty.channel.ChannelFutureListener
+import io.netty.channel.ChannelOption
+import io.netty.util.ReferenceCountUtil
 import java.net.InetSocketAddress
 import java.net.SocketAddress
+import java.nio.channels.ClosedChannelException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.TimeUnit
 
+@Suppress("TooManyFunctions")
 public open class Iso8583Client<T : IsoMessage>(
     private var socketAddress: SocketAddress,
     config: ClientConfiguration,
     isoMessageFactory: MessageFactory<T>,
 ) : AbstractIso8583Connector<ClientConfiguration, Bootstrap, T>(config, isoMessageFactory) {
     private lateinit var reconnectOnCloseListener: ReconnectOnCloseListener
+    private val sendQueue =
+        SendQueue(config.sendQueueCapacity, config.backpressurePolicy, config.sendTimeout)
+
+    /**
+     * Added to the close future of every connected channel.
+     */
+    internal val closeListeners = CopyOnWriteArrayList<ChannelFutureListener>()
+
+    /**
+     * Close future of the current channel, `null` if the client has not connected yet.
+     */
+    internal val closeFuture: ChannelFuture?
+        get() = channel?.closeFuture()
+
+    private val inFlightWindow =
+        config.adaptiveLimit?.let {
+            val maxLimit = if (config.maxInFlight > 0) config.maxInFlight else Int.MAX_VALUE
+            InFlightWindow<T>(it.get(), maxLimit, ::write)
+        } ?: if (config.maxInFlight > 0) {
+            InFlightWindow<T>(FixedLimit(config.maxInFlight), config.maxInFlight, ::write)
+        } else {
+            null
+        }
+
+    private val pendingRequests =
+        PendingRequests(config.messageMatcher, config.timeoutTickMillis, config.timeoutWheelSize, inFlightWindow)
+
+    init {
+        messageHandler.addListener(pendingRequests.listener)
+        closeListeners.add(ChannelFutureListener { pendingRequests.failAll(ClosedChannelException()) })
+    }
 
     /**
      * Connects synchronously to remote address.
@@ -76,13 +114,15 @@ public open class Iso8583Client<T : IsoMessage>(
         val connectFuture = b.connect()
         connectFuture.addListener {
             if (!connectFuture.isSuccess) {
-                reconnectOnCloseListener.scheduleReconnect()
+                reconnectOnCloseListener.connectFailed()
                 return@addListener
             }
+            reconnectOnCloseListener.connected()
             channel =
                 with(connectFuture.channel()!!) {
                     logger.debug("Client is connected to {}", this.remoteAddress())
                     this.closeFuture().addListener(reconnectOnCloseListener)
+                    closeListeners.forEach { this.closeFuture().addListener(it) }
                     this
                 }
         }
@@ -93,24 +133,29 @@ public open class Iso8583Client<T : IsoMessage>(
         val b = Bootstrap()
         b
             .group(bossEventLoopGroup)
-            .channel(NioSocketChannel::class.java)
-            .remoteAddress(socketAddress)
+            .channel(channelTransport.channelClass(socketAddress))
+            .remoteAddress(channelTransport.socketAddress(socketAddress))
             .handler(
                 Iso8583ChannelInitializer<Channel, Bootstrap, ClientConfiguration>(
                     configuration,
                     configurer,
-                    workerEventLoopGroup,
+                    handlerEventLoopGroup,
                     isoMessageFactory as MessageFactory<IsoMessage>,
+                    sendQueue.handler,
                     messageHandler,
                 ),
             )
-        configureBootstrap(b)
+        writeBufferWaterMark?.let { b.option(ChannelOption.WRITE_BUFFER_WATER_MARK, it) }
+        configureBootstrap(b, tcp = !ChannelTransport.isDomainSocket(socketAddress))
         b.validate()
         reconnectOnCloseListener =
             ReconnectOnCloseListener(
                 this,
                 configuration.reconnectInterval,
                 bossEventLoopGroup,
+                configuration.maxReconnectInterval,
+                configuration.circuitBreakerThreshold,
+                configuration.connectLimiter,
             )
         return b
     }
@@ -127,16 +172,156 @@ public open class Iso8583Client<T : IsoMessage>(
         disconnectAsync()?.await()
     }
 
+    /**
+     * Closes the connection without reconnecting, as event loop groups may be shared and keep running.
+     */
+    public override fun shutdown() {
+        if (::reconnectOnCloseListener.isInitialized) {
+            disconnectAsync()
+        }
+        super.shutdown()
+    }
+
     /**
      * Sends asynchronously and returns a [ChannelFuture]
      *
+     * When the channel is not writable, the message is queued,
+     * or [ClientConfiguration.backpressurePolicy] is applied if the send queue is full.
+     * The future fails with [ClosedChannelException] at once if the connection is closed.
+     *
      * @param isoMessage A message to send
      * @return ChannelFuture which will be notified when message is sent
+     * @throws IllegalStateException if the client is not connected or the message is rejected
      */
     public fun sendAsync(isoMessage: IsoMessage): ChannelFuture {
         val ch = channel
-        check(ch != null && ch.isWritable) { "Channel is not writable" }
-        return ch.writeAndFlush(isoMessage)
+        checkNotNull(ch) { "Channel is not connected" }
+        return sendQueue.send(ch, isoMessage)
+    }
+
+    /**
+     * Sends the request and returns a future completed by the response,
+     * matched with [ClientConfiguration.messageMatcher].
+     *
+     * The future fails with [TimeoutException] if the response does not come within [timeout],
+     * rounded up to [ClientConfiguration.timeoutTickMillis], and the request is passed to [RequestTimeoutListener]s.
+     * The future fails with [ClosedChannelException] if the connection is closed, or with the cause of write failure.
+     * The matched response is not passed to message listeners. A reference-counted response,
+     * e.g. [com.github.kpavlov.jreactive8583.iso.PooledIsoMessage], is retained for the caller,
+     * who owns it and must release it when done.
+     *
+     * With [ClientConfiguration.maxInFlight] or [ClientConfiguration.adaptiveLimit] set,
+     * the request waits in a queue while the window is full,
+     * the timeout includes the wait. Queued requests fail rather than throw if they can't be written,
+     * and a reference-counted request is released if it completes before it is written.
+     *
+     * @throws IllegalArgumentException if the request has no match key
+     * @throws IllegalStateException if the client is not connected, the request is rejected,
+     * or a request with the same match key is in flight
+     */
+    public fun sendAndReceive(
+        isoMessage: IsoMessage,
+        timeout: Long,
+        timeUnit: TimeUnit,
+    ): CompletableFuture<T> {
+        val ch = channel
+        checkNotNull(ch) { "Channel is not connected" }
+        val key = configuration.messageMatcher.matchKey(isoMessage)
+        require(key != MessageMatcher.NO_KEY) { "Message has no match key" }
+        val pending =
+            pendingRequests.register(key, isoMessage, timeUnit.toNanos(timeout), ch.eventLoop())
+                ?: error("Request with the same match key is in flight")
+        if (inFlightWindow != null) {
+            inFlightWindow.submit(pending)
+            return pending.future
+        }
+        val writeFuture =
+            try {
+                sendAsync(isoMessage)
+            } catch (e: IllegalStateException) {
+                pendingRequests.remove(pending)
+                throw e
+            }
+        failOnWriteError(pending, writeFuture)
+        return pending.future
+    }
+
+    /**
+     * Writes the request granted a permit by [inFlightWindow].
+     */
+    private fun write(pending: PendingRequests.Pending<T>) {
+        if (pending.future.isDone) {
+            // cancelled while queued, the reference to be released by the encoder is released here
+            pendingRequests.remove(pending)
+            ReferenceCountUtil.release(pending.request)
+            return
+        }
+        try {
+            failOnWriteError(pending, sendAsync(pending.request))
+        } catch (e: IllegalStateException) {
+            if (pendingRequests.remove(pending)) {
+                pending.future.completeExceptionally(e)
+            }
+            ReferenceCountUtil.release(pending.request)
+        }
+    }
+
+    private fun failOnWriteError(
+        pending: PendingRequests.Pending<T>,
+        writeFuture: ChannelFuture,
+    ) {
+        writeFuture.addListener {
+            if (!it.isSuccess && pendingRequests.remove(pending)) {
+                pending.future.completeExceptionally(it.cause())
+            }
+        }
+    }
+
+    /**
+     * Sends the request and returns a future completed by the response,
+     * waiting for [ClientConfiguration.responseTimeout].
+     *
+     * @see sendAndReceive
+     */
+    public fun sendAndReceive(isoMessage: IsoMessage): CompletableFuture<T> =
+        sendAndReceive(isoMessage, configuration.responseTimeout, TimeUnit.MILLISECONDS)
+
+    /**
+     * Returns in-flight window of [sendAndReceive] requests.
+     *
+     * @see ClientConfiguration.maxInFlight
+     */
+    public fun inFlightMetrics(): InFlightMetrics =
+        inFlightWindow?.metrics() ?: InFlightMetrics(0, pendingRequests.size, 0, 0, 0)
+
+    public fun addRequestTimeoutListener(listener: RequestTimeoutListener) {
+        pendingRequests.addTimeoutListener(listener)
+    }
+
+    public fun removeRequestTimeoutListener(listener: RequestTimeoutListener) {
+        pendingRequests.removeTimeoutListener(listener)
+    }
+
+    /**
+     * Blocks until a message can be sent without applying [ClientConfiguration.backpressurePolicy].
+     *
+     * @return `true` if the channel is writable or the send queue has space, `false` on timeout
+     */
+    @Throws(InterruptedException::class)
+    public fun awaitWritable(
+        timeout: Long,
+        timeUnit: TimeUnit,
+    ): Boolean {
+        val ch = channel ?: return false
+        return sendQueue.awaitWritable(ch, timeout, timeUnit)
+    }
+
+    public fun addWritabilityListener(listener: WritabilityListener) {
+        sendQueue.addListener(listener)
+    }
+
+    public fun removeWritabilityListener(listener: WritabilityListener) {
+        sendQueue.removeListener(listener)
     }
 
     /**
@@ -159,6 +344,23 @@ public open class Iso8583Client<T : IsoMessage>(
         sendAsync(isoMessage).sync().await(timeout, timeUnit)
     }
 
+    /**
+     * Whether the client is connected and the channel is writable.
+     */
+    public val isWritable: Boolean
+        get() = channel?.isWritable == true
+
+    /**
+     * State of reconnection attempts, [CircuitState.OPEN] when the server has been unreachable for a while.
+     */
+    public val circuitState: CircuitState
+        get() =
+            if (::reconnectOnCloseListener.isInitialized) {
+                reconnectOnCloseListener.circuitState
+            } else {
+                CircuitState.CLOSED
+            }
+
     public val isConnected: Boolean
         get() {
             val channel = channel
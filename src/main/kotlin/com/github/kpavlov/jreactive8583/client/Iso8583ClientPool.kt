@@ -0,0 +1,267 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener
+import com.github.kpavlov.jreactive8583.iso.MessageFactory
+import com.solab.iso8583.IsoMessage
+import io.netty.channel.ChannelFuture
+import io.netty.channel.ChannelFutureListener
+import java.net.SocketAddress
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Maintains [size] connections to the same server and spreads outbound messages across them.
+ *
+ * Every connection is an [Iso8583Client] with its own reconnect logic, so members reconnect independently.
+ * Messages are sent over a connected member chosen by [selection].
+ * Inbound messages of all members are passed to listeners added with [addMessageListener].
+ *
+ * Requests in flight are those sent with [sendAndReceive] and awaiting response, as counted by
+ * [Iso8583Client.inFlightMetrics] of every member. Messages sent with [sendAsync] are not counted.
+ *
+ * Members create their own event loop groups, unless [com.github.kpavlov.jreactive8583.SharedEventLoopGroups]
+ * are configured.
+ *
+ * @param socketAddress server address
+ * @param size number of connections
+ * @param config configuration of every connection
+ * @param isoMessageFactory message factory
+ * @param selection how a connection is chosen for a message
+ */
+@Suppress("TooManyFunctions")
+public class Iso8583ClientPool<T : IsoMessage>
+    @JvmOverloads
+    constructor(
+        socketAddress: SocketAddress,
+        size: Int,
+        config: ClientConfiguration,
+        isoMessageFactory: MessageFactory<T>,
+        private val selection: Selection = Selection.LEAST_IN_FLIGHT,
+    ) {
+        /**
+         * How a connection is chosen for an outbound message.
+         */
+        public enum class Selection {
+            /**
+             * Connected members in turn.
+             */
+            ROUND_ROBIN,
+
+            /**
+             * A writable connected member with the least number of [sendAndReceive] requests awaiting response,
+             * falling back to any connected member.
+             */
+            LEAST_IN_FLIGHT,
+        }
+
+        /**
+         * Health of a pool member at the moment of [Iso8583ClientPool.health] call.
+         *
+         * @param index position of the member in the pool
+         * @param connected whether the member is connected
+         * @param writable whether the member can send without queueing
+         * @param inFlight requests sent with [sendAndReceive] and awaiting response
+         * @param sent messages sent over the member
+         * @param failed messages which could not be sent over the member
+         */
+        public data class MemberHealth(
+            val index: Int,
+            val connected: Boolean,
+            val writable: Boolean,
+            val inFlight: Int,
+            val sent: Long,
+            val failed: Long,
+        )
+
+        private inner class Member(
+            val index: Int,
+            val client: Iso8583Client<T>,
+        ) {
+            val sent = LongAdder()
+            val failed = LongAdder()
+
+            val inFlight: Int
+                get() = client.inFlightMetrics().inFlight
+
+            fun health(): MemberHealth =
+                MemberHealth(
+                    index = index,
+                    connected = client.isConnected,
+                    writable = client.isWritable,
+                    inFlight = inFlight,
+                    sent = sent.sum(),
+                    failed = failed.sum(),
+                )
+        }
+
+        private val members: List<Member>
+        private val group: ClientGroup<T>
+        private val next = AtomicInteger()
+        private val responseTimeout = config.responseTimeout
+
+        init {
+            require(size > 0) { "Pool size must be positive: $size" }
+            members = List(size) { index -> Member(index, Iso8583Client(socketAddress, config, isoMessageFactory)) }
+            group = ClientGroup(members.map { it.client })
+        }
+
+        /**
+         * Clients of the pool members.
+         */
+        public val clients: List<Iso8583Client<T>>
+            get() = group.clients
+
+        /**
+         * Whether at least one member is connected.
+         */
+        public val isConnected: Boolean
+            get() = group.isConnected
+
+        public fun addMessageListener(listener: IsoMessageListener<T>) {
+            group.addMessageListener(listener)
+        }
+
+        public fun removeMessageListener(listener: IsoMessageListener<T>) {
+            group.removeMessageListener(listener)
+        }
+
+        /**
+         * Initializes all members.
+         */
+        public fun init() {
+            group.init()
+        }
+
+        /**
+         * Connects all members asynchronously. Members which fail to connect keep reconnecting.
+         */
+        public fun connectAsync() {
+            group.connectAsync()
+        }
+
+        /**
+         * Connects all members and waits until one of them is connected, or all connection attempts fail.
+         *
+         * @return `true` if a member is connected
+         */
+        @Throws(InterruptedException::class)
+        public fun connect(
+            timeout: Long,
+            timeUnit: TimeUnit,
+        ): Boolean = group.connect(timeout, timeUnit)
+
+        /**
+         * Sends the message over a connected member.
+         *
+         * @throws IllegalStateException if no member is connected or the message is rejected
+         */
+        public fun sendAsync(isoMessage: IsoMessage): ChannelFuture {
+            val member = select() ?: error("No connected client in the pool")
+            val future =
+                try {
+                    member.client.sendAsync(isoMessage)
+                } catch (e: IllegalStateException) {
+                    member.failed.increment()
+                    throw e
+                }
+            member.sent.increment()
+            future.addListener(
+                ChannelFutureListener {
+                    if (!it.isSuccess) {
+                        member.failed.increment()
+                    }
+                },
+            )
+            return future
+        }
+
+        /**
+         * Sends the request over a connected member and returns a future completed by the response.
+         *
+         * @see Iso8583Client.sendAndReceive
+         * @throws IllegalStateException if no member is connected or the request is rejected
+         */
+        public fun sendAndReceive(
+            isoMessage: IsoMessage,
+            timeout: Long,
+            timeUnit: TimeUnit,
+        ): CompletableFuture<T> {
+            val member = select() ?: error("No connected client in the pool")
+            val future =
+                try {
+                    member.client.sendAndReceive(isoMessage, timeout, timeUnit)
+                } catch (e: IllegalStateException) {
+                    member.failed.increment()
+                    throw e
+                }
+            member.sent.increment()
+            return future
+        }
+
+        /**
+         * Sends the request over a connected member, waiting for [ClientConfiguration.responseTimeout].
+         *
+         * @see sendAndReceive
+         */
+        public fun sendAndReceive(isoMessage: IsoMessage): CompletableFuture<T> =
+            sendAndReceive(isoMessage, responseTimeout, TimeUnit.MILLISECONDS)
+
+        @Throws(InterruptedException::class)
+        public fun send(isoMessage: IsoMessage) {
+            sendAsync(isoMessage).sync()
+        }
+
+        /**
+         * Returns health of all members.
+         */
+        public fun health(): List<MemberHealth> = members.map { it.health() }
+
+        @Throws(InterruptedException::class)
+        public fun disconnect() {
+            group.disconnect()
+        }
+
+        public fun shutdown() {
+            group.shutdown()
+        }
+
+        private fun select(): Member? {
+            val start = Math.floorMod(next.getAndIncrement(), members.size)
+            return when (selection) {
+                Selection.ROUND_ROBIN -> firstConnectedFrom(start)
+                Selection.LEAST_IN_FLIGHT -> leastInFlightFrom(start) ?: firstConnectedFrom(start)
+            }
+        }
+
+        private fun firstConnectedFrom(start: Int): Member? {
+            for (i in members.indices) {
+                val member = members[(start + i) % members.size]
+                if (member.client.isConnected) {
+                    return member
+                }
+            }
+            return null
+        }
+
+        /**
+         * Scans from [start], so that ties are broken in turn.
+         */
+        private fun leastInFlightFrom(start: Int): Member? {
+            var best: Member? = null
+            var bestInFlight = Int.MAX_VALUE
+            for (i in members.indices) {
+                val member = members[(start + i) % members.size]
+                if (!member.client.isConnected || !member.client.isWritable) {
+                    continue
+                }
+                val inFlight = member.inFlight
+                if (inFlight < bestInFlight) {
+                    best = member
+                    bestInFlight = inFlight
+                }
+            }
+            return best
+        }
+    }
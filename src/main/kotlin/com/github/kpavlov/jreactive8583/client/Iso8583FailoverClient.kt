@@ -0,0 +1,379 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener
+import com.github.kpavlov.jreactive8583.iso.MessageFactory
+import com.solab.iso8583.IsoMessage
+import io.netty.channel.ChannelFuture
+import io.netty.channel.ChannelFutureListener
+import io.netty.channel.ChannelHandlerContext
+import io.netty.util.ReferenceCountUtil
+import org.slf4j.LoggerFactory
+import java.net.SocketAddress
+import java.nio.channels.ClosedChannelException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Connects to several endpoints of the same service and spreads requests across the healthy ones
+ * in proportion to their weights.
+ *
+ * Every endpoint is served by an [Iso8583Client] with its own reconnect logic.
+ * Disconnected endpoints get no traffic. Endpoints whose average response time exceeds
+ * [ClientConfiguration.latencyThreshold] get proportionally less traffic, so that they still
+ * get samples to recover.
+ *
+ * Requests are matched to responses with [ClientConfiguration.messageMatcher], requests without match key
+ * are sent but not tracked. Tracked requests whose connection is lost are resent over another endpoint
+ * if [ClientConfiguration.retryInFlight] is set, otherwise they are reported to [UnansweredMessageListener]s,
+ * as well as requests not answered within [ClientConfiguration.responseTimeout].
+ * Reference-counted tracked requests, e.g. [com.github.kpavlov.jreactive8583.iso.PooledIsoMessage],
+ * are retained until answered or reported, as the encoder releases them once written.
+ *
+ * @param endpoints endpoints to connect to
+ * @param config configuration of every connection
+ * @param isoMessageFactory message factory
+ */
+@Suppress("TooManyFunctions")
+public class Iso8583FailoverClient<T : IsoMessage>(
+    endpoints: List<Endpoint>,
+    private val config: ClientConfiguration,
+    isoMessageFactory: MessageFactory<T>,
+) {
+    /**
+     * Endpoint [address] with relative [weight].
+     */
+    public data class Endpoint
+        @JvmOverloads
+        constructor(
+            val address: SocketAddress,
+            val weight: Int = 1,
+        ) {
+            init {
+                require(weight > 0) { "Endpoint weight must be positive: $weight" }
+            }
+        }
+
+    /**
+     * Health of an endpoint at the moment of [Iso8583FailoverClient.health] call.
+     *
+     * @param endpoint the endpoint
+     * @param connected whether the endpoint is connected
+     * @param latencyMillis moving average of response time, `0` before the first response
+     * @param inFlight tracked requests awaiting response
+     */
+    public data class EndpointHealth(
+        val endpoint: Endpoint,
+        val connected: Boolean,
+        val latencyMillis: Double,
+        val inFlight: Int,
+    )
+
+    private class Pending(
+        val message: IsoMessage,
+        val sentAtNanos: Long,
+        val retried: Boolean,
+    )
+
+    private inner class Member(
+        val endpoint: Endpoint,
+        val client: Iso8583Client<T>,
+    ) {
+        val pending = ConcurrentHashMap<Long, Pending>()
+        val latencyNanos = AtomicLong()
+
+        /**
+         * Smooth weighted round-robin state, guarded by [members].
+         */
+        var currentWeight = 0L
+
+        fun recordLatency(nanos: Long) {
+            latencyNanos.getAndUpdate { average ->
+                if (average == 0L) nanos else average + (nanos - average) / LATENCY_SMOOTHING
+            }
+        }
+
+        /**
+         * Weight scaled down in proportion to the average latency exceeding the threshold.
+         */
+        fun effectiveWeight(): Long {
+            val weight = endpoint.weight * WEIGHT_SCALE
+            val latency = latencyNanos.get()
+            return if (latency <= latencyThresholdNanos) {
+                weight
+            } else {
+                maxOf(1, weight * latencyThresholdNanos / latency)
+            }
+        }
+
+        fun health(): EndpointHealth =
+            EndpointHealth(
+                endpoint = endpoint,
+                connected = client.isConnected,
+                latencyMillis = latencyNanos.get() / NANOS_PER_MILLI,
+                inFlight = pending.size,
+            )
+    }
+
+    private val logger = LoggerFactory.getLogger(Iso8583FailoverClient::class.java)
+    private val members: List<Member>
+    private val group: ClientGroup<T>
+    private val unansweredListeners = CopyOnWriteArrayList<UnansweredMessageListener>()
+    private val latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.latencyThreshold)
+    private val responseTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.responseTimeout)
+
+    init {
+        require(endpoints.isNotEmpty()) { "At least one endpoint is required" }
+        members =
+            endpoints.map { endpoint ->
+                Member(endpoint, Iso8583Client(endpoint.address, config, isoMessageFactory)).also { member ->
+                    member.client.addMessageListener(ResponseTracker(member))
+                    member.client.closeListeners.add(ChannelFutureListener { connectionLost(member) })
+                }
+            }
+        group = ClientGroup(members.map { it.client })
+    }
+
+    /**
+     * Clients of the endpoints, in order of endpoints.
+     */
+    public val clients: List<Iso8583Client<T>>
+        get() = group.clients
+
+    /**
+     * Whether at least one endpoint is connected.
+     */
+    public val isConnected: Boolean
+        get() = group.isConnected
+
+    public fun addMessageListener(listener: IsoMessageListener<T>) {
+        group.addMessageListener(listener)
+    }
+
+    public fun removeMessageListener(listener: IsoMessageListener<T>) {
+        group.removeMessageListener(listener)
+    }
+
+    public fun addUnansweredMessageListener(listener: UnansweredMessageListener) {
+        unansweredListeners.add(listener)
+    }
+
+    public fun removeUnansweredMessageListener(listener: UnansweredMessageListener) {
+        unansweredListeners.remove(listener)
+    }
+
+    /**
+     * Initializes clients of all endpoints and starts checking response timeouts.
+     */
+    public fun init() {
+        group.init(config.responseTimeout, ::expireRequests)
+    }
+
+    /**
+     * Connects all endpoints asynchronously. Endpoints which fail to connect keep reconnecting.
+     */
+    public fun connectAsync() {
+        group.connectAsync()
+    }
+
+    /**
+     * Connects all endpoints and waits until one of them is connected, or all connection attempts fail.
+     *
+     * @return `true` if an endpoint is connected
+     */
+    @Throws(InterruptedException::class)
+    public fun connect(
+        timeout: Long,
+        timeUnit: TimeUnit,
+    ): Boolean = group.connect(timeout, timeUnit)
+
+    /**
+     * Sends the message over a connected endpoint chosen by weight. Does not wait for a connection.
+     *
+     * @throws IllegalStateException if no endpoint is connected or the message is rejected
+     */
+    public fun sendAsync(isoMessage: IsoMessage): ChannelFuture = sendAsync(isoMessage, retried = false)
+
+    @Throws(InterruptedException::class)
+    public fun send(isoMessage: IsoMessage) {
+        sendAsync(isoMessage).sync()
+    }
+
+    /**
+     * Returns health of all endpoints.
+     */
+    public fun health(): List<EndpointHealth> = members.map { it.health() }
+
+    @Throws(InterruptedException::class)
+    public fun disconnect() {
+        group.disconnect()
+    }
+
+    public fun shutdown() {
+        group.shutdown()
+        for (member in members) {
+            member.pending.keys.forEach { key -> member.pending.remove(key)?.let(::release) }
+        }
+    }
+
+    private fun sendAsync(
+        isoMessage: IsoMessage,
+        retried: Boolean,
+    ): ChannelFuture {
+        val member = select() ?: error("No connected endpoint")
+        val key = requestKey(isoMessage)
+        val pending = Pending(isoMessage, System.nanoTime(), retried)
+        val tracked = key != MessageMatcher.NO_KEY && track(member, key, pending)
+        val future =
+            try {
+                member.client.sendAsync(isoMessage)
+            } catch (e: IllegalStateException) {
+                if (tracked && member.pending.remove(key, pending)) release(pending)
+                throw e
+            }
+        if (tracked) {
+            future.addListener(
+                ChannelFutureListener {
+                    if (!it.isSuccess && member.pending.remove(key, pending)) {
+                        unanswered(member, pending, it.cause())
+                    }
+                },
+            )
+        }
+        return future
+    }
+
+    /**
+     * Match key of the request, [MessageMatcher.NO_KEY] for responses.
+     */
+    private fun requestKey(isoMessage: IsoMessage): Long =
+        if (ClientGroup.isResponse(isoMessage)) {
+            MessageMatcher.NO_KEY
+        } else {
+            config.messageMatcher.matchKey(isoMessage)
+        }
+
+    /**
+     * Smooth weighted round-robin over connected endpoints.
+     */
+    private fun select(): Member? =
+        synchronized(members) {
+            var best: Member? = null
+            var total = 0L
+            for (member in members) {
+                if (!member.client.isConnected) {
+                    continue
+                }
+                val weight = member.effectiveWeight()
+                member.currentWeight += weight
+                total += weight
+                if (best == null || member.currentWeight > best.currentWeight) {
+                    best = member
+                }
+            }
+            best?.also { it.currentWeight -= total }
+        }
+
+    /**
+     * Tracks the request, retaining it until it is answered or reported.
+     */
+    private fun track(
+        member: Member,
+        key: Long,
+        pending: Pending,
+    ): Boolean {
+        ReferenceCountUtil.retain(pending.message)
+        if (member.pending.putIfAbsent(key, pending) != null) {
+            ReferenceCountUtil.release(pending.message)
+            return false
+        }
+        return true
+    }
+
+    private fun release(pending: Pending) {
+        ReferenceCountUtil.release(pending.message)
+    }
+
+    private fun connectionLost(member: Member) {
+        synchronized(members) { member.currentWeight = 0 }
+        val lost = member.pending.keys.mapNotNull { key -> member.pending.remove(key) }
+        if (lost.isNotEmpty()) {
+            logger.warn("Connection to {} lost with {} requests in flight", member.endpoint.address, lost.size)
+        }
+        lost.forEach { unanswered(member, it, ClosedChannelException()) }
+    }
+
+    private fun expireRequests() {
+        val now = System.nanoTime()
+        for (member in members) {
+            for ((key, pending) in member.pending) {
+                val elapsed = now - pending.sentAtNanos
+                if (elapsed >= responseTimeoutNanos && member.pending.remove(key, pending)) {
+                    member.recordLatency(elapsed)
+                    report(member, pending, TimeoutException("No response within ${config.responseTimeout} ms"))
+                    release(pending)
+                }
+            }
+        }
+    }
+
+    /**
+     * Resends requests which never reached the server, or were lost with the connection, once.
+     * The reference held by [pending] goes to the encoder on resend, or is released once reported.
+     */
+    private fun unanswered(
+        member: Member,
+        pending: Pending,
+        cause: Throwable,
+    ) {
+        if (config.retryInFlight && !pending.retried) {
+            try {
+                sendAsync(pending.message, retried = true)
+                return
+            } catch (e: IllegalStateException) {
+                logger.debug("Can't resend request lost by {}", member.endpoint.address, e)
+            }
+        }
+        report(member, pending, cause)
+        release(pending)
+    }
+
+    private fun report(
+        member: Member,
+        pending: Pending,
+        cause: Throwable,
+    ) {
+        unansweredListeners.forEach { it.onUnanswered(pending.message, member.endpoint.address, cause) }
+    }
+
+    /**
+     * Completes requests answered by an endpoint. Messages are passed on to other listeners.
+     */
+    private inner class ResponseTracker(
+        private val member: Member,
+    ) : IsoMessageListener<T> {
+        override fun applies(isoMessage: T): Boolean = ClientGroup.isResponse(isoMessage)
+
+        override fun onMessage(
+            ctx: ChannelHandlerContext,
+            isoMessage: T,
+        ): Boolean {
+            member.pending.remove(config.messageMatcher.matchKey(isoMessage))?.let {
+                member.recordLatency(System.nanoTime() - it.sentAtNanos)
+                release(it)
+            }
+            return true
+        }
+    }
+
+    private companion object {
+        /**
+         * Weight of a new sample in the latency average is `1 / LATENCY_SMOOTHING`.
+         */
+        private const val LATENCY_SMOOTHING = 8
+        private const val WEIGHT_SCALE = 100L
+        private const val NANOS_PER_MILLI = 1_000_000.0
+    }
+}
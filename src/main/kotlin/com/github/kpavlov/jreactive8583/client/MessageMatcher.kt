@@ -0,0 +1,104 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.solab.iso8583.IsoMessage
+
+/**
+ * Computes a key which is equal for a request and its response,
+ * used by [Iso8583Client.sendAndReceive] to complete the request with the response.
+ *
+ * Keys are primitive `long`s, so that tracking requests in flight creates no garbage.
+ *
+ * @see ClientConfiguration.Builder.messageMatcher
+ */
+public fun interface MessageMatcher {
+    /**
+     * Returns the match key of a request or a response, or [NO_KEY] if the message can't be matched.
+     */
+    public fun matchKey(isoMessage: IsoMessage): Long
+
+    public companion object {
+        /**
+         * Key of a message which can't be matched.
+         */
+        @JvmField
+        public val NO_KEY: Long = Long.MIN_VALUE
+
+        /**
+         * Matches messages by MTI pair and STAN (field 11), which a response must echo.
+         *
+         * The key packs request MTI with response bit set into 16 bits and STAN into 20 bits,
+         * so requests with different MTI or STAN never collide.
+         * Messages without STAN have [NO_KEY].
+         *
+         * @see byFields
+         */
+        @JvmField
+        public val DEFAULT: MessageMatcher = FieldsMessageMatcher(IntArray(0))
+
+        /**
+         * Matches messages by MTI pair, STAN and the given [fields], e.g. terminal ID (41) and RRN (37),
+         * to tell apart requests sharing STAN.
+         *
+         * A 28-bit hash of the fields fills the bits left by [DEFAULT], absent fields are skipped.
+         * Use it only if the host echoes every listed field in the response unchanged,
+         * otherwise responses won't match their requests.
+         */
+        @JvmStatic
+        public fun byFields(vararg fields: Int): MessageMatcher = FieldsMessageMatcher(fields.copyOf())
+    }
+}
+
+private class FieldsMessageMatcher(
+    private val fields: IntArray,
+) : MessageMatcher {
+    private companion object {
+        private const val RESPONSE_BIT = 0x0010
+        private const val MTI_MASK = 0xFFFFL
+        private const val MTI_SHIFT = 48
+        private const val STAN_FIELD = 11
+        private const val STAN_MASK = 0xFFFFFL
+        private const val STAN_SHIFT = 28
+        private const val HASH_MASK = 0xFFFFFFFL
+        private const val FNV_OFFSET_BASIS = -0x7ee3623b
+        private const val FNV_PRIME = 0x01000193
+    }
+
+    override fun matchKey(isoMessage: IsoMessage): Long {
+        val stan =
+            when (val value = isoMessage.getObjectValue<Any?>(STAN_FIELD)) {
+                is Number -> value.toLong()
+                else -> value?.toString()?.trim()?.toLongOrNull()
+            } ?: return MessageMatcher.NO_KEY
+        val mti = (isoMessage.type or RESPONSE_BIT).toLong() and MTI_MASK
+        val key = (mti shl MTI_SHIFT) or ((stan and STAN_MASK) shl STAN_SHIFT)
+        return if (fields.isEmpty()) key else key or (hash(isoMessage).toLong() and HASH_MASK)
+    }
+
+    private fun hash(isoMessage: IsoMessage): Int {
+        var hash = FNV_OFFSET_BASIS
+        for (field in fields) {
+            hash = hash(hash, isoMessage.getObjectValue<Any?>(field))
+        }
+        return hash
+    }
+
+    /**
+     * FNV-1a over characters of [value] with leading and trailing spaces ignored,
+     * as fixed length fields may be padded.
+     */
+    private fun hash(
+        seed: Int,
+        value: Any?,
+    ): Int {
+        val chars = (value as? CharSequence) ?: value?.toString() ?: return seed
+        var start = 0
+        var end = chars.length
+        while (start < end && chars[start] == ' ') start++
+        while (end > start && chars[end - 1] == ' ') end--
+        var hash = seed
+        for (i in start until end) {
+            hash = (hash xor chars[i].code) * FNV_PRIME
+        }
+        return hash
+    }
+}
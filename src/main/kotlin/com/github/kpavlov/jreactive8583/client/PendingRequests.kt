@@ -0,0 +1,209 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener
+import com.github.kpavlov.jreactive8583.iso.MessageHeader
+import com.solab.iso8583.IsoMessage
+import io.netty.channel.ChannelHandlerContext
+import io.netty.util.ReferenceCountUtil
+import io.netty.util.collection.LongObjectHashMap
+import io.netty.util.concurrent.EventExecutor
+import io.netty.util.concurrent.ScheduledFuture
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Requests sent with [Iso8583Client.sendAndReceive] awaiting response, by match key.
+ *
+ * [listener] completes the request matching a received response, the response is not passed to other listeners then.
+ * A reference-counted response, e.g. [com.github.kpavlov.jreactive8583.iso.PooledIsoMessage],
+ * is retained for the future, so the caller owns it and must release it.
+ * Deadlines are kept in a [TimingWheel], ticked by a task which runs while there are requests in flight.
+ * Requests expired by a tick fail with [TimeoutException] and are passed to [RequestTimeoutListener]s at once.
+ * Requests leaving the registry in any way, including cancellation of the future,
+ * release their permit of the [window], if any.
+ *
+ * A reference-counted request is retained while registered, as the encoder releases it once written,
+ * and released when it leaves the registry, after [RequestTimeoutListener]s are notified.
+ */
+internal class PendingRequests<T : IsoMessage>(
+    private val matcher: MessageMatcher,
+    tickMillis: Long,
+    wheelSize: Int,
+    private val window: InFlightWindow<T>?,
+) {
+    class Pending<T : IsoMessage>(
+        val key: Long,
+        val request: IsoMessage,
+    ) : TimingWheel.Node() {
+        val future = CompletableFuture<T>()
+
+        /**
+         * Permit state of the [InFlightWindow], updated with compare-and-set.
+         */
+        @JvmField
+        @Volatile
+        var permitState: Int = 0
+
+        var queuedAtNanos: Long = 0L
+
+        var sentAtNanos: Long = 0L
+    }
+
+    private val requests = LongObjectHashMap<Pending<T>>()
+    private val tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis)
+    private val wheel = TimingWheel<Pending<T>>(tickNanos, wheelSize, System.nanoTime())
+    private val timeoutListeners = CopyOnWriteArrayList<RequestTimeoutListener>()
+    private var ticker: ScheduledFuture<*>? = null
+
+    val listener: IsoMessageListener<T> = ResponseListener()
+
+    val size: Int
+        get() = synchronized(requests) { requests.size }
+
+    fun addTimeoutListener(listener: RequestTimeoutListener) {
+        timeoutListeners.add(listener)
+    }
+
+    fun removeTimeoutListener(listener: RequestTimeoutListener) {
+        timeoutListeners.remove(listener)
+    }
+
+    /**
+     * Registers the [request] expiring in [timeoutNanos], starting a ticker on [executor] if there is none.
+     *
+     * @return pending request, or `null` if a request with the same [key] is in flight
+     */
+    fun register(
+        key: Long,
+        request: IsoMessage,
+        timeoutNanos: Long,
+        executor: EventExecutor,
+    ): Pending<T>? {
+        val pending =
+            synchronized(requests) {
+                if (requests.containsKey(key)) {
+                    return null
+                }
+                val pending = Pending<T>(key, ReferenceCountUtil.retain(request))
+                requests.put(key, pending)
+                wheel.add(pending, System.nanoTime() + timeoutNanos)
+                if (ticker == null) {
+                    ticker = executor.scheduleAtFixedRate(::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS)
+                }
+                pending
+            }
+        // a cancelled request, e.g. by a cancelled coroutine, frees its key and permit at once
+        pending.future.whenComplete { _, _ ->
+            if (pending.future.isCancelled) {
+                remove(pending)
+            }
+        }
+        return pending
+    }
+
+    /**
+     * Removes the [pending] request if it is still registered.
+     *
+     * @return `true` if the request was removed and should be completed by the caller
+     */
+    fun remove(pending: Pending<T>): Boolean {
+        val removed =
+            synchronized(requests) {
+                if (requests.get(pending.key) === pending) {
+                    requests.remove(pending.key)
+                    wheel.remove(pending)
+                    true
+                } else {
+                    false
+                }
+            }
+        if (removed) {
+            window?.release(pending, InFlightWindow.Outcome.FAILED)
+            ReferenceCountUtil.release(pending.request)
+        }
+        return removed
+    }
+
+    fun failAll(cause: Throwable) {
+        val failed = ArrayList<Pending<T>>()
+        synchronized(requests) {
+            requests.clear()
+            wheel.clear { failed.add(it) }
+        }
+        failed.forEach {
+            window?.release(it, InFlightWindow.Outcome.FAILED)
+            it.future.completeExceptionally(cause)
+            ReferenceCountUtil.release(it.request)
+        }
+    }
+
+    private fun tick() {
+        var expired: MutableList<Pending<T>>? = null
+        var stopped: ScheduledFuture<*>? = null
+        synchronized(requests) {
+            wheel.expire(System.nanoTime()) {
+                requests.remove(it.key)
+                (expired ?: ArrayList<Pending<T>>().also { list -> expired = list }).add(it)
+            }
+            if (requests.isEmpty()) {
+                stopped = ticker
+                ticker = null
+            }
+        }
+        stopped?.cancel(false)
+        expired?.let { list ->
+            window?.let { window -> list.forEach { window.release(it, InFlightWindow.Outcome.TIMED_OUT) } }
+            timedOut(list)
+            list.forEach { ReferenceCountUtil.release(it.request) }
+        }
+    }
+
+    private fun timedOut(expired: List<Pending<T>>) {
+        // requests completed by the caller in the meantime, e.g. cancelled, are not reported
+        val timedOut =
+            expired
+                .filter { it.future.completeExceptionally(TimeoutException("No response within timeout")) }
+                .map { it.request }
+        if (timedOut.isNotEmpty()) {
+            timeoutListeners.forEach { it.onTimeout(timedOut) }
+        }
+    }
+
+    private fun complete(response: T): Boolean {
+        val key = matcher.matchKey(response)
+        val pending =
+            if (key == MessageMatcher.NO_KEY) {
+                null
+            } else {
+                synchronized(requests) { requests.remove(key)?.also { wheel.remove(it) } }
+            }
+        if (pending == null) {
+            return false
+        }
+        window?.release(pending, InFlightWindow.Outcome.ANSWERED)
+        // the pipeline releases the response once listeners are done, the caller gets its own reference
+        ReferenceCountUtil.retain(response)
+        if (!pending.future.complete(response)) {
+            ReferenceCountUtil.release(response)
+        }
+        ReferenceCountUtil.release(pending.request)
+        return true
+    }
+
+    private inner class ResponseListener : IsoMessageListener<T> {
+        override fun appliesToHeader(header: MessageHeader): Boolean = header.type and RESPONSE_BIT != 0
+
+        override fun applies(isoMessage: T): Boolean = isoMessage.type and RESPONSE_BIT != 0
+
+        override fun onMessage(
+            ctx: ChannelHandlerContext,
+            isoMessage: T,
+        ): Boolean = !complete(isoMessage)
+    }
+
+    private companion object {
+        private const val RESPONSE_BIT = 0x0010
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.solab.iso8583.IsoMessage
+
+/**
+ * Notified of requests sent with [Iso8583Client.sendAndReceive] which were not answered in time,
+ * for example to send reversals for them.
+ *
+ * Requests expired at the same tick of the timeout wheel are passed together.
+ *
+ * @see ClientConfiguration.Builder.timeoutWheel
+ */
+public fun interface RequestTimeoutListener {
+    /**
+     * Called on the event loop after futures of [requests] failed with
+     * [java.util.concurrent.TimeoutException], must not block.
+     * Reference-counted requests are released after the call, a listener keeping them must retain them.
+     */
+    public fun onTimeout(requests: List<IsoMessage>)
+}
@@ -0,0 +1,224 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.solab.iso8583.IsoMessage
+import io.netty.channel.Channel
+import io.netty.channel.ChannelFuture
+import io.netty.channel.ChannelHandler
+import io.netty.channel.ChannelHandler.Sharable
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelInboundHandlerAdapter
+import io.netty.channel.ChannelPromise
+import io.netty.util.ReferenceCountUtil
+import java.nio.channels.ClosedChannelException
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Bounded queue of messages sent while the channel is not writable, applying [BackpressurePolicy] when full.
+ *
+ * Messages are written directly while the channel is writable and nothing is queued.
+ * Queued messages are written when [handler] is notified that the channel became writable again,
+ * and failed when the channel is closed. Messages sent over a closed channel fail at once.
+ * The queue holds messages of a single channel: messages left from a previous channel
+ * are failed when a new one becomes active, and never written to it.
+ * Reference-counted messages which are dropped or failed are released, as the encoder would have done.
+ */
+@Suppress("TooManyFunctions")
+internal class SendQueue(
+    private val capacity: Int,
+    private val policy: BackpressurePolicy,
+    private val timeoutMillis: Long,
+) {
+    private class Pending(
+        val message: IsoMessage,
+        val promise: ChannelPromise,
+    )
+
+    private enum class Outcome {
+        CLOSED,
+        DIRECT,
+        QUEUED,
+    }
+
+    private val lock = ReentrantLock()
+    private val changed = lock.newCondition()
+    private val queue = ArrayDeque<Pending>()
+    private val listeners = CopyOnWriteArrayList<WritabilityListener>()
+
+    /**
+     * Handler to be added to the client pipeline.
+     */
+    val handler: ChannelHandler = WritabilityHandler()
+
+    fun addListener(listener: WritabilityListener) {
+        listeners.add(listener)
+    }
+
+    fun removeListener(listener: WritabilityListener) {
+        listeners.remove(listener)
+    }
+
+    /**
+     * Writes the [message] or queues it.
+     *
+     * @throws IllegalStateException if the message is rejected
+     */
+    fun send(
+        channel: Channel,
+        message: IsoMessage,
+    ): ChannelFuture =
+        when {
+            !channel.isActive -> closed(channel, message)
+            capacity == 0 && policy != BackpressurePolicy.WAIT -> {
+                // nothing is ever queued, so there is no order to keep and no lock to take
+                check(channel.isWritable) { "Channel is not writable and send queue is full" }
+                channel.writeAndFlush(message)
+            }
+            else -> enqueue(channel, message)
+        }
+
+    private fun enqueue(
+        channel: Channel,
+        message: IsoMessage,
+    ): ChannelFuture {
+        val promise = channel.newPromise()
+        var dropped: Pending? = null
+        val outcome =
+            lock.withLock {
+                if (policy == BackpressurePolicy.WAIT && !channel.eventLoop().inEventLoop()) {
+                    awaitSpace(channel, TimeUnit.MILLISECONDS.toNanos(timeoutMillis))
+                }
+                when {
+                    // closed while waiting, the queue may have been failed already
+                    !channel.isActive -> Outcome.CLOSED
+                    queue.isEmpty() && channel.isWritable -> Outcome.DIRECT
+                    queue.size < capacity -> {
+                        queue.addLast(Pending(message, promise))
+                        Outcome.QUEUED
+                    }
+                    policy == BackpressurePolicy.DROP_OLDEST -> {
+                        dropped = queue.removeFirst()
+                        queue.addLast(Pending(message, promise))
+                        Outcome.QUEUED
+                    }
+                    else -> error("Channel is not writable and send queue is full")
+                }
+            }
+        dropped?.let { fail(it, IllegalStateException("Message was dropped from full send queue")) }
+        return when (outcome) {
+            Outcome.CLOSED -> closed(channel, message)
+            Outcome.DIRECT -> channel.writeAndFlush(message, promise)
+            Outcome.QUEUED -> {
+                if (channel.isWritable) {
+                    // writability may have changed before the message was queued
+                    scheduleDrain(channel)
+                }
+                promise
+            }
+        }
+    }
+
+    /**
+     * Waits until a message can be sent without applying the policy.
+     *
+     * @return `true` if a message can be sent
+     */
+    fun awaitWritable(
+        channel: Channel,
+        timeout: Long,
+        unit: TimeUnit,
+    ): Boolean = lock.withLock { awaitSpace(channel, unit.toNanos(timeout)) }
+
+    private fun awaitSpace(
+        channel: Channel,
+        timeoutNanos: Long,
+    ): Boolean {
+        var nanos = timeoutNanos
+        while (!hasSpace(channel) && nanos > 0 && channel.isActive) {
+            nanos = changed.awaitNanos(nanos)
+        }
+        return hasSpace(channel)
+    }
+
+    private fun closed(
+        channel: Channel,
+        message: IsoMessage,
+    ): ChannelFuture {
+        ReferenceCountUtil.release(message)
+        return channel.newFailedFuture(ClosedChannelException())
+    }
+
+    private fun fail(
+        pending: Pending,
+        cause: Throwable,
+    ) {
+        pending.promise.tryFailure(cause)
+        ReferenceCountUtil.release(pending.message)
+    }
+
+    private fun hasSpace(channel: Channel): Boolean = queue.size < capacity || (queue.isEmpty() && channel.isWritable)
+
+    private fun scheduleDrain(channel: Channel) {
+        val eventLoop = channel.eventLoop()
+        if (eventLoop.inEventLoop()) {
+            drain(channel)
+        } else {
+            eventLoop.execute { drain(channel) }
+        }
+    }
+
+    /**
+     * Writes queued messages while the channel is writable, on the channel's event loop to keep them in order.
+     */
+    private fun drain(channel: Channel) {
+        var written = false
+        while (channel.isWritable) {
+            val next = lock.withLock { queue.removeFirstOrNull() } ?: break
+            if (next.promise.channel() === channel) {
+                channel.write(next.message, next.promise)
+                written = true
+            } else {
+                fail(next, ClosedChannelException())
+            }
+        }
+        if (written) {
+            channel.flush()
+        }
+        lock.withLock { changed.signalAll() }
+    }
+
+    private fun failAll(cause: Throwable) {
+        val failed =
+            lock.withLock {
+                changed.signalAll()
+                queue.toList().also { queue.clear() }
+            }
+        failed.forEach { fail(it, cause) }
+    }
+
+    @Sharable
+    private inner class WritabilityHandler : ChannelInboundHandlerAdapter() {
+        override fun channelWritabilityChanged(ctx: ChannelHandlerContext) {
+            val channel = ctx.channel()
+            val writable = channel.isWritable
+            if (writable) {
+                scheduleDrain(channel)
+            }
+            listeners.forEach { it.writabilityChanged(writable) }
+            ctx.fireChannelWritabilityChanged()
+        }
+
+        override fun channelActive(ctx: ChannelHandlerContext) {
+            // left from a previous channel, which has been closed
+            failAll(ClosedChannelException())
+            ctx.fireChannelActive()
+        }
+
+        override fun channelInactive(ctx: ChannelHandlerContext) {
+            failAll(ClosedChannelException())
+            ctx.fireChannelInactive()
+        }
+    }
+}
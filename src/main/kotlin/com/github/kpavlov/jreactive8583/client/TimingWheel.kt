@@ -0,0 +1,138 @@
+package com.github.kpavlov.jreactive8583.client
+
+/**
+ * Hashed timing wheel: [wheelSize] buckets of intrusive doubly linked lists of [Node]s, each bucket covering a tick.
+ *
+ * Adding and removing a node is O(1) and allocates nothing, as links are stored in the node itself.
+ * [expire] walks buckets of ticks elapsed since the previous call, so a node expires
+ * no earlier than its deadline and no later than one tick after the call following it.
+ *
+ * Not thread-safe, callers synchronize access.
+ *
+ * @param tickNanos duration of a tick
+ * @param wheelSize number of buckets, a power of two
+ * @param startNanos time of tick `0`, [System.nanoTime] based
+ */
+internal class TimingWheel<N : TimingWheel.Node>(
+    private val tickNanos: Long,
+    wheelSize: Int,
+    private val startNanos: Long,
+) {
+    /**
+     * Entry of the wheel, extended by timed objects.
+     */
+    internal abstract class Node {
+        internal var targetTick = 0L
+        internal var bucket = -1
+        internal var prev: Node? = null
+        internal var next: Node? = null
+
+        internal val isScheduled: Boolean
+            get() = bucket >= 0
+    }
+
+    private val mask = wheelSize - 1
+    private val buckets = arrayOfNulls<Node>(wheelSize)
+
+    /**
+     * Next tick to expire.
+     */
+    private var currentTick = 0L
+
+    var size: Int = 0
+        private set
+
+    init {
+        require(tickNanos > 0) { "tickNanos must be positive: $tickNanos" }
+        require(wheelSize > 0 && wheelSize and mask == 0) { "wheelSize must be a power of two: $wheelSize" }
+    }
+
+    fun add(
+        node: N,
+        deadlineNanos: Long,
+    ) {
+        check(!node.isScheduled) { "Node is already scheduled" }
+        val tick = maxOf(currentTick, ceilDiv(deadlineNanos - startNanos, tickNanos))
+        val bucket = (tick and mask.toLong()).toInt()
+        node.targetTick = tick
+        node.bucket = bucket
+        node.prev = null
+        node.next = buckets[bucket]
+        buckets[bucket]?.prev = node
+        buckets[bucket] = node
+        size++
+    }
+
+    /**
+     * @return `false` if the node is not scheduled
+     */
+    fun remove(node: N): Boolean {
+        if (!node.isScheduled) {
+            return false
+        }
+        unlink(node)
+        return true
+    }
+
+    /**
+     * Removes nodes with deadline not after [nowNanos] and passes them to [expired].
+     */
+    fun expire(
+        nowNanos: Long,
+        expired: (N) -> Unit,
+    ) {
+        while (size > 0 && startNanos + currentTick * tickNanos <= nowNanos) {
+            var node = buckets[(currentTick and mask.toLong()).toInt()]
+            while (node != null) {
+                val next = node.next
+                if (node.targetTick <= currentTick) {
+                    unlink(node)
+                    @Suppress("UNCHECKED_CAST")
+                    expired(node as N)
+                }
+                node = next
+            }
+            currentTick++
+        }
+        if (size == 0) {
+            // skip idle ticks, nothing is waiting for them
+            currentTick = maxOf(currentTick, (nowNanos - startNanos) / tickNanos)
+        }
+    }
+
+    /**
+     * Removes all nodes and passes them to [removed].
+     */
+    fun clear(removed: (N) -> Unit) {
+        for (bucket in buckets.indices) {
+            var node = buckets[bucket]
+            while (node != null) {
+                val next = node.next
+                unlink(node)
+                @Suppress("UNCHECKED_CAST")
+                removed(node as N)
+                node = next
+            }
+        }
+    }
+
+    private fun unlink(node: Node) {
+        val prev = node.prev
+        val next = node.next
+        if (prev == null) {
+            buckets[node.bucket] = next
+        } else {
+            prev.next = next
+        }
+        next?.prev = prev
+        node.prev = null
+        node.next = null
+        node.bucket = -1
+        size--
+    }
+
+    private fun ceilDiv(
+        x: Long,
+        y: Long,
+    ): Long = -Math.floorDiv(-x, y)
+}
@@ -0,0 +1,25 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.solab.iso8583.IsoMessage
+import java.net.SocketAddress
+
+/**
+ * Notified when a request sent by [Iso8583FailoverClient] is not answered.
+ */
+public fun interface UnansweredMessageListener {
+    /**
+     * Called when the connection of the endpoint was lost, the request could not be written
+     * or the response did not come within [ClientConfiguration.responseTimeout]. Must not block.
+     *
+     * A reference-counted request is released after the call, a listener keeping it must retain it.
+     *
+     * @param isoMessage the request
+     * @param endpoint address of the endpoint the request was sent to
+     * @param cause why the request is unanswered
+     */
+    public fun onUnanswered(
+        isoMessage: IsoMessage,
+        endpoint: SocketAddress,
+        cause: Throwable,
+    )
+}
@@ -0,0 +1,96 @@
+package com.github.kpavlov.jreactive8583.client
+
+import kotlin.math.log10
+import kotlin.math.max
+
+/**
+ * Delay-based limit after TCP Vegas.
+ *
+ * The number of requests queued at the host is estimated as `limit * (1 - rttNoLoad / rtt)`,
+ * where `rttNoLoad` is the minimum observed round-trip time. The limit grows by `log10(limit)`
+ * while fewer than `3 * log10(limit)` requests are queued and shrinks by `log10(limit)`
+ * when more than `6 * log10(limit)` are. A timeout halves the limit.
+ *
+ * Every [probeInterval] samples the limit drops by the estimated queue and `rttNoLoad` is re-measured,
+ * so that a permanent change of host latency is not mistaken for queueing, nor queueing for latency.
+ *
+ * @param initialLimit limit before the first sample
+ * @param minLimit lower bound of the limit
+ * @param maxLimit upper bound of the limit
+ * @param probeInterval number of samples between resets of the minimum round-trip time
+ */
+public class VegasLimit
+    @JvmOverloads
+    constructor(
+        initialLimit: Int = AimdLimit.DEFAULT_INITIAL_LIMIT,
+        private val minLimit: Int = 1,
+        private val maxLimit: Int = AimdLimit.DEFAULT_MAX_LIMIT,
+        private val probeInterval: Int = DEFAULT_PROBE_INTERVAL,
+    ) : ConcurrencyLimit {
+        private var estimate = initialLimit.toDouble()
+        private var rttNoLoadNanos = 0L
+        private var samples = 0
+
+        @Volatile
+        override var limit: Int = initialLimit
+            private set
+
+        init {
+            require(minLimit in 1..maxLimit) { "minLimit must be in 1..maxLimit: $minLimit" }
+            require(initialLimit in minLimit..maxLimit) { "initialLimit must be in minLimit..maxLimit: $initialLimit" }
+            require(probeInterval > 0) { "probeInterval must be positive: $probeInterval" }
+        }
+
+        @Synchronized
+        override fun onSample(
+            rttNanos: Long,
+            inFlight: Int,
+            dropped: Boolean,
+        ) {
+            when {
+                dropped -> update(estimate / 2)
+                rttNanos <= 0 -> Unit
+                ++samples >= probeInterval -> probe(rttNanos)
+                else -> adjust(rttNanos, inFlight)
+            }
+        }
+
+        private fun adjust(
+            rttNanos: Long,
+            inFlight: Int,
+        ) {
+            if (rttNoLoadNanos == 0L || rttNanos < rttNoLoadNanos) {
+                rttNoLoadNanos = rttNanos
+            }
+            val step = max(1.0, log10(estimate))
+            val queued = estimate * (1 - rttNoLoadNanos.toDouble() / rttNanos)
+            if (queued < ALPHA * step) {
+                // only grow when the limit is actually used
+                if (inFlight * 2 >= limit) {
+                    update(estimate + step)
+                }
+            } else if (queued > BETA * step) {
+                update(estimate - step)
+            }
+        }
+
+        private fun probe(rttNanos: Long) {
+            samples = 0
+            if (rttNoLoadNanos > 0) {
+                // drain the queue, so that following samples show latency without load
+                update(estimate * rttNoLoadNanos / max(rttNanos, rttNoLoadNanos))
+            }
+            rttNoLoadNanos = rttNanos
+        }
+
+        private fun update(value: Double) {
+            estimate = value.coerceIn(minLimit.toDouble(), maxLimit.toDouble())
+            limit = estimate.toInt()
+        }
+
+        public companion object {
+            public const val DEFAULT_PROBE_INTERVAL: Int = 1000
+            private const val ALPHA = 3
+            private const val BETA = 6
+        }
+    }
@@ -0,0 +1,16 @@
+package com.github.kpavlov.jreactive8583.client
+
+import com.github.kpavlov.jreactive8583.ConnectorConfiguration
+
+/**
+ * Notified when the client connection becomes writable or not writable,
+ * according to the write buffer watermarks.
+ *
+ * @see ConnectorConfiguration.Builder.writeBufferWaterMark
+ */
+public fun interface WritabilityListener {
+    /**
+     * Called by the channel pipeline, must not block.
+     */
+    public fun writabilityChanged(writable: Boolean)
+}
@@ -0,0 +1,30 @@
+package com.github.kpavlov.jreactive8583.coroutines
+
+import io.netty.channel.ChannelFuture
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * Suspends until the future is done, without blocking the thread.
+ * Cancels the future if the coroutine is cancelled.
+ *
+ * @throws Throwable the cause of failure
+ */
+internal suspend fun ChannelFuture.awaitDone() {
+    if (isDone) {
+        cause()?.let { throw it }
+        return
+    }
+    suspendCancellableCoroutine { continuation ->
+        addListener {
+            val cause = it.cause()
+            if (cause == null) {
+                continuation.resume(Unit)
+            } else {
+                continuation.resumeWithException(cause)
+            }
+        }
+        continuation.invokeOnCancellation { cancel(false) }
+    }
+}
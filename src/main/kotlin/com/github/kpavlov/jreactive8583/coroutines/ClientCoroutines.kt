@@ -0,0 +1,102 @@
+@file:JvmName("ClientCoroutines")
+
+package com.github.kpavlov.jreactive8583.coroutines
+
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration
+import com.github.kpavlov.jreactive8583.client.Iso8583Client
+import com.github.kpavlov.jreactive8583.client.WritabilityListener
+import com.solab.iso8583.IsoMessage
+import io.netty.channel.ChannelFutureListener
+import io.netty.util.ReferenceCountUtil
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.future.await
+import kotlinx.coroutines.suspendCancellableCoroutine
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.coroutines.resume
+import kotlin.time.Duration
+
+/**
+ * Sends the message and suspends until it is written.
+ *
+ * While the connection is not writable the coroutine suspends, instead of queueing the message
+ * or blocking the thread as [ClientConfiguration.backpressurePolicy] would.
+ *
+ * @throws IllegalStateException if the client is not connected or the message is rejected
+ * @throws Throwable the cause of write failure
+ */
+public suspend fun Iso8583Client<*>.sendAndAwait(isoMessage: IsoMessage) {
+    awaitWritable()
+    sendAsync(isoMessage).awaitDone()
+}
+
+/**
+ * Sends the request and suspends until the matching response is received,
+ * see [Iso8583Client.sendAndReceive].
+ *
+ * Suspends while the connection is not writable, like [sendAndAwait].
+ * A reference-counted response is owned by the caller, who must release it.
+ * If the coroutine is cancelled after the response has arrived, the response is released.
+ *
+ * @param timeout response timeout, [ClientConfiguration.responseTimeout] if `null`
+ * @throws java.util.concurrent.TimeoutException if the response does not come within [timeout]
+ */
+public suspend fun <T : IsoMessage> Iso8583Client<T>.sendAndAwaitResponse(
+    isoMessage: IsoMessage,
+    timeout: Duration? = null,
+): T {
+    awaitWritable()
+    val response =
+        if (timeout == null) {
+            sendAndReceive(isoMessage)
+        } else {
+            sendAndReceive(isoMessage, timeout.inWholeNanoseconds, TimeUnit.NANOSECONDS)
+        }
+    try {
+        return response.await()
+    } catch (e: CancellationException) {
+        if (response.isDone && !response.isCompletedExceptionally) {
+            ReferenceCountUtil.release(response.join())
+        }
+        throw e
+    }
+}
+
+/**
+ * Suspends until the channel is writable or closed.
+ */
+private suspend fun Iso8583Client<*>.awaitWritable() {
+    val closeFuture = closeFuture
+    if (isWritable || closeFuture == null || closeFuture.isDone) {
+        return
+    }
+    suspendCancellableCoroutine { continuation ->
+        val resumed = AtomicBoolean()
+        lateinit var writabilityListener: WritabilityListener
+        val closeListener =
+            ChannelFutureListener {
+                if (resumed.compareAndSet(false, true)) {
+                    removeWritabilityListener(writabilityListener)
+                    continuation.resume(Unit)
+                }
+            }
+        writabilityListener =
+            WritabilityListener { writable ->
+                if (writable && resumed.compareAndSet(false, true)) {
+                    removeWritabilityListener(writabilityListener)
+                    closeFuture.removeListener(closeListener)
+                    continuation.resume(Unit)
+                }
+            }
+        addWritabilityListener(writabilityListener)
+        closeFuture.addListener(closeListener)
+        if (isWritable) {
+            // became writable before the listener was added
+            writabilityListener.writabilityChanged(true)
+        }
+        continuation.invokeOnCancellation {
+            removeWritabilityListener(writabilityListener)
+            closeFuture.removeListener(closeListener)
+        }
+    }
+}
@@ -0,0 +1,125 @@
+@file:JvmName("InboundMessages")
+
+package com.github.kpavlov.jreactive8583.coroutines
+
+import com.github.kpavlov.jreactive8583.AbstractIso8583Connector
+import com.github.kpavlov.jreactive8583.IsoMessageListener
+import com.solab.iso8583.IsoMessage
+import io.netty.channel.Channel
+import io.netty.channel.ChannelHandlerContext
+import io.netty.util.ReferenceCountUtil
+import kotlinx.coroutines.channels.Channel.Factory.UNLIMITED
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import kotlinx.coroutines.channels.Channel as MessageChannel
+
+/**
+ * Default number of received messages buffered for a slow collector before reading is paused.
+ */
+public const val DEFAULT_INBOUND_HIGH_WATERMARK: Int = 256
+
+/**
+ * Returns a flow of messages received by the client or the server, on all its connections.
+ *
+ * Every collector adds a message listener, which passes messages on to listeners added after it.
+ * Messages consumed by earlier listeners, e.g. responses completing [sendAndAwaitResponse], are not emitted.
+ * Reference-counted messages, e.g. [com.github.kpavlov.jreactive8583.iso.PooledIsoMessage], are retained
+ * while buffered, the collector owns emitted messages and must release them. Messages left in the buffer
+ * when collection stops are released.
+ *
+ * When [highWatermark] messages are buffered for the collector, reading of the connections which received them
+ * is paused by turning off [io.netty.channel.ChannelOption.AUTO_READ], and resumed when the collector
+ * gets the buffer down to half of it. Messages already read are still buffered, so the buffer may exceed
+ * [highWatermark] by a read batch. Reading is resumed when collection is cancelled.
+ *
+ * The flow never completes, cancel the collecting coroutine to stop it.
+ */
+public fun <T : IsoMessage> AbstractIso8583Connector<*, *, T>.inboundMessages(
+    highWatermark: Int = DEFAULT_INBOUND_HIGH_WATERMARK,
+): Flow<T> {
+    require(highWatermark > 0) { "highWatermark must be positive: $highWatermark" }
+    return flow {
+        val buffer = MessageChannel<T>(UNLIMITED)
+        val backpressure = ReadBackpressure(highWatermark)
+        val listener =
+            object : IsoMessageListener<T> {
+                override fun applies(isoMessage: T): Boolean = true
+
+                override fun onMessage(
+                    ctx: ChannelHandlerContext,
+                    isoMessage: T,
+                ): Boolean {
+                    // the pipeline releases the message once listeners are done
+                    ReferenceCountUtil.retain(isoMessage)
+                    if (buffer.trySend(isoMessage).isSuccess) {
+                        backpressure.received(ctx.channel())
+                    } else {
+                        // collection has stopped
+                        ReferenceCountUtil.release(isoMessage)
+                    }
+                    return true
+                }
+            }
+        addMessageListener(listener)
+        try {
+            for (message in buffer) {
+                backpressure.consumed()
+                emit(message)
+            }
+        } finally {
+            removeMessageListener(listener)
+            buffer.close()
+            while (true) {
+                ReferenceCountUtil.release(buffer.tryReceive().getOrNull() ?: break)
+            }
+            backpressure.resumeAll()
+        }
+    }
+}
+
+/**
+ * Counts buffered messages and toggles `AUTO_READ` of the channels they come from.
+ */
+internal class ReadBackpressure(
+    private val highWatermark: Int,
+) {
+    private val lowWatermark = highWatermark / 2
+    private val buffered = AtomicInteger()
+    private val paused = ConcurrentHashMap.newKeySet<Channel>()
+
+    val bufferedMessages: Int
+        get() = buffered.get()
+
+    /**
+     * Called on the event loop of the [channel] which received a message.
+     */
+    fun received(channel: Channel) {
+        if (buffered.incrementAndGet() >= highWatermark && channel.config().isAutoRead) {
+            channel.config().isAutoRead = false
+            paused.add(channel)
+            if (buffered.get() <= lowWatermark) {
+                // the collector caught up before the channel was paused
+                resumeAll()
+            }
+        }
+    }
+
+    /**
+     * Called by the collector for every message taken from the buffer.
+     */
+    fun consumed() {
+        if (buffered.decrementAndGet() <= lowWatermark && paused.isNotEmpty()) {
+            resumeAll()
+        }
+    }
+
+    fun resumeAll() {
+        paused.forEach {
+            if (paused.remove(it)) {
+                it.config().isAutoRead = true
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.kpavlov.jreactive8583.iso
+
+import com.solab.iso8583.IsoType
+import com.solab.iso8583.IsoValue
+import com.solab.iso8583.parse.FieldParseInfo
+import java.nio.charset.Charset
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Sizes of encoded ISO8583 fields, as laid out by j8583.
+ */
+internal object FieldLengths {
+    private const val NOT_KNOWN = -1
+    private const val RADIX = 10
+
+    private val SINGLE_BYTE_CHARSETS = ConcurrentHashMap<String, Boolean>()
+
+    /**
+     * Number of bytes occupied by the text-encoded field, including length header.
+     */
+    fun textFieldLength(
+        value: IsoValue<*>,
+        parseInfo: FieldParseInfo,
+    ): Int {
+        val text = value.toString()
+        val encoding = parseInfo.characterEncoding
+        val length = if (isSingleByte(encoding)) text.length else text.toByteArray(charset(encoding)).size
+        return length + lengthHeaderSize(value.type)
+    }
+
+    /**
+     * Number of bytes occupied by the binary-encoded field, including length header.
+     */
+    @Suppress("MagicNumber")
+    fun binaryFieldLength(value: IsoValue<*>): Int {
+        val type = value.type
+        val length = value.length
+        val dataLength =
+            when {
+                type == IsoType.NUMERIC || type == IsoType.AMOUNT || type.isDateTimeType -> {
+                    length / 2 + length % 2
+                }
+
+                type == IsoType.LLBCDBIN ||
+                    type == IsoType.LLLBCDBIN ||
+                    type == IsoType.LLLLBCDBIN -> {
+                    length / 2 + if (length % 2 == 0) 0 else 1
+                }
+
+                else -> {
+                    length
+                }
+            }
+        return dataLength + binaryLengthHeaderSize(type)
+    }
+
+    /**
+     * Number of bytes occupied by the text-encoded field at [pos], including length header,
+     * or `-1` if it can't be determined without decoding the field.
+     * Assumes single-byte encoding with plain decimal length headers.
+     */
+    fun textSkipLength(
+        parseInfo: FieldParseInfo,
+        buf: ByteArray,
+        pos: Int,
+        limit: Int,
+    ): Int {
+        val type = parseInfo.type
+        return when (type) {
+            IsoType.ALPHA, IsoType.NUMERIC -> {
+                parseInfo.length
+            }
+
+            IsoType.LLVAR, IsoType.LLLVAR, IsoType.LLLLVAR -> {
+                val headerSize = lengthHeaderSize(type)
+                val length = if (pos + headerSize > limit) NOT_KNOWN else readDigits(buf, pos, headerSize)
+                if (length == NOT_KNOWN) NOT_KNOWN else headerSize + length
+            }
+
+            else -> {
+                if (type == IsoType.AMOUNT || type.isDateTimeType) type.length else NOT_KNOWN
+            }
+        }
+    }
+
+    /**
+     * Number of bytes occupied by the binary-encoded field at [pos], including length header,
+     * or `-1` if it can't be determined without decoding the field.
+     * Assumes BCD-encoded length headers.
+     */
+    @Suppress("MagicNumber")
+    fun binarySkipLength(
+        parseInfo: FieldParseInfo,
+        buf: ByteArray,
+        pos: Int,
+        limit: Int,
+    ): Int {
+        val type = parseInfo.type
+        if (pos + binaryLengthHeaderSize(type) > limit) {
+            return NOT_KNOWN
+        }
+        return when (type) {
+            IsoType.ALPHA, IsoType.BINARY -> parseInfo.length
+            IsoType.NUMERIC -> parseInfo.length / 2 + parseInfo.length % 2
+            IsoType.LLVAR, IsoType.LLBIN -> 1 + bcd(buf[pos])
+            IsoType.LLLVAR, IsoType.LLLBIN -> 2 + (buf[pos].toInt() and 0x0F) * 100 + bcd(buf[pos + 1])
+            IsoType.LLLLVAR, IsoType.LLLLBIN -> 2 + bcd(buf[pos]) * 100 + bcd(buf[pos + 1])
+            else -> if (type == IsoType.AMOUNT || type.isDateTimeType) type.length / 2 + type.length % 2 else NOT_KNOWN
+        }
+    }
+
+    /**
+     * Number of digits in text-encoded variable length field header.
+     */
+    @Suppress("MagicNumber")
+    fun lengthHeaderSize(type: IsoType): Int =
+        when (type) {
+            IsoType.LLVAR, IsoType.LLBIN, IsoType.LLBCDBIN -> 2
+            IsoType.LLLVAR, IsoType.LLLBIN, IsoType.LLLBCDBIN -> 3
+            IsoType.LLLLVAR, IsoType.LLLLBIN, IsoType.LLLLBCDBIN -> 4
+            else -> 0
+        }
+
+    /**
+     * Number of bytes in binary-encoded variable length field header.
+     */
+    @Suppress("MagicNumber")
+    fun binaryLengthHeaderSize(type: IsoType): Int =
+        when (type) {
+            IsoType.LLVAR, IsoType.LLBIN, IsoType.LLBCDBIN -> 1
+            IsoType.LLLVAR, IsoType.LLLBIN, IsoType.LLLBCDBIN -> 2
+            IsoType.LLLLVAR, IsoType.LLLLBIN, IsoType.LLLLBCDBIN -> 2
+            else -> 0
+        }
+
+    fun isSingleByte(encoding: String): Boolean =
+        SINGLE_BYTE_CHARSETS.computeIfAbsent(encoding) {
+            charset(it).newEncoder().maxBytesPerChar() == 1.0f
+        }
+
+    /**
+     * Reads [count] ASCII decimal digits, returns `-1` if a non-digit is found.
+     */
+    private fun readDigits(
+        buf: ByteArray,
+        pos: Int,
+        count: Int,
+    ): Int {
+        var value = 0
+        for (i in pos until pos + count) {
+            val digit = buf[i] - '0'.code.toByte()
+            if (digit !in 0 until RADIX) {
+                return NOT_KNOWN
+            }
+            value = value * RADIX + digit
+        }
+        return value
+    }
+
+    /**
+     * Decodes two-digit packed BCD byte.
+     */
+    @Suppress("MagicNumber")
+    private fun bcd(b: Byte): Int = ((b.toInt() and 0xF0) shr 4) * 10 + (b.toInt() and 0x0F)
+
+    private fun charset(name: String): Charset = Charset.forName(name)
+}
@@ -4,26 +4,87 @@ import com.github.kpavlov.jreactive8583.iso.MTI.mtiValue
 import com.solab.iso8583.IsoMessage
 import com.solab.iso8583.parse.ConfigParser
 import java.io.UnsupportedEncodingException
+import java.nio.ByteBuffer
 import java.text.ParseException
 import javax.annotation.Nonnull
 
 /**
+ * [MessageFactory] backed by j8583 [com.solab.iso8583.MessageFactory].
+ *
+ * When a plain j8583 factory is used, messages are parsed from [ByteBuffer]
+ * in place, without copying them to an intermediate array first.
+ * With [lazyFields] enabled such messages are parsed into [LazyIsoMessage],
+ * which decodes fields on first access.
+ * [parseHeader] skips fields which are not requested, without decoding them.
+ *
+ * With [pooledMessages] enabled, created and parsed messages are [PooledIsoMessage]s,
+ * which return to a thread-local pool once released. Lazy parsing can't be combined with pooling.
+ *
+ * With [compiledResponses] enabled, [createResponse] follows a copy plan compiled once per request type,
+ * sharing field values of the request and the response template instead of cloning them.
+ * Shared values must not be mutated, and changes of j8583 templates made after the first response are ignored.
+ *
  * @param role Role of the communicating party.
+ * @param lazyFields Whether to decode inbound message fields on demand.
+ * @param pooledMessages Whether to take messages from a pool, requires plain j8583 factory.
+ * @param compiledResponses Whether to create responses from compiled copy plans, requires plain j8583 factory.
  * @see MessageOrigin
  */
+@Suppress("TooManyFunctions")
 public open class J8583MessageFactory<T : IsoMessage>
     @JvmOverloads
     constructor(
         private val messageFactory: com.solab.iso8583.MessageFactory<T> = defaultMessageFactory(),
         private val isoVersion: ISO8583Version = ISO8583Version.V1987,
         private val role: MessageOrigin,
+        private val lazyFields: Boolean = false,
+        pooledMessages: Boolean = false,
+        compiledResponses: Boolean = false,
     ) : MessageFactory<T> {
+        private val parser: J8583MessageParser<T>? =
+            if (messageFactory.javaClass == com.solab.iso8583.MessageFactory::class.java) {
+                J8583MessageParser(messageFactory, lazyFields, pooledMessages)
+            } else {
+                null
+            }
+
+        private val pooledParser: J8583MessageParser<T>? = parser.takeIf { pooledMessages }
+
+        private val pooledCreator: PooledMessageCreator? =
+            if (pooledMessages) PooledMessageCreator(messageFactory) else null
+
+        private val responseTemplates: ResponseTemplates? =
+            if (compiledResponses) ResponseTemplates(messageFactory, pooledMessages) else null
+
+        init {
+            require(!pooledMessages || parser != null) {
+                "Pooled messages require plain j8583 MessageFactory, got ${messageFactory.javaClass}"
+            }
+            require(!pooledMessages || !lazyFields) { "Pooled messages can't be parsed lazily" }
+            require(!compiledResponses || parser != null) {
+                "Compiled responses require plain j8583 MessageFactory, got ${messageFactory.javaClass}"
+            }
+        }
+
+        /**
+         * `forceStringEncoding` of the j8583 factory, applied to new messages.
+         */
+        internal val forceStringEncoding: Boolean
+            get() = messageFactory.isForceStringEncoding
+
+        /**
+         * ETX character of the j8583 factory, applied to new messages, or `-1` if none.
+         */
+        internal val etx: Int
+            get() = messageFactory.etx
+
         public constructor(
             isoVersion: ISO8583Version,
             role: MessageOrigin,
         ) : this(defaultMessageFactory(), isoVersion, role)
 
-        override fun newMessage(type: Int): T = messageFactory.newMessage(type)
+        @Suppress("UNCHECKED_CAST")
+        override fun newMessage(type: Int): T = pooledCreator?.newMessage(type) as T? ?: messageFactory.newMessage(type)
 
         override fun newMessage(
             @Nonnull messageClass: MessageClass,
@@ -36,26 +97,65 @@ public open class J8583MessageFactory<T : IsoMessage>
             @Nonnull messageFunction: MessageFunction,
         ): T = newMessage(mtiValue(isoVersion, messageClass, messageFunction, this.role))
 
+        @Suppress("UNCHECKED_CAST")
         override fun createResponse(requestMessage: T): T =
-            messageFactory.createResponse(requestMessage)
+            createOwnResponse(requestMessage, true) as T? ?: messageFactory.createResponse(requestMessage)
 
+        @Suppress("UNCHECKED_CAST")
         override fun createResponse(
             request: T,
             copyAllFields: Boolean,
-        ): T = messageFactory.createResponse(request, copyAllFields)
+        ): T = createOwnResponse(request, copyAllFields) as T? ?: messageFactory.createResponse(request, copyAllFields)
+
+        private fun createOwnResponse(
+            request: T,
+            copyAllFields: Boolean,
+        ): IsoMessage? =
+            responseTemplates?.createResponse(request, copyAllFields)
+                ?: pooledCreator?.createResponse(request, copyAllFields)
 
         @Throws(ParseException::class, UnsupportedEncodingException::class)
         override fun parseMessage(
             buf: ByteArray,
             isoHeaderLength: Int,
             binaryIsoHeader: Boolean,
-        ): T = messageFactory.parseMessage(buf, isoHeaderLength, binaryIsoHeader)
+        ): T =
+            pooledParser?.parse(buf, 0, buf.size, isoHeaderLength, binaryIsoHeader)
+                ?: messageFactory.parseMessage(buf, isoHeaderLength, binaryIsoHeader)
 
         @Throws(UnsupportedEncodingException::class, ParseException::class)
         override fun parseMessage(
             buf: ByteArray,
             isoHeaderLength: Int,
-        ): T = messageFactory.parseMessage(buf, isoHeaderLength)
+        ): T =
+            pooledParser?.parse(buf, 0, buf.size, isoHeaderLength, false)
+                ?: messageFactory.parseMessage(buf, isoHeaderLength)
+
+        @Throws(ParseException::class, UnsupportedEncodingException::class)
+        override fun parseMessage(
+            buf: ByteBuffer,
+            isoHeaderLength: Int,
+            binaryIsoHeader: Boolean,
+        ): T =
+            parser?.parse(buf, isoHeaderLength, binaryIsoHeader)
+                ?: super.parseMessage(buf, isoHeaderLength, binaryIsoHeader)
+
+        @Throws(ParseException::class, UnsupportedEncodingException::class)
+        override fun parseMessage(
+            buf: ByteBuffer,
+            isoHeaderLength: Int,
+        ): T =
+            parser?.parse(buf, isoHeaderLength, false)
+                ?: super.parseMessage(buf, isoHeaderLength)
+
+        @Throws(ParseException::class, UnsupportedEncodingException::class)
+        override fun parseHeader(
+            buf: ByteBuffer,
+            isoHeaderLength: Int,
+            fields: IntArray,
+        ): MessageHeader =
+            parser?.parseHeader(buf, isoHeaderLength, fields)
+                ?: super.parseHeader(buf, isoHeaderLength, fields)
     }
 
 @Suppress("UNCHECKED_CAST")
@@ -0,0 +1,539 @@
+package com.github.kpavlov.jreactive8583.iso
+
+import com.solab.iso8583.IsoMessage
+import com.solab.iso8583.IsoValue
+import com.solab.iso8583.parse.FieldParseInfo
+import org.slf4j.LoggerFactory
+import java.io.UnsupportedEncodingException
+import java.nio.ByteBuffer
+import java.nio.charset.Charset
+import java.text.ParseException
+
+private const val MAX_FIELD = 128
+private const val BITMAP_FIELDS = 64
+private const val BINARY_MTI_LENGTH = 2
+private const val TEXT_MTI_LENGTH = 4
+private const val BINARY_BITMAP_LENGTH = 8
+private const val TEXT_BITMAP_LENGTH = 16
+
+/**
+ * Parses ISO8583 messages from a region of a byte array or from a [ByteBuffer],
+ * using the parse guides of j8583 [com.solab.iso8583.MessageFactory].
+ *
+ * This is a port of `com.solab.iso8583.MessageFactory.parseMessage` of j8583 3.0.0, which requires
+ * a dedicated array holding exactly one message, and has to follow changes of it.
+ * Parse guides are read from the factory once, they are mutable maps which j8583 updates in place.
+ *
+ * Heap buffers are parsed straight from their backing array. Direct buffers, the default of Netty
+ * pooled allocator, are still copied once into a per-thread scratch array which is reused between
+ * messages, because j8583 field parsers accept `byte[]` only. The copy allocates nothing once the array
+ * has grown to the largest message.
+ *
+ * Parsed values never reference the source array, with the exception of custom
+ * binary field decoders which must copy the bytes they keep.
+ *
+ * When [lazy] is set, [LazyIsoMessage] is produced instead: the message bytes are copied once
+ * and fields are only located, to be decoded on first access. Fields whose length can't be
+ * determined without decoding them (binary fields in text messages, BCD-encoded binaries,
+ * multibyte encodings, string-encoded or hexadecimal length headers) are decoded eagerly.
+ *
+ * When [pooled] is set, [PooledIsoMessage] is produced and released back if parsing fails.
+ *
+ * [parseHeader] decodes just the MTI, bitmap and a few requested fields into [MessageHeader],
+ * skipping other fields the same way.
+ *
+ * Only a plain [com.solab.iso8583.MessageFactory] is supported:
+ * subclasses may override message creation or parsing.
+ */
+@Suppress("TooManyFunctions")
+internal class J8583MessageParser<T : IsoMessage>(
+    private val messageFactory: com.solab.iso8583.MessageFactory<T>,
+    private val lazy: Boolean = false,
+    private val pooled: Boolean = false,
+) {
+    private val logger = LoggerFactory.getLogger(J8583MessageParser::class.java)
+
+    init {
+        require(messageFactory.javaClass == com.solab.iso8583.MessageFactory::class.java) {
+            "Unsupported MessageFactory: ${messageFactory.javaClass}"
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private val parseMap = PARSE_MAP_FIELD.get(messageFactory) as Map<Int, Map<Int, FieldParseInfo>>
+
+    @Suppress("UNCHECKED_CAST")
+    private val parseOrder = PARSE_ORDER_FIELD.get(messageFactory) as Map<Int, List<Int>>
+
+    /**
+     * Parses the message from [buf] remaining bytes. Buffer position is not changed.
+     */
+    @Throws(ParseException::class, UnsupportedEncodingException::class)
+    fun parse(
+        buf: ByteBuffer,
+        isoHeaderLength: Int,
+        binaryIsoHeader: Boolean,
+    ): T {
+        val length = buf.remaining()
+        return when {
+            lazy -> {
+                val data = ByteArray(length)
+                buf.get(buf.position(), data)
+                parse(data, 0, length, isoHeaderLength, binaryIsoHeader)
+            }
+
+            buf.hasArray() -> {
+                val start = buf.arrayOffset() + buf.position()
+                parse(buf.array(), start, start + length, isoHeaderLength, binaryIsoHeader)
+            }
+
+            else -> {
+                val scratch = scratchArray(length)
+                buf.get(buf.position(), scratch, 0, length)
+                parse(scratch, 0, length, isoHeaderLength, binaryIsoHeader)
+            }
+        }
+    }
+
+    /**
+     * Parses the message located in [buf] between [start] (inclusive) and [limit] (exclusive).
+     * [LazyIsoMessage] retains [buf] if the message occupies the whole array, otherwise it copies the message.
+     */
+    @Throws(ParseException::class, UnsupportedEncodingException::class)
+    fun parse(
+        buf: ByteArray,
+        start: Int,
+        limit: Int,
+        isoHeaderLength: Int,
+        binaryIsoHeader: Boolean,
+    ): T {
+        val layout = parseLayout(buf, start, limit, isoHeaderLength)
+        val message =
+            if (lazy) {
+                val data = if (start == 0 && limit == buf.size) buf else buf.copyOfRange(start, limit)
+                createLazyMessage(data, layout.parseGuide)
+            } else if (pooled) {
+                PooledIsoMessage.newInstance()
+            } else {
+                IsoMessage()
+            }
+        var parsed = false
+        try {
+            setIsoHeader(message, buf, start, isoHeaderLength, binaryIsoHeader)
+            message.characterEncoding = messageFactory.characterEncoding
+            message.type = layout.type
+            parseFields(message, layout, buf, start, limit)
+            parsed = true
+        } finally {
+            if (!parsed && message is PooledIsoMessage) {
+                message.release()
+            }
+        }
+
+        message.isBinaryHeader = messageFactory.isBinaryHeader
+        message.isBinaryFields = messageFactory.isBinaryFields
+        message.isBinaryBitmap = messageFactory.isUseBinaryBitmap
+        message.isEncodeVariableLengthFieldsInHex = messageFactory.isVariableLengthFieldsInHex
+        @Suppress("UNCHECKED_CAST")
+        return message as T
+    }
+
+    /**
+     * Parses MTI, bitmap and the requested [fields] of the message from [buf] remaining bytes.
+     * Fields are visited up to the last requested one, others are skipped without decoding when possible.
+     * Buffer position is not changed.
+     */
+    @Throws(ParseException::class, UnsupportedEncodingException::class)
+    fun parseHeader(
+        buf: ByteBuffer,
+        isoHeaderLength: Int,
+        fields: IntArray,
+    ): MessageHeader {
+        val length = buf.remaining()
+        return if (buf.hasArray()) {
+            val start = buf.arrayOffset() + buf.position()
+            parseHeader(buf.array(), start, start + length, isoHeaderLength, fields)
+        } else {
+            val scratch = scratchArray(length)
+            buf.get(buf.position(), scratch, 0, length)
+            parseHeader(scratch, 0, length, isoHeaderLength, fields)
+        }
+    }
+
+    private fun parseHeader(
+        buf: ByteArray,
+        start: Int,
+        limit: Int,
+        isoHeaderLength: Int,
+        fields: IntArray,
+    ): MessageHeader {
+        val layout = parseLayout(buf, start, limit, isoHeaderLength)
+        val values = arrayOfNulls<IsoValue<*>>(fields.size)
+        var remaining = fields.count { layout.bitmap.isSet(it) && layout.parseGuide.containsKey(it) }
+        val lastField = layout.index.last()
+        var pos = layout.fieldsStart
+        for (field in layout.index) {
+            val missingLast = messageFactory.ignoreLastMissingField && pos >= limit && field == lastField
+            if (remaining == 0 || missingLast) {
+                break
+            }
+            if (layout.bitmap.isSet(field)) {
+                val slot = fields.indexOf(field)
+                pos = skipOrDecode(field, layout.parseGuide.getValue(field), buf, pos, limit, values, slot)
+                if (slot >= 0) {
+                    remaining--
+                }
+                ensureWithinLimit(pos, start, limit, field)
+            }
+        }
+        return MessageHeader(layout.type, layout.bitmap, fields, values)
+    }
+
+    /**
+     * Decodes the field at [pos] into [values] if its [slot] is non-negative, otherwise skips it.
+     *
+     * @return position of the next field
+     */
+    @Suppress("LongParameterList")
+    private fun skipOrDecode(
+        field: Int,
+        parseInfo: FieldParseInfo,
+        buf: ByteArray,
+        pos: Int,
+        limit: Int,
+        values: Array<IsoValue<*>?>,
+        slot: Int,
+    ): Int {
+        val skip = if (slot < 0) skipLength(parseInfo, buf, pos, limit) else -1
+        if (skip >= 0) {
+            return pos + skip
+        }
+        val value = decodeField(field, parseInfo, buf, pos)
+        if (slot >= 0) {
+            values[slot] = value
+        }
+        return fieldEnd(value, parseInfo, pos)
+    }
+
+    /**
+     * Parses MTI and bitmap, and looks up the parse guide of the message type.
+     */
+    private fun parseLayout(
+        buf: ByteArray,
+        start: Int,
+        limit: Int,
+        isoHeaderLength: Int,
+    ): Layout {
+        val binaryHeader = messageFactory.isBinaryHeader
+        val mtiStart = start + isoHeaderLength
+        val bitmapStart = mtiStart + if (binaryHeader) BINARY_MTI_LENGTH else TEXT_MTI_LENGTH
+        val bitmapLength = bitmapLength()
+        val minLength = bitmapStart + bitmapLength - start
+        if (limit - start < minLength) {
+            throw ParseException("Insufficient buffer length, needs to be at least $minLength", 0)
+        }
+        val type = parseType(buf, mtiStart, binaryHeader)
+        val bitmap = parseBitmap(buf, start, limit, bitmapStart)
+        val parseGuide = parseMap[type]
+        val index = parseOrder[type]
+        if (parseGuide == null || index == null) {
+            val error = "ISO8583 MessageFactory has no parsing guide for message type %04x".format(type)
+            logger.error(error)
+            throw ParseException(error, 0)
+        }
+        checkAllFieldsKnown(bitmap, parseGuide, type)
+        return Layout(type, bitmap, parseGuide, index, bitmapStart + bitmapLength * bitmap.words)
+    }
+
+    private fun parseFields(
+        message: IsoMessage,
+        layout: Layout,
+        buf: ByteArray,
+        start: Int,
+        limit: Int,
+    ) {
+        val ignoreLast = messageFactory.ignoreLastMissingField
+        val index = layout.index
+        var pos = layout.fieldsStart
+        for (field in index) {
+            if (!layout.bitmap.isSet(field)) {
+                continue
+            }
+            if (ignoreLast && pos >= limit && field == index.last()) {
+                logger.warn(
+                    "Field {} is not really in the message even though it's in the bitmap",
+                    field,
+                )
+            } else {
+                val parseInfo = layout.parseGuide.getValue(field)
+                val skip = if (message is LazyIsoMessage) skipLength(parseInfo, buf, pos, limit) else -1
+                if (skip >= 0) {
+                    (message as LazyIsoMessage).defer(field, pos - start)
+                    pos += skip
+                } else {
+                    pos = parseField(message, field, parseInfo, buf, pos)
+                }
+                ensureWithinLimit(pos, start, limit, field)
+            }
+        }
+    }
+
+    /**
+     * Parses the field value at [pos] and returns position of the next field.
+     */
+    private fun parseField(
+        message: IsoMessage,
+        field: Int,
+        parseInfo: FieldParseInfo,
+        buf: ByteArray,
+        pos: Int,
+    ): Int {
+        val value = decodeField(field, parseInfo, buf, pos)
+        message.setField(field, value)
+        return fieldEnd(value, parseInfo, pos)
+    }
+
+    /**
+     * Position following the field at [pos] decoded into [value].
+     */
+    private fun fieldEnd(
+        value: IsoValue<*>?,
+        parseInfo: FieldParseInfo,
+        pos: Int,
+    ): Int =
+        when {
+            value == null -> pos
+            messageFactory.isBinaryFields -> pos + FieldLengths.binaryFieldLength(value)
+            else -> pos + FieldLengths.textFieldLength(value, parseInfo)
+        }
+
+    private fun decodeField(
+        field: Int,
+        parseInfo: FieldParseInfo,
+        buf: ByteArray,
+        pos: Int,
+    ): IsoValue<*>? {
+        val decoder = parseInfo.decoder ?: messageFactory.getCustomField<Any>(field)
+        return if (messageFactory.isBinaryFields) {
+            parseInfo.parseBinary(field, buf, pos, decoder)
+        } else {
+            parseInfo.parse(field, buf, pos, decoder)
+        }
+    }
+
+    private fun createLazyMessage(
+        data: ByteArray,
+        parseGuide: Map<Int, FieldParseInfo>,
+    ): LazyIsoMessage =
+        LazyIsoMessage(data) { field, bytes, offset ->
+            decodeField(field, parseGuide.getValue(field), bytes, offset)
+        }
+
+    /**
+     * Number of bytes occupied by the field at [pos], determined without decoding it,
+     * or `-1` if the field has to be decoded to find out.
+     */
+    private fun skipLength(
+        parseInfo: FieldParseInfo,
+        buf: ByteArray,
+        pos: Int,
+        limit: Int,
+    ): Int =
+        when {
+            messageFactory.isForceStringEncoding || messageFactory.isVariableLengthFieldsInHex -> -1
+            messageFactory.isBinaryFields -> FieldLengths.binarySkipLength(parseInfo, buf, pos, limit)
+            FieldLengths.isSingleByte(parseInfo.characterEncoding) ->
+                FieldLengths.textSkipLength(parseInfo, buf, pos, limit)
+            else -> -1
+        }
+
+    private fun bitmapLength(): Int =
+        if (messageFactory.isBinaryHeader || messageFactory.isUseBinaryBitmap) {
+            BINARY_BITMAP_LENGTH
+        } else {
+            TEXT_BITMAP_LENGTH
+        }
+
+    private fun parseBitmap(
+        buf: ByteArray,
+        start: Int,
+        limit: Int,
+        pos: Int,
+    ): Bitmap {
+        val binaryBitmap = messageFactory.isBinaryHeader || messageFactory.isUseBinaryBitmap
+        val primary = readBitmap(buf, pos, binaryBitmap)
+        if (primary >= 0) {
+            return Bitmap(primary, 0L, 1)
+        }
+        val secondaryStart = pos + bitmapLength()
+        if (limit < secondaryStart + bitmapLength()) {
+            throw ParseException("Insufficient length for secondary bitmap", secondaryStart - start)
+        }
+        return Bitmap(primary, readBitmap(buf, secondaryStart, binaryBitmap), 2)
+    }
+
+    private fun setIsoHeader(
+        message: IsoMessage,
+        buf: ByteArray,
+        start: Int,
+        isoHeaderLength: Int,
+        binaryIsoHeader: Boolean,
+    ) {
+        if (isoHeaderLength > 0) {
+            if (binaryIsoHeader) {
+                message.binaryIsoHeader = buf.copyOfRange(start, start + isoHeaderLength)
+            } else {
+                message.isoHeader =
+                    String(buf, start, isoHeaderLength, charset(messageFactory.characterEncoding))
+            }
+        }
+    }
+
+    @Suppress("MagicNumber")
+    private fun parseType(
+        buf: ByteArray,
+        pos: Int,
+        binaryHeader: Boolean,
+    ): Int =
+        when {
+            binaryHeader -> {
+                ((buf[pos].toInt() and 0xFF) shl 8) or (buf[pos + 1].toInt() and 0xFF)
+            }
+
+            messageFactory.isForceStringEncoding -> {
+                try {
+                    String(buf, pos, TEXT_MTI_LENGTH, charset(messageFactory.characterEncoding))
+                        .toInt(16)
+                } catch (e: NumberFormatException) {
+                    throw ParseException("Invalid ISO8583 message type", 0).apply { initCause(e) }
+                }
+            }
+
+            else -> {
+                ((buf[pos] - 48) shl 12) or
+                    ((buf[pos + 1] - 48) shl 8) or
+                    ((buf[pos + 2] - 48) shl 4) or
+                    (buf[pos + 3] - 48)
+            }
+        }
+
+    /**
+     * Reads 64-bit bitmap word, the most significant bit denotes the first field.
+     */
+    @Suppress("MagicNumber")
+    private fun readBitmap(
+        buf: ByteArray,
+        pos: Int,
+        binaryBitmap: Boolean,
+    ): Long {
+        var word = 0L
+        if (binaryBitmap) {
+            for (i in 0 until BINARY_BITMAP_LENGTH) {
+                word = (word shl 8) or (buf[pos + i].toLong() and 0xFF)
+            }
+            return word
+        }
+        val chars: CharSequence? =
+            if (messageFactory.isForceStringEncoding) {
+                String(buf, pos, TEXT_BITMAP_LENGTH, charset(messageFactory.characterEncoding))
+            } else {
+                null
+            }
+        for (i in 0 until TEXT_BITMAP_LENGTH) {
+            val c = chars?.get(i)?.code ?: (buf[pos + i].toInt() and 0xFF)
+            val nibble = Character.digit(c, 16)
+            if (nibble < 0 || c > Byte.MAX_VALUE) {
+                throw ParseException("Invalid ISO8583 bitmap", pos + i)
+            }
+            word = (word shl 4) or nibble.toLong()
+        }
+        return word
+    }
+
+    @Suppress("MagicNumber")
+    private fun checkAllFieldsKnown(
+        bitmap: Bitmap,
+        parseGuide: Map<Int, FieldParseInfo>,
+        type: Int,
+    ) {
+        var abandon = false
+        for (field in 2..MAX_FIELD) {
+            if (bitmap.isSet(field) && !parseGuide.containsKey(field)) {
+                logger.warn(
+                    "ISO8583 MessageFactory cannot parse field {}: unspecified in parsing guide for type {}",
+                    field,
+                    Integer.toString(type, 16),
+                )
+                abandon = true
+            }
+        }
+        if (abandon) {
+            throw ParseException("ISO8583 MessageFactory cannot parse fields", 0)
+        }
+    }
+
+
+    private companion object {
+        private val PARSE_MAP_FIELD =
+            com.solab.iso8583.MessageFactory::class.java
+                .getDeclaredField("parseMap")
+                .apply { isAccessible = true }
+
+        private val PARSE_ORDER_FIELD =
+            com.solab.iso8583.MessageFactory::class.java
+                .getDeclaredField("parseOrder")
+                .apply { isAccessible = true }
+
+        private val SCRATCH = ThreadLocal<ByteArray>()
+
+        private fun scratchArray(size: Int): ByteArray {
+            val current = SCRATCH.get()
+            if (current != null && current.size >= size) {
+                return current
+            }
+            return ByteArray(size).also { SCRATCH.set(it) }
+        }
+
+        fun ensureWithinLimit(
+            pos: Int,
+            start: Int,
+            limit: Int,
+            field: Int,
+        ) {
+            if (pos > limit) {
+                throw ParseException("Insufficient data for field $field", pos - start)
+            }
+        }
+
+        private fun charset(name: String): Charset = Charset.forName(name)
+    }
+}
+
+/**
+ * Message type, bitmap and parse guide of the message, fields start at [fieldsStart].
+ */
+private class Layout(
+    val type: Int,
+    val bitmap: Bitmap,
+    val parseGuide: Map<Int, FieldParseInfo>,
+    val index: List<Int>,
+    val fieldsStart: Int,
+)
+
+/**
+ * Primary and secondary bitmap words, the most significant bit of a word denotes its first field.
+ *
+ * @param words number of bitmaps present in the message
+ */
+internal class Bitmap(
+    private val primary: Long,
+    private val secondary: Long,
+    val words: Int,
+) {
+    fun isSet(field: Int): Boolean =
+        if (field <= BITMAP_FIELDS) {
+            primary and (1L shl (BITMAP_FIELDS - field)) != 0L
+        } else {
+            field <= MAX_FIELD && secondary and (1L shl (MAX_FIELD - field)) != 0L
+        }
+}
@@ -0,0 +1,165 @@
+package com.github.kpavlov.jreactive8583.iso
+
+import com.solab.iso8583.CustomFieldEncoder
+import com.solab.iso8583.IsoMessage
+import com.solab.iso8583.IsoType
+import com.solab.iso8583.IsoValue
+import java.io.UnsupportedEncodingException
+import java.text.ParseException
+import java.util.BitSet
+import java.util.Optional
+
+/**
+ * Inbound [IsoMessage] which decodes its fields on demand.
+ *
+ * At parse time only the bitmap and the offset of each field are recorded.
+ * A field is parsed into [IsoValue] on first access (e.g. [getField], [getObjectValue]
+ * or [hasField] followed by [getField]) and cached afterwards.
+ * Serialization and [debugString] decode all remaining fields first.
+ *
+ * Instances are created by [J8583MessageFactory] when lazy parsing is enabled.
+ * Like [IsoMessage], this class is not thread-safe.
+ */
+@Suppress("TooManyFunctions")
+public class LazyIsoMessage internal constructor(
+    private val data: ByteArray,
+    private val fieldDecoder: FieldDecoder,
+) : IsoMessage() {
+    private val offsets = IntArray(MAX_FIELD + 1) { NOT_DEFERRED }
+    private var deferredCount = 0
+
+    /**
+     * Decodes a field located at [offset] of message [data].
+     */
+    internal fun interface FieldDecoder {
+        @Throws(ParseException::class, UnsupportedEncodingException::class)
+        fun decode(
+            field: Int,
+            data: ByteArray,
+            offset: Int,
+        ): IsoValue<*>?
+    }
+
+    /**
+     * Registers [field] located at [offset] of message data, to be decoded on first access.
+     */
+    internal fun defer(
+        field: Int,
+        offset: Int,
+    ) {
+        if (offsets[field] == NOT_DEFERRED) {
+            deferredCount++
+        }
+        offsets[field] = offset
+    }
+
+    /**
+     * Number of fields which are present but not decoded yet.
+     */
+    public val deferredFieldCount: Int
+        get() = deferredCount
+
+    override fun <T> getField(field: Int): IsoValue<T>? {
+        materialize(field)
+        return super.getField(field)
+    }
+
+    override fun <T> field(field: Int): Optional<IsoValue<T>> {
+        materialize(field)
+        return super.field(field)
+    }
+
+    override fun <T> getObjectValue(field: Int): T? {
+        materialize(field)
+        return super.getObjectValue(field)
+    }
+
+    override fun <T> objectValue(field: Int): Optional<T> {
+        materialize(field)
+        return super.objectValue(field)
+    }
+
+    override fun hasField(idx: Int): Boolean = isDeferred(idx) || super.hasField(idx)
+
+    override fun setField(
+        index: Int,
+        field: IsoValue<*>?,
+    ): IsoMessage {
+        discard(index)
+        return super.setField(index, field)
+    }
+
+    override fun setValue(
+        index: Int,
+        value: Any?,
+        t: IsoType,
+        length: Int,
+    ): IsoMessage {
+        discard(index)
+        return super.setValue(index, value, t, length)
+    }
+
+    override fun <T> setValue(
+        index: Int,
+        value: T,
+        encoder: CustomFieldEncoder<T>?,
+        t: IsoType,
+        length: Int,
+    ): IsoMessage {
+        discard(index)
+        return super.setValue(index, value, encoder, t, length)
+    }
+
+    override fun createBitmapBitSet(): BitSet {
+        materializeAll()
+        return super.createBitmapBitSet()
+    }
+
+    override fun writeData(): ByteArray {
+        materializeAll()
+        return super.writeData()
+    }
+
+    override fun debugString(): String {
+        materializeAll()
+        return super.debugString()
+    }
+
+    private fun isDeferred(field: Int): Boolean = field in 1..MAX_FIELD && offsets[field] != NOT_DEFERRED
+
+    private fun discard(field: Int) {
+        if (isDeferred(field)) {
+            offsets[field] = NOT_DEFERRED
+            deferredCount--
+        }
+    }
+
+    private fun materialize(field: Int) {
+        if (!isDeferred(field)) {
+            return
+        }
+        val offset = offsets[field]
+        val value =
+            try {
+                fieldDecoder.decode(field, data, offset)
+            } catch (e: ParseException) {
+                throw IllegalStateException("Can't decode field $field at offset $offset", e)
+            } catch (e: UnsupportedEncodingException) {
+                throw IllegalStateException("Can't decode field $field at offset $offset", e)
+            }
+        discard(field)
+        super.setField(field, value)
+    }
+
+    private fun materializeAll() {
+        var field = 2
+        while (deferredCount > 0 && field <= MAX_FIELD) {
+            materialize(field++)
+        }
+    }
+
+    private companion object {
+        private const val MAX_FIELD = 128
+        private const val NOT_DEFERRED = -1
+    }
+}
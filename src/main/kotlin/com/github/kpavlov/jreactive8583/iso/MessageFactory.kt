@@ -2,7 +2,9 @@
 
 package com.github.kpavlov.jreactive8583.iso
 
+import com.solab.iso8583.IsoMessage
 import java.io.UnsupportedEncodingException
+import java.nio.ByteBuffer
 import java.text.ParseException
 
 public interface MessageFactory<T> {
@@ -41,4 +43,59 @@ public interface MessageFactory<T> {
         buf: ByteArray,
         isoHeaderLength: Int,
     ): T
+
+    /**
+     * Parses a message from the remaining bytes of [buf].
+     * Buffer position is not changed.
+     *
+     * Default implementation copies the bytes to a new array
+     * and delegates to [parseMessage].
+     */
+    @Throws(ParseException::class, UnsupportedEncodingException::class)
+    public fun parseMessage(
+        buf: ByteBuffer,
+        isoHeaderLength: Int,
+        binaryIsoHeader: Boolean,
+    ): T {
+        val bytes = ByteArray(buf.remaining())
+        buf.get(buf.position(), bytes)
+        return parseMessage(bytes, isoHeaderLength, binaryIsoHeader)
+    }
+
+    /**
+     * Parses a message from the remaining bytes of [buf].
+     * Buffer position is not changed.
+     *
+     * Default implementation copies the bytes to a new array
+     * and delegates to [parseMessage], as the decoders did before this overload was added.
+     */
+    @Throws(ParseException::class, UnsupportedEncodingException::class)
+    public fun parseMessage(
+        buf: ByteBuffer,
+        isoHeaderLength: Int,
+    ): T {
+        val bytes = ByteArray(buf.remaining())
+        buf.get(buf.position(), bytes)
+        return parseMessage(bytes, isoHeaderLength)
+    }
+
+    /**
+     * Parses the message type, bitmap and the requested [fields] from the remaining bytes of [buf],
+     * without decoding the rest of the message. Buffer position is not changed.
+     *
+     * Default implementation parses the whole message with [parseMessage].
+     *
+     * @param fields numbers of fields to decode
+     */
+    @Throws(ParseException::class, UnsupportedEncodingException::class)
+    public fun parseHeader(
+        buf: ByteBuffer,
+        isoHeaderLength: Int,
+        fields: IntArray,
+    ): MessageHeader {
+        val message =
+            parseMessage(buf, isoHeaderLength) as? IsoMessage
+                ?: throw UnsupportedOperationException("Message header can't be parsed by $javaClass")
+        return MessageHeader.of(message, fields)
+    }
 }
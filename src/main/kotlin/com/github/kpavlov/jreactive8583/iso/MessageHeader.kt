@@ -0,0 +1,84 @@
+package com.github.kpavlov.jreactive8583.iso
+
+import com.solab.iso8583.IsoMessage
+import com.solab.iso8583.IsoValue
+
+/**
+ * Message type, bitmap and selected fields of an inbound message,
+ * decoded without parsing the whole message.
+ *
+ * Intended for routing decisions: only the fields requested from
+ * [MessageFactory.parseHeader] are available, while [hasField]
+ * reports any field present in the bitmap.
+ *
+ * @property type Message type indicator (MTI), e.g. `0x0200`
+ */
+public class MessageHeader internal constructor(
+    public val type: Int,
+    private val bitmap: Bitmap,
+    private val fields: IntArray,
+    private val values: Array<IsoValue<*>?>,
+) {
+    /**
+     * Returns `true` if the [field] is present in the message bitmap,
+     * even if it was not decoded.
+     */
+    public fun hasField(field: Int): Boolean = bitmap.isSet(field)
+
+    /**
+     * Returns the decoded [field], or `null` if the field is absent
+     * or was not requested.
+     */
+    public fun <T> getField(field: Int): IsoValue<T>? {
+        val slot = fields.indexOf(field)
+        @Suppress("UNCHECKED_CAST")
+        return if (slot < 0) null else values[slot] as IsoValue<T>?
+    }
+
+    /**
+     * Returns the value of decoded [field], or `null` if the field is absent
+     * or was not requested.
+     */
+    public fun <T> getObjectValue(field: Int): T? = getField<T>(field)?.value
+
+    override fun toString(): String =
+        buildString {
+            append("MessageHeader(type=").append("%04x".format(type))
+            fields.forEachIndexed { i, field ->
+                values[i]?.let { append(", ").append(field).append('=').append(it) }
+            }
+            append(')')
+        }
+
+    internal companion object {
+        private const val MAX_FIELD = 128
+        private const val BITMAP_FIELDS = 64
+
+        /**
+         * Creates a header from the fully parsed [message].
+         */
+        @Suppress("MagicNumber")
+        fun of(
+            message: IsoMessage,
+            fields: IntArray,
+        ): MessageHeader {
+            var primary = 0L
+            var secondary = 0L
+            for (i in 2..MAX_FIELD) {
+                if (message.hasField(i)) {
+                    if (i <= BITMAP_FIELDS) {
+                        primary = primary or (1L shl (BITMAP_FIELDS - i))
+                    } else {
+                        secondary = secondary or (1L shl (MAX_FIELD - i))
+                    }
+                }
+            }
+            val words = if (secondary != 0L) 2 else 1
+            if (words == 2) {
+                primary = primary or Long.MIN_VALUE
+            }
+            val values = Array<IsoValue<*>?>(fields.size) { message.getField<Any>(fields[it]) }
+            return MessageHeader(message.type, Bitmap(primary, secondary, words), fields, values)
+        }
+    }
+}
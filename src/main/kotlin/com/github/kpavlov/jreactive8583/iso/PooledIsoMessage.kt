@@ -0,0 +1,117 @@
+package com.github.kpavlov.jreactive8583.iso
+
+import com.solab.iso8583.IsoMessage
+import io.netty.util.IllegalReferenceCountException
+import io.netty.util.Recycler
+import io.netty.util.ReferenceCounted
+import io.netty.util.ResourceLeakDetectorFactory
+import io.netty.util.ResourceLeakTracker
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * [IsoMessage] which is taken from a thread-local [Recycler] and returned to it
+ * when its reference count drops to zero.
+ *
+ * Instances are created by [J8583MessageFactory] when message pooling is enabled.
+ * Like other reference-counted Netty messages, a message is released by
+ * [io.netty.handler.codec.MessageToByteEncoder] once it's written,
+ * and by the pipeline tail once inbound handlers have processed it.
+ * A handler keeping the message for later use must [retain] it.
+ * The message must not be accessed after it's released.
+ *
+ * Messages which are garbage collected without being released are reported
+ * by Netty [io.netty.util.ResourceLeakDetector].
+ */
+public class PooledIsoMessage private constructor(
+    private val handle: Recycler.Handle<PooledIsoMessage>,
+) : IsoMessage(),
+    ReferenceCounted {
+    private val refCnt = AtomicInteger()
+    private val defaultEncoding = characterEncoding
+    private var leak: ResourceLeakTracker<PooledIsoMessage>? = null
+
+    override fun refCnt(): Int = refCnt.get()
+
+    override fun retain(): PooledIsoMessage = retain(1)
+
+    override fun retain(increment: Int): PooledIsoMessage {
+        require(increment > 0) { "increment: $increment (expected: > 0)" }
+        while (true) {
+            val current = refCnt.get()
+            if (current <= 0 || current > Int.MAX_VALUE - increment) {
+                throw IllegalReferenceCountException(current, increment)
+            }
+            if (refCnt.compareAndSet(current, current + increment)) {
+                leak?.record()
+                return this
+            }
+        }
+    }
+
+    override fun touch(): PooledIsoMessage = touch(null)
+
+    override fun touch(hint: Any?): PooledIsoMessage {
+        leak?.record(hint)
+        return this
+    }
+
+    override fun release(): Boolean = release(1)
+
+    override fun release(decrement: Int): Boolean {
+        require(decrement > 0) { "decrement: $decrement (expected: > 0)" }
+        while (true) {
+            val current = refCnt.get()
+            if (current < decrement) {
+                throw IllegalReferenceCountException(current, -decrement)
+            }
+            if (refCnt.compareAndSet(current, current - decrement)) {
+                if (current == decrement) {
+                    recycle()
+                    return true
+                }
+                leak?.record()
+                return false
+            }
+        }
+    }
+
+    private fun recycle() {
+        leak?.close(this)
+        leak = null
+        for (i in 2..MAX_FIELD) {
+            setField(i, null)
+        }
+        type = 0
+        isoHeader = null
+        setEtx(-1)
+        isBinaryHeader = false
+        isBinaryFields = false
+        isBinaryBitmap = false
+        forceSecondaryBitmap = false
+        setForceStringEncoding(false)
+        isEncodeVariableLengthFieldsInHex = false
+        characterEncoding = defaultEncoding
+        handle.recycle(this)
+    }
+
+    internal companion object {
+        private const val MAX_FIELD = 128
+
+        private val RECYCLER =
+            object : Recycler<PooledIsoMessage>() {
+                override fun newObject(handle: Handle<PooledIsoMessage>): PooledIsoMessage = PooledIsoMessage(handle)
+            }
+
+        private val LEAK_DETECTOR =
+            ResourceLeakDetectorFactory.instance().newResourceLeakDetector(PooledIsoMessage::class.java)
+
+        /**
+         * Takes a cleared message with reference count of 1 from the pool.
+         */
+        fun newInstance(): PooledIsoMessage =
+            RECYCLER.get().apply {
+                refCnt.set(1)
+                leak = LEAK_DETECTOR.track(this)
+            }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.kpavlov.jreactive8583.iso
+
+import com.solab.iso8583.IsoMessage
+import com.solab.iso8583.IsoType
+import com.solab.iso8583.IsoValue
+import com.solab.iso8583.parse.date.DateTimeParseInfo
+import com.solab.iso8583.parse.temporal.TemporalParseInfo
+import java.time.ZonedDateTime
+import java.util.Date
+
+/**
+ * Creates [PooledIsoMessage]s using templates and settings of j8583 [com.solab.iso8583.MessageFactory].
+ *
+ * This is a port of `com.solab.iso8583.MessageFactory.newMessage` and `createResponse`,
+ * which instantiate messages with `new`. Field values are cloned like in j8583.
+ */
+internal class PooledMessageCreator(
+    private val messageFactory: com.solab.iso8583.MessageFactory<*>,
+) {
+    fun newMessage(type: Int): PooledIsoMessage {
+        val message = PooledIsoMessage.newInstance()
+        val binaryIsoHeader = messageFactory.getBinaryIsoHeader(type)
+        if (binaryIsoHeader != null) {
+            message.binaryIsoHeader = binaryIsoHeader
+        } else {
+            message.isoHeader = messageFactory.getIsoHeader(type)
+        }
+        message.type = type
+        message.setEtx(messageFactory.etx)
+        message.isBinaryHeader = messageFactory.isBinaryHeader
+        message.isBinaryFields = messageFactory.isBinaryFields
+        message.forceSecondaryBitmap = messageFactory.isForceSecondaryBitmap
+        message.isBinaryBitmap = messageFactory.isUseBinaryBitmap
+        message.characterEncoding = messageFactory.characterEncoding
+        message.setForceStringEncoding(messageFactory.isForceStringEncoding)
+        message.isEncodeVariableLengthFieldsInHex = messageFactory.isVariableLengthFieldsInHex
+
+        val template = messageFactory.getMessageTemplate(type)
+        if (template != null) {
+            for (i in 2..MAX_FIELD) {
+                if (template.hasField(i)) {
+                    message.setField(i, template.getField<Any>(i).clone())
+                }
+            }
+        }
+        messageFactory.traceNumberGenerator?.let {
+            message.setValue(TRACE_FIELD, it.nextTrace(), IsoType.NUMERIC, TRACE_LENGTH)
+        }
+        if (messageFactory.assignDate) {
+            assignDate(message)
+        }
+        return message
+    }
+
+    fun createResponse(
+        request: IsoMessage,
+        copyAllFields: Boolean,
+    ): PooledIsoMessage {
+        val response = PooledIsoMessage.newInstance()
+        response.isoHeader = messageFactory.getIsoHeader(request.type + RESPONSE_OFFSET)
+        response.characterEncoding = request.characterEncoding
+        response.isBinaryHeader = request.isBinaryHeader
+        response.isBinaryFields = request.isBinaryFields
+        response.isBinaryBitmap = request.isBinaryBitmap
+        response.type = request.type + RESPONSE_OFFSET
+        response.setEtx(messageFactory.etx)
+        response.forceSecondaryBitmap = messageFactory.isForceSecondaryBitmap
+        response.isEncodeVariableLengthFieldsInHex = request.isEncodeVariableLengthFieldsInHex
+
+        // j8583 copies fields 2..127 only
+        val template = messageFactory.getMessageTemplate(response.type)
+        for (i in 2 until MAX_FIELD) {
+            val source =
+                when {
+                    template == null || copyAllFields && request.hasField(i) -> request
+                    copyAllFields || template.hasField(i) -> if (request.hasField(i)) request else template
+                    else -> null
+                }
+            if (source != null && source.hasField(i)) {
+                response.setField(i, source.getField<Any>(i).clone())
+            }
+        }
+        return response
+    }
+
+    private fun assignDate(message: IsoMessage) {
+        val useDateTimeApi = messageFactory.isUseDateTimeApi
+        if (message.hasField(DATE_FIELD)) {
+            message.updateValue(DATE_FIELD, if (useDateTimeApi) ZonedDateTime.now() else Date())
+        } else if (useDateTimeApi) {
+            message.setField(
+                DATE_FIELD,
+                IsoValue(IsoType.DATE10, ZonedDateTime.now(TemporalParseInfo.getDefaultZoneId())),
+            )
+        } else {
+            val now = IsoValue(IsoType.DATE10, Date())
+            DateTimeParseInfo.getDefaultTimeZone()?.let { now.timeZone = it }
+            message.setField(DATE_FIELD, now)
+        }
+    }
+
+    private companion object {
+        private const val MAX_FIELD = 128
+        private const val RESPONSE_OFFSET = 16
+        private const val DATE_FIELD = 7
+        private const val TRACE_FIELD = 11
+        private const val TRACE_LENGTH = 6
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.kpavlov.jreactive8583.iso
+
+import com.solab.iso8583.IsoMessage
+import com.solab.iso8583.IsoValue
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Creates responses like `com.solab.iso8583.MessageFactory.createResponse`, but from
+ * a copy plan compiled once per request type.
+ *
+ * The plan holds response header and flags, the fields which may appear in the response
+ * and the template values. Building a response is a single loop over these fields.
+ * Every value is cloned and set with [IsoMessage.setField], so the response may be modified
+ * without affecting the request or the template.
+ *
+ * Plans are compiled on first use: later changes of j8583 templates or ISO headers are not picked up.
+ */
+internal class ResponseTemplates(
+    private val messageFactory: com.solab.iso8583.MessageFactory<*>,
+    private val pooled: Boolean,
+) {
+    private val plans = ConcurrentHashMap<Int, CopyPlan>()
+
+    fun createResponse(
+        request: IsoMessage,
+        copyAllFields: Boolean,
+    ): IsoMessage {
+        val key = (request.type shl 1) or (if (copyAllFields) 1 else 0)
+        val plan = plans[key] ?: plans.computeIfAbsent(key) { compile(request.type, copyAllFields) }
+        val response = if (pooled) PooledIsoMessage.newInstance() else IsoMessage()
+        plan.fill(request, response)
+        return response
+    }
+
+    private fun compile(
+        requestType: Int,
+        copyAllFields: Boolean,
+    ): CopyPlan {
+        val type = requestType + RESPONSE_OFFSET
+        val template = messageFactory.getMessageTemplate(type)
+        // j8583 copies fields 2..127 only
+        val templateFields = (2 until MAX_FIELD).filter { template?.hasField(it) == true }.toIntArray()
+        val templateValues = arrayOfNulls<IsoValue<*>>(MAX_FIELD + 1)
+        templateFields.forEach { templateValues[it] = template?.getField<Any>(it) }
+        val requestFields =
+            if (template == null || copyAllFields) IntArray(MAX_FIELD - 2) { it + 2 } else templateFields
+        return CopyPlan(
+            type = type,
+            isoHeader = messageFactory.getIsoHeader(type),
+            etx = messageFactory.etx,
+            forceSecondaryBitmap = messageFactory.isForceSecondaryBitmap,
+            templateFields = templateFields,
+            templateValues = templateValues,
+            requestFields = requestFields,
+        )
+    }
+
+    /**
+     * Compiled response construction for a single request type.
+     *
+     * @param templateFields fields of the response template
+     * @param templateValues template values indexed by field
+     * @param requestFields fields to be copied from the request if present, overriding template values
+     */
+    @Suppress("LongParameterList")
+    private class CopyPlan(
+        private val type: Int,
+        private val isoHeader: String?,
+        private val etx: Int,
+        private val forceSecondaryBitmap: Boolean,
+        private val templateFields: IntArray,
+        private val templateValues: Array<IsoValue<*>?>,
+        private val requestFields: IntArray,
+    ) {
+        fun fill(
+            request: IsoMessage,
+            response: IsoMessage,
+        ) {
+            response.isoHeader = isoHeader
+            response.characterEncoding = request.characterEncoding
+            response.isBinaryHeader = request.isBinaryHeader
+            response.isBinaryFields = request.isBinaryFields
+            response.isBinaryBitmap = request.isBinaryBitmap
+            response.type = type
+            response.setEtx(etx)
+            response.forceSecondaryBitmap = forceSecondaryBitmap
+            response.isEncodeVariableLengthFieldsInHex = request.isEncodeVariableLengthFieldsInHex
+
+            for (field in templateFields) {
+                response.setField(field, templateValues[field]?.clone())
+            }
+            for (field in requestFields) {
+                val value = request.getField<Any>(field) ?: continue
+                response.setField(field, value.clone())
+            }
+        }
+    }
+
+    private companion object {
+        private const val MAX_FIELD = 128
+        private const val RESPONSE_OFFSET = 16
+    }
+}
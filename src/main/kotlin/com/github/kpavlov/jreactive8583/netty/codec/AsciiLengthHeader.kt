@@ -0,0 +1,58 @@
+package com.github.kpavlov.jreactive8583.netty.codec
+
+import io.netty.buffer.ByteBuf
+import io.netty.handler.codec.CorruptedFrameException
+import io.netty.handler.codec.EncoderException
+
+/**
+ * Reads and writes frame length header encoded as fixed-width ASCII decimal digits
+ * in place, without intermediate arrays or strings.
+ */
+internal object AsciiLengthHeader {
+    private const val ZERO = '0'.code
+    private const val RADIX = 10
+
+    /**
+     * Parses [length] ASCII digits starting at absolute [offset] of [buf].
+     *
+     * @throws CorruptedFrameException if the header contains anything but digits
+     */
+    fun read(
+        buf: ByteBuf,
+        offset: Int,
+        length: Int,
+    ): Long {
+        var value = 0L
+        for (i in offset until offset + length) {
+            val digit = buf.getByte(i) - ZERO
+            if (digit !in 0 until RADIX) {
+                throw CorruptedFrameException(
+                    "Invalid length header: non-digit byte 0x%02x at offset %d".format(buf.getByte(i), i - offset),
+                )
+            }
+            value = value * RADIX + digit
+        }
+        return value
+    }
+
+    /**
+     * Writes [value] as [length] zero-padded ASCII digits at absolute [index] of [buf].
+     *
+     * @throws EncoderException if [value] does not fit into [length] digits
+     */
+    fun write(
+        buf: ByteBuf,
+        index: Int,
+        length: Int,
+        value: Int,
+    ) {
+        var remaining = value
+        for (i in index + length - 1 downTo index) {
+            buf.setByte(i, ZERO + remaining % RADIX)
+            remaining /= RADIX
+        }
+        if (remaining != 0) {
+            throw EncoderException("Message length $value does not fit into $length digit length header")
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.kpavlov.jreactive8583.netty.codec
+
+import io.netty.buffer.ByteBuf
+import java.nio.charset.StandardCharsets
+
+/**
+ * Hexadecimal text encoding of bitmap words, written to [ByteBuf]s by [IsoMessageWriter].
+ *
+ * A word is converted four bytes per step through a lookup table of digit pairs,
+ * instead of formatting it nibble by nibble.
+ */
+internal object ByteConversions {
+    private val HEX_DIGITS = "0123456789ABCDEF".toByteArray(StandardCharsets.US_ASCII)
+
+    /**
+     * Two ASCII hex digits of a byte, in the high and low byte of the short.
+     */
+    @Suppress("MagicNumber")
+    private val BYTE_TO_HEX =
+        IntArray(256) { (HEX_DIGITS[it shr 4].toInt() shl 8) or HEX_DIGITS[it and 0x0F].toInt() }
+
+    /**
+     * Appends [value] to [dst] as 16 uppercase hex digits, most significant first.
+     */
+    @Suppress("MagicNumber")
+    fun writeHex(
+        value: Long,
+        dst: ByteBuf,
+    ) {
+        dst.writeLong(hexWord(value ushr 32))
+        dst.writeLong(hexWord(value))
+    }
+
+    /**
+     * Hex digits of the lower four bytes of [value].
+     */
+    @Suppress("MagicNumber")
+    private fun hexWord(value: Long): Long =
+        (BYTE_TO_HEX[(value ushr 24).toInt() and 0xFF].toLong() shl 48) or
+            (BYTE_TO_HEX[(value ushr 16).toInt() and 0xFF].toLong() shl 32) or
+            (BYTE_TO_HEX[(value ushr 8).toInt() and 0xFF].toLong() shl 16) or
+            BYTE_TO_HEX[value.toInt() and 0xFF].toLong()
+}
@@ -14,6 +14,11 @@ import io.netty.handler.codec.ByteToMessageDecoder
  * This class extends `ByteToMessageDecoder` and is responsible for decoding ISO8583 messages
  * from a Netty `ByteBuf` and outputting `IsoMessage` instances.
  *
+ * Frame bytes are passed to [MessageFactory.parseMessage] as a [java.nio.ByteBuffer] view,
+ * so no intermediate array is allocated when the factory supports parsing in place.
+ * [com.github.kpavlov.jreactive8583.iso.J8583MessageFactory] parses heap buffers in place,
+ * but still copies direct buffers, which Netty allocates by default, into a reused per-thread array.
+ *
  * @param messageFactory A factory for creating and parsing `IsoMessage` instances.
  */
 public class Iso8583Decoder(
@@ -25,7 +30,8 @@ public class Iso8583Decoder(
      *
      * Message body starts immediately, no length header,
      * see `"lengthFieldFrameDecoder"` in
-     * [com.github.kpavlov.jreactive8583.netty.pipeline.Iso8583ChannelInitializer.initChannel]
+     * [com.github.kpavlov.jreactive8583.netty.pipeline.Iso8583ChannelInitializer.initChannel].
+     * Not installed with [com.github.kpavlov.jreactive8583.ConnectorConfiguration.singlePassDecoder].
      */
     @Throws(Exception::class)
     public override fun decode(
@@ -36,9 +42,8 @@ public class Iso8583Decoder(
         if (!byteBuf.isReadable) {
             return
         }
-        val bytes = ByteArray(byteBuf.readableBytes())
-        byteBuf.readBytes(bytes)
-        val isoMessage = messageFactory.parseMessage(bytes, 0)
+        val isoMessage = messageFactory.parseMessage(byteBuf.nioBuffer(), 0)
+        byteBuf.skipBytes(byteBuf.readableBytes())
         out.add(isoMessage)
     }
 }
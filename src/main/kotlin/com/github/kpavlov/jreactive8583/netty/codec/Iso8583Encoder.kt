@@ -2,40 +2,120 @@
 
 package com.github.kpavlov.jreactive8583.netty.codec
 
+import com.github.kpavlov.jreactive8583.iso.LazyIsoMessage
 import com.solab.iso8583.IsoMessage
 import io.netty.buffer.ByteBuf
 import io.netty.channel.ChannelHandler.Sharable
 import io.netty.channel.ChannelHandlerContext
 import io.netty.handler.codec.MessageToByteEncoder
-import io.netty.util.CharsetUtil
 
+/**
+ * Encodes [IsoMessage] prefixed with optional length header.
+ *
+ * Plain [IsoMessage] and [LazyIsoMessage] instances are serialized directly into the outbound [ByteBuf]:
+ * space for the length header is reserved up front and filled in once the message
+ * length is known, so no intermediate arrays are allocated.
+ * Other subclasses of [IsoMessage] are encoded with [IsoMessage.writeData] and [IsoMessage.writeToBuffer],
+ * as they may customize serialization.
+ *
+ * [IsoMessage] doesn't expose its `forceStringEncoding` and `etx` settings, so directly serialized
+ * messages are written with the settings of the message factory, which j8583 applies to new messages.
+ *
+ * @param forceStringEncoding `forceStringEncoding` of the j8583 message factory
+ * @param etx ETX character of the j8583 message factory, written after messages with binary length header,
+ *  or `-1` if none
+ */
 @Sharable
-public class Iso8583Encoder(
-    private val lengthHeaderLength: Int,
-    private val encodeLengthHeaderAsString: Boolean,
-) : MessageToByteEncoder<IsoMessage>() {
-    public override fun encode(
-        ctx: ChannelHandlerContext,
-        isoMessage: IsoMessage,
-        out: ByteBuf,
-    ) {
-        when {
-            lengthHeaderLength == 0 -> {
-                val bytes = isoMessage.writeData()
-                out.writeBytes(bytes)
+public class Iso8583Encoder
+    @JvmOverloads
+    public constructor(
+        private val lengthHeaderLength: Int,
+        private val encodeLengthHeaderAsString: Boolean,
+        private val forceStringEncoding: Boolean = false,
+        private val etx: Int = -1,
+    ) : MessageToByteEncoder<IsoMessage>() {
+        public override fun encode(
+            ctx: ChannelHandlerContext,
+            isoMessage: IsoMessage,
+            out: ByteBuf,
+        ) {
+            if (IsoMessageWriter.isSupported(isoMessage)) {
+                encodeDirect(isoMessage, out)
+            } else {
+                encodeCopying(isoMessage, out)
             }
+        }
+
+        private fun encodeDirect(
+            isoMessage: IsoMessage,
+            out: ByteBuf,
+        ) {
+            when {
+                lengthHeaderLength == 0 -> {
+                    IsoMessageWriter.write(isoMessage, out, forceStringEncoding)
+                }
+
+                encodeLengthHeaderAsString -> {
+                    val headerIndex = out.writerIndex()
+                    out.writeZero(lengthHeaderLength)
+                    val length = IsoMessageWriter.write(isoMessage, out, forceStringEncoding)
+                    AsciiLengthHeader.write(out, headerIndex, lengthHeaderLength, length)
+                }
 
-            encodeLengthHeaderAsString -> {
-                val bytes = isoMessage.writeData()
-                val lengthHeader = String.format("%0" + lengthHeaderLength + "d", bytes.size)
-                out.writeBytes(lengthHeader.toByteArray(CharsetUtil.US_ASCII))
-                out.writeBytes(bytes)
+                else -> {
+                    require(lengthHeaderLength <= MAX_BINARY_LENGTH_HEADER) {
+                        "The length header can have at most $MAX_BINARY_LENGTH_HEADER bytes"
+                    }
+                    val headerIndex = out.writerIndex()
+                    out.writeZero(lengthHeaderLength)
+                    var length = IsoMessageWriter.write(isoMessage, out, forceStringEncoding)
+                    if (etx > -1) {
+                        out.writeByte(etx)
+                        length++
+                    }
+                    setBinaryLengthHeader(out, headerIndex, length)
+                }
             }
+        }
 
-            else -> {
-                val byteBuffer = isoMessage.writeToBuffer(lengthHeaderLength)
-                out.writeBytes(byteBuffer)
+        @Suppress("MagicNumber")
+        private fun setBinaryLengthHeader(
+            out: ByteBuf,
+            headerIndex: Int,
+            length: Int,
+        ) {
+            for (i in 0 until lengthHeaderLength) {
+                val shift = (lengthHeaderLength - 1 - i) * 8
+                out.setByte(headerIndex + i, length shr shift)
             }
         }
+
+        private fun encodeCopying(
+            isoMessage: IsoMessage,
+            out: ByteBuf,
+        ) {
+            when {
+                lengthHeaderLength == 0 -> {
+                    val bytes = isoMessage.writeData()
+                    out.writeBytes(bytes)
+                }
+
+                encodeLengthHeaderAsString -> {
+                    val bytes = isoMessage.writeData()
+                    val headerIndex = out.writerIndex()
+                    out.writeZero(lengthHeaderLength)
+                    AsciiLengthHeader.write(out, headerIndex, lengthHeaderLength, bytes.size)
+                    out.writeBytes(bytes)
+                }
+
+                else -> {
+                    val byteBuffer = isoMessage.writeToBuffer(lengthHeaderLength)
+                    out.writeBytes(byteBuffer)
+                }
+            }
+        }
+
+        private companion object {
+            const val MAX_BINARY_LENGTH_HEADER = 4
+        }
     }
-}
@@ -0,0 +1,82 @@
+package com.github.kpavlov.jreactive8583.netty.codec
+
+import com.github.kpavlov.jreactive8583.iso.MessageFactory
+import com.solab.iso8583.IsoMessage
+import io.netty.buffer.ByteBuf
+import io.netty.channel.ChannelHandlerContext
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder
+import java.nio.ByteOrder
+
+/**
+ * Reads the frame length header and decodes ISO8583 message in a single step.
+ *
+ * This replaces [LengthFieldBasedFrameDecoder] (or [StringLengthFieldBasedFrameDecoder])
+ * followed by [Iso8583Decoder]: the message is parsed right from the cumulation buffer,
+ * without slicing and retaining the frame and passing it to another handler.
+ * Empty frames are skipped.
+ *
+ * Frame options have the same meaning as in [LengthFieldBasedFrameDecoder],
+ * the length header is stripped from the frame.
+ *
+ * @param messageFactory A factory for parsing `IsoMessage` instances.
+ * @param maxFrameLength the maximum length of the frame
+ * @param lengthFieldOffset the offset of the length field
+ * @param lengthFieldLength the length of the length field
+ * @param lengthAdjustment the compensation value to add to the value of the length field
+ * @param lengthAsString whether the length header is encoded as ASCII decimal digits, not binary
+ */
+public class Iso8583FrameDecoder(
+    private val messageFactory: MessageFactory<IsoMessage>,
+    maxFrameLength: Int,
+    lengthFieldOffset: Int,
+    lengthFieldLength: Int,
+    lengthAdjustment: Int,
+    private val lengthAsString: Boolean,
+) : LengthFieldBasedFrameDecoder(
+        maxFrameLength,
+        lengthFieldOffset,
+        lengthFieldLength,
+        lengthAdjustment,
+        lengthFieldLength,
+    ) {
+    private var frameIndex = 0
+    private var frameLength = 0
+
+    @Throws(Exception::class)
+    override fun decode(
+        ctx: ChannelHandlerContext,
+        buf: ByteBuf,
+    ): Any? {
+        if (super.decode(ctx, buf) == null || frameLength == 0) {
+            return null
+        }
+        // reader index is moved past the frame already, but the bytes are still in place
+        return messageFactory.parseMessage(buf.nioBuffer(frameIndex, frameLength), 0)
+    }
+
+    /**
+     * Remembers frame location and returns the cumulation buffer itself, as nothing is retained.
+     */
+    override fun extractFrame(
+        ctx: ChannelHandlerContext,
+        buffer: ByteBuf,
+        index: Int,
+        length: Int,
+    ): ByteBuf {
+        frameIndex = index
+        frameLength = length
+        return buffer
+    }
+
+    override fun getUnadjustedFrameLength(
+        buf: ByteBuf,
+        offset: Int,
+        length: Int,
+        order: ByteOrder,
+    ): Long =
+        if (lengthAsString) {
+            AsciiLengthHeader.read(buf, offset, length)
+        } else {
+            super.getUnadjustedFrameLength(buf, offset, length, order)
+        }
+}
@@ -0,0 +1,140 @@
+package com.github.kpavlov.jreactive8583.netty.codec
+
+import com.github.kpavlov.jreactive8583.iso.LazyIsoMessage
+import com.github.kpavlov.jreactive8583.iso.PooledIsoMessage
+import com.solab.iso8583.IsoMessage
+import com.solab.iso8583.IsoValue
+import com.solab.iso8583.util.HexCodec
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.ByteBufOutputStream
+import java.nio.charset.Charset
+import java.nio.charset.StandardCharsets
+
+/**
+ * Writes [IsoMessage] straight into a [ByteBuf].
+ *
+ * This is a port of `IsoMessage.writeData()`, which serializes the message
+ * to an intermediate array first. The output is byte-to-byte identical.
+ *
+ * Only a plain [IsoMessage], [LazyIsoMessage] and [PooledIsoMessage] are supported, see [isSupported]:
+ * other subclasses may override serialization.
+ */
+internal object IsoMessageWriter {
+    private const val MAX_FIELD = 128
+    private const val BITMAP_FIELDS = 64
+
+    fun isSupported(message: IsoMessage): Boolean =
+        message.javaClass == IsoMessage::class.java ||
+            message.javaClass == LazyIsoMessage::class.java ||
+            message.javaClass == PooledIsoMessage::class.java
+
+    /**
+     * Writes ISO header, MTI, bitmap and fields of the [message] to [out].
+     *
+     * @param forceStringEncoding `forceStringEncoding` of the message factory, as [IsoMessage] doesn't expose it
+     * @return number of bytes written
+     */
+    fun write(
+        message: IsoMessage,
+        out: ByteBuf,
+        forceStringEncoding: Boolean,
+    ): Int {
+        val start = out.writerIndex()
+        val charset = Charset.forName(message.characterEncoding)
+        val isoHeader = message.isoHeader
+        val binaryIsoHeader = message.binaryIsoHeader
+        if (isoHeader != null) {
+            out.writeCharSequence(isoHeader, charset)
+        } else if (binaryIsoHeader != null) {
+            out.writeBytes(binaryIsoHeader)
+        }
+        writeType(message, out, charset)
+        writeBitmap(message, out, charset, forceStringEncoding)
+        val stream = ByteBufOutputStream(out)
+        for (i in 2..MAX_FIELD) {
+            val field: IsoValue<Any>? = message.getField(i)
+            field?.write(
+                stream,
+                message.isBinaryFields,
+                forceStringEncoding,
+                message.isEncodeVariableLengthFieldsInHex,
+            )
+        }
+        return out.writerIndex() - start
+    }
+
+    @Suppress("MagicNumber")
+    private fun writeType(
+        message: IsoMessage,
+        out: ByteBuf,
+        charset: Charset,
+    ) {
+        val type = message.type
+        if (message.isBinaryHeader) {
+            out.writeShort(type and 0xFFFF)
+        } else if (isAsciiCompatible(charset)) {
+            for (shift in 12 downTo 0 step 4) {
+                out.writeByte(Character.forDigit(type shr shift and 0xF, 16).code)
+            }
+        } else {
+            out.writeCharSequence("%04x".format(type), charset)
+        }
+    }
+
+    @Suppress("MagicNumber")
+    private fun writeBitmap(
+        message: IsoMessage,
+        out: ByteBuf,
+        charset: Charset,
+        forceStringEncoding: Boolean,
+    ) {
+        var primary = 0L
+        var secondary = 0L
+        for (i in 2..MAX_FIELD) {
+            if (message.hasField(i)) {
+                if (i <= BITMAP_FIELDS) {
+                    primary = primary or (1L shl (BITMAP_FIELDS - i))
+                } else {
+                    secondary = secondary or (1L shl (MAX_FIELD - i))
+                }
+            }
+        }
+        val hasSecondary = message.forceSecondaryBitmap || secondary != 0L
+        if (hasSecondary) {
+            primary = primary or Long.MIN_VALUE
+        }
+        if (message.isBinaryHeader || message.isBinaryBitmap) {
+            out.writeLong(primary)
+            if (hasSecondary) {
+                out.writeLong(secondary)
+            }
+        } else if (!forceStringEncoding || isAsciiCompatible(charset)) {
+            ByteConversions.writeHex(primary, out)
+            if (hasSecondary) {
+                ByteConversions.writeHex(secondary, out)
+            }
+        } else {
+            val hex = StringBuilder(32)
+            appendHex(hex, primary)
+            if (hasSecondary) {
+                appendHex(hex, secondary)
+            }
+            out.writeCharSequence(hex, charset)
+        }
+    }
+
+    @Suppress("MagicNumber")
+    private fun appendHex(
+        sb: StringBuilder,
+        word: Long,
+    ) {
+        for (shift in 60 downTo 0 step 4) {
+            sb.append(HexCodec.HEX[(word ushr shift).toInt() and 0xF])
+        }
+    }
+
+    private fun isAsciiCompatible(charset: Charset): Boolean =
+        charset == StandardCharsets.US_ASCII ||
+            charset == StandardCharsets.ISO_8859_1 ||
+            charset == StandardCharsets.UTF_8
+}
@@ -0,0 +1,59 @@
+package com.github.kpavlov.jreactive8583.netty.codec
+
+import com.github.kpavlov.jreactive8583.iso.MessageFactory
+import com.github.kpavlov.jreactive8583.iso.MessageHeader
+import com.solab.iso8583.IsoMessage
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.DefaultByteBufHolder
+import io.netty.util.ReferenceCountUtil
+import java.io.UnsupportedEncodingException
+import java.text.ParseException
+
+/**
+ * Inbound message produced by [RoutingHeaderDecoder]: the decoded [header]
+ * and the raw message frame, which is retained until the envelope is released.
+ *
+ * The frame can be forwarded as is, or decoded into [IsoMessage] with [decode].
+ * Like any [io.netty.util.ReferenceCounted] message, the envelope must be released
+ * by the handler which consumes it. A reference-counted decoded message,
+ * e.g. [com.github.kpavlov.jreactive8583.iso.PooledIsoMessage], is released together with the envelope.
+ * Not thread-safe.
+ *
+ * @property header Message type and fields decoded for routing
+ */
+public class RoutingEnvelope internal constructor(
+    public val header: MessageHeader,
+    frame: ByteBuf,
+    private val messageFactory: MessageFactory<IsoMessage>,
+) : DefaultByteBufHolder(frame) {
+    private var message: IsoMessage? = null
+
+    /**
+     * Whether the message was already decoded by [decode].
+     */
+    public val isDecoded: Boolean
+        get() = message != null
+
+    /**
+     * Decodes the whole message from the frame on first call, and returns the same instance afterwards.
+     */
+    @Throws(ParseException::class, UnsupportedEncodingException::class)
+    public fun decode(): IsoMessage =
+        message ?: messageFactory.parseMessage(content().nioBuffer(), 0).also { message = it }
+
+    override fun release(): Boolean = releaseMessage(super.release())
+
+    override fun release(decrement: Int): Boolean = releaseMessage(super.release(decrement))
+
+    private fun releaseMessage(released: Boolean): Boolean {
+        if (released) {
+            ReferenceCountUtil.release(message)
+            message = null
+        }
+        return released
+    }
+
+    override fun replace(content: ByteBuf): RoutingEnvelope = RoutingEnvelope(header, content, messageFactory)
+
+    override fun toString(): String = "RoutingEnvelope($header, ${contentToString()})"
+}
@@ -0,0 +1,49 @@
+package com.github.kpavlov.jreactive8583.netty.codec
+
+import com.github.kpavlov.jreactive8583.iso.MessageFactory
+import com.solab.iso8583.IsoMessage
+import io.netty.buffer.ByteBuf
+import io.netty.channel.ChannelHandlerContext
+import io.netty.handler.codec.MessageToMessageDecoder
+
+/**
+ * A decoder which parses only what is needed to route ISO8583 messages.
+ *
+ * Unlike [Iso8583Decoder], it decodes the MTI, bitmap and the given [fields] only,
+ * and outputs [RoutingEnvelope] holding the retained message frame.
+ * Full decoding happens only when [RoutingEnvelope.decode] is called.
+ *
+ * Message body starts immediately, no length header, like for [Iso8583Decoder].
+ *
+ * @param messageFactory A factory for parsing `IsoMessage` instances.
+ * @param fields Numbers of fields to decode, e.g. `2, 3, 11, 41`.
+ */
+public class RoutingHeaderDecoder(
+    private val messageFactory: MessageFactory<IsoMessage>,
+    vararg fields: Int,
+) : MessageToMessageDecoder<ByteBuf>(ByteBuf::class.java) {
+    private val fields = fields.copyOf()
+
+    init {
+        require(this.fields.all { it in 2..MAX_FIELD }) {
+            "Field numbers must be in range 2..$MAX_FIELD: ${this.fields.contentToString()}"
+        }
+    }
+
+    @Throws(Exception::class)
+    public override fun decode(
+        ctx: ChannelHandlerContext,
+        msg: ByteBuf,
+        out: MutableList<Any>,
+    ) {
+        if (!msg.isReadable) {
+            return
+        }
+        val header = messageFactory.parseHeader(msg.nioBuffer(), 0, fields)
+        out.add(RoutingEnvelope(header, msg.retain(), messageFactory))
+    }
+
+    private companion object {
+        private const val MAX_FIELD = 128
+    }
+}
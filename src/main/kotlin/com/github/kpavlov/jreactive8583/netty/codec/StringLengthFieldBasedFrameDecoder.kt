@@ -3,8 +3,8 @@
 package com.github.kpavlov.jreactive8583.netty.codec
 
 import io.netty.buffer.ByteBuf
+import io.netty.handler.codec.CorruptedFrameException
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder
-import io.netty.util.CharsetUtil
 import java.nio.ByteOrder
 
 /**
@@ -12,7 +12,8 @@ import java.nio.ByteOrder
  * integer. This overrides it's frame length decoding to implement the case when the frame length
  * header is String encoded.
  *
- * Uses [CharsetUtil.US_ASCII] for decoding
+ * The header must consist of US-ASCII decimal digits only, which are parsed in place.
+ * Any other byte is rejected with [CorruptedFrameException].
  *
  * @param maxFrameLength the maximum length of the frame. If the length of the frame is greater than
  *    this value, `TooLongFrameException` will be thrown.
@@ -40,12 +41,5 @@ public open class StringLengthFieldBasedFrameDecoder(
         offset: Int,
         length: Int,
         order: ByteOrder,
-    ): Long {
-        var b = buf
-        b = b.order(order)
-        val lengthBytes = ByteArray(length)
-        b.getBytes(offset, lengthBytes)
-        val s = String(lengthBytes, CharsetUtil.US_ASCII)
-        return s.toLong()
-    }
+    ): Long = AsciiLengthHeader.read(buf, offset, length)
 }
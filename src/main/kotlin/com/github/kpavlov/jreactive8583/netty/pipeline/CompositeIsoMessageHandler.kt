@@ -1,14 +1,24 @@
 package com.github.kpavlov.jreactive8583.netty.pipeline
 
 import com.github.kpavlov.jreactive8583.IsoMessageListener
+import com.github.kpavlov.jreactive8583.netty.codec.RoutingEnvelope
 import com.solab.iso8583.IsoMessage
 import io.netty.channel.ChannelHandler.Sharable
 import io.netty.channel.ChannelHandlerContext
 import io.netty.channel.ChannelInboundHandlerAdapter
+import io.netty.util.ReferenceCountUtil
 import org.slf4j.LoggerFactory
 import java.util.concurrent.CopyOnWriteArrayList
 
-/** Handles [IsoMessage] s with chain of [IsoMessageListener]s. */
+/**
+ * Handles [IsoMessage] s with chain of [IsoMessageListener]s.
+ *
+ * [RoutingEnvelope]s are decoded only if some listener accepts the message header,
+ * see [IsoMessageListener.appliesToHeader].
+ *
+ * Messages are passed to the next handler once listeners are done,
+ * so reference-counted messages are released at the end of the pipeline.
+ */
 @Sharable
 public open class CompositeIsoMessageHandler<T : IsoMessage>
     @JvmOverloads
@@ -24,6 +34,11 @@ public open class CompositeIsoMessageHandler<T : IsoMessage>
             ctx: ChannelHandlerContext,
             msg: Any,
         ) {
+            if (msg is RoutingEnvelope) {
+                releaseOnFailure(msg) { doHandleEnvelope(ctx, msg) }
+                super.channelRead(ctx, msg)
+                return
+            }
             val isoMessage =
                 try {
                     msg as? T
@@ -36,10 +51,29 @@ public open class CompositeIsoMessageHandler<T : IsoMessage>
                     )
                     return
                 }
-            isoMessage?.let { doHandleMessage(ctx, it) }
+            isoMessage?.let { releaseOnFailure(msg) { doHandleMessage(ctx, it) } }
             super.channelRead(ctx, msg)
         }
 
+        /**
+         * Releases reference-counted [msg], e.g. [com.github.kpavlov.jreactive8583.iso.PooledIsoMessage],
+         * if a listener fails, as it won't reach the end of the pipeline.
+         */
+        private inline fun releaseOnFailure(
+            msg: Any,
+            block: () -> Unit,
+        ) {
+            var handled = false
+            try {
+                block()
+                handled = true
+            } finally {
+                if (!handled) {
+                    ReferenceCountUtil.release(msg)
+                }
+            }
+        }
+
         protected fun doHandleMessage(
             ctx: ChannelHandlerContext,
             isoMessage: T,
@@ -66,6 +100,27 @@ public open class CompositeIsoMessageHandler<T : IsoMessage>
             }
         }
 
+        /**
+         * Passes the message of [envelope] to listeners which accept its header.
+         * The message is decoded once, when the first such listener is found.
+         */
+        protected fun doHandleEnvelope(
+            ctx: ChannelHandlerContext,
+            envelope: RoutingEnvelope,
+        ) {
+            var applyNextListener = true
+            val size = messageListeners.size
+            var i = 0
+            while (applyNextListener && i < size) {
+                val messageListener = messageListeners[i]
+                if (messageListener.appliesToHeader(envelope.header)) {
+                    @Suppress("UNCHECKED_CAST")
+                    applyNextListener = handleWithMessageListener(messageListener, envelope.decode() as T, ctx)
+                }
+                i++
+            }
+        }
+
         @Suppress("TooGenericExceptionCaught")
         protected fun handleWithMessageListener(
             messageListener: IsoMessageListener<T>,
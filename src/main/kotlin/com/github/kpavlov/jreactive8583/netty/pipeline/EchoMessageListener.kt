@@ -3,12 +3,16 @@ package com.github.kpavlov.jreactive8583.netty.pipeline
 import com.github.kpavlov.jreactive8583.IsoMessageListener
 import com.github.kpavlov.jreactive8583.iso.MessageClass
 import com.github.kpavlov.jreactive8583.iso.MessageFactory
+import com.github.kpavlov.jreactive8583.iso.MessageHeader
 import com.solab.iso8583.IsoMessage
 import io.netty.channel.ChannelHandlerContext
 
 public open class EchoMessageListener<T : IsoMessage>(
     private val isoMessageFactory: MessageFactory<T>,
 ) : IsoMessageListener<T> {
+    public override fun appliesToHeader(header: MessageHeader): Boolean =
+        header.type and MessageClass.NETWORK_MANAGEMENT.value != 0
+
     public override fun applies(isoMessage: T): Boolean =
         isoMessage.type and MessageClass.NETWORK_MANAGEMENT.value != 0
 
@@ -0,0 +1,136 @@
+package com.github.kpavlov.jreactive8583.netty.pipeline
+
+import io.netty.channel.ChannelDuplexHandler
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelPromise
+import io.netty.handler.flush.FlushConsolidationHandler
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+/**
+ * Coalesces flushes, so that many messages written with `writeAndFlush` reach the socket in a single syscall.
+ *
+ * Like [FlushConsolidationHandler], flushes during a read are deferred until the read is complete,
+ * and flushes outside of a read are deferred to a task executed by the event loop after pending I/O and tasks.
+ * In addition, the task may be delayed by [maxDelayMicros] to collect more messages.
+ * Pending messages are flushed as soon as [maxBatchSize] flushes are collected.
+ *
+ * The handler should be the first in the pipeline, so that it sees flushes of all other handlers.
+ *
+ * @param maxBatchSize maximum number of flushes to coalesce
+ * @param maxDelayMicros maximum delay of a flush outside of a read, in microseconds, `0` for the end of event loop tick
+ */
+@Suppress("TooManyFunctions")
+public class FlushBatchingHandler(
+    private val maxBatchSize: Int,
+    private val maxDelayMicros: Long = 0,
+) : ChannelDuplexHandler() {
+    private var pendingFlushes = 0
+    private var readInProgress = false
+    private var scheduledFlush: Future<*>? = null
+    private lateinit var flushTask: Runnable
+
+    init {
+        require(maxBatchSize > 0) { "maxBatchSize must be positive: $maxBatchSize" }
+        require(maxDelayMicros >= 0) { "maxDelayMicros must not be negative: $maxDelayMicros" }
+    }
+
+    public override fun handlerAdded(ctx: ChannelHandlerContext) {
+        flushTask =
+            Runnable {
+                scheduledFlush = null
+                if (pendingFlushes > 0 && !readInProgress) {
+                    pendingFlushes = 0
+                    ctx.flush()
+                }
+            }
+    }
+
+    public override fun flush(ctx: ChannelHandlerContext) {
+        if (++pendingFlushes >= maxBatchSize) {
+            flushNow(ctx)
+        } else if (!readInProgress) {
+            scheduleFlush(ctx)
+        }
+    }
+
+    public override fun channelRead(
+        ctx: ChannelHandlerContext,
+        msg: Any,
+    ) {
+        readInProgress = true
+        ctx.fireChannelRead(msg)
+    }
+
+    public override fun channelReadComplete(ctx: ChannelHandlerContext) {
+        resetReadAndFlushIfNeeded(ctx)
+        ctx.fireChannelReadComplete()
+    }
+
+    @Deprecated("Deprecated in Java")
+    public override fun exceptionCaught(
+        ctx: ChannelHandlerContext,
+        cause: Throwable,
+    ) {
+        resetReadAndFlushIfNeeded(ctx)
+        ctx.fireExceptionCaught(cause)
+    }
+
+    public override fun disconnect(
+        ctx: ChannelHandlerContext,
+        promise: ChannelPromise,
+    ) {
+        resetReadAndFlushIfNeeded(ctx)
+        ctx.disconnect(promise)
+    }
+
+    public override fun close(
+        ctx: ChannelHandlerContext,
+        promise: ChannelPromise,
+    ) {
+        resetReadAndFlushIfNeeded(ctx)
+        ctx.close(promise)
+    }
+
+    public override fun channelWritabilityChanged(ctx: ChannelHandlerContext) {
+        if (!ctx.channel().isWritable) {
+            // let pending messages go to the socket
+            flushIfNeeded(ctx)
+        }
+        ctx.fireChannelWritabilityChanged()
+    }
+
+    public override fun handlerRemoved(ctx: ChannelHandlerContext) {
+        flushIfNeeded(ctx)
+    }
+
+    private fun resetReadAndFlushIfNeeded(ctx: ChannelHandlerContext) {
+        readInProgress = false
+        flushIfNeeded(ctx)
+    }
+
+    private fun flushIfNeeded(ctx: ChannelHandlerContext) {
+        if (pendingFlushes > 0) {
+            flushNow(ctx)
+        }
+    }
+
+    private fun flushNow(ctx: ChannelHandlerContext) {
+        scheduledFlush?.cancel(false)
+        scheduledFlush = null
+        pendingFlushes = 0
+        ctx.flush()
+    }
+
+    private fun scheduleFlush(ctx: ChannelHandlerContext) {
+        if (scheduledFlush == null) {
+            val eventLoop = ctx.channel().eventLoop()
+            scheduledFlush =
+                if (maxDelayMicros == 0L) {
+                    eventLoop.submit(flushTask)
+                } else {
+                    eventLoop.schedule(flushTask, maxDelayMicros, TimeUnit.MICROSECONDS)
+                }
+        }
+    }
+}
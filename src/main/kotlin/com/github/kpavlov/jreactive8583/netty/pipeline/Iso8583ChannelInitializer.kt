@@ -17,9 +17,13 @@ package com.github.kpavlov.jreactive8583.netty.pipeline
 
 import com.github.kpavlov.jreactive8583.ConnectorConfiguration
 import com.github.kpavlov.jreactive8583.ConnectorConfigurer
+import com.github.kpavlov.jreactive8583.ExecutionModel
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory
 import com.github.kpavlov.jreactive8583.iso.MessageFactory
 import com.github.kpavlov.jreactive8583.netty.codec.Iso8583Decoder
 import com.github.kpavlov.jreactive8583.netty.codec.Iso8583Encoder
+import com.github.kpavlov.jreactive8583.netty.codec.Iso8583FrameDecoder
+import com.github.kpavlov.jreactive8583.netty.codec.RoutingHeaderDecoder
 import com.github.kpavlov.jreactive8583.netty.codec.StringLengthFieldBasedFrameDecoder
 import com.solab.iso8583.IsoMessage
 import io.netty.bootstrap.AbstractBootstrap
@@ -39,7 +43,8 @@ import io.netty.handler.timeout.IdleStateHandler
  * @param C the type of connector configuration providing necessary settings
  * @param configuration the connector configuration that provides necessary settings for initializing the channel
  * @param configurer the configurer to further customize the bootstrap and pipeline configuration
- * @param workerGroup the event loop group used for managing channel handlers
+ * @param workerGroup the event loop group used for managing channel handlers,
+ *  according to [ConnectorConfiguration.executionModel]
  * @param isoMessageFactory the factory to create and parse ISO 8583 messages
  * @param customChannelHandlers optional custom handlers to be added to the pipeline
  */
@@ -63,32 +68,51 @@ public open class Iso8583ChannelInitializer<
 
         public override fun initChannel(ch: T) {
             val pipeline = ch.pipeline()
-            pipeline.addLast(
-                "lengthFieldFrameDecoder",
-                createLengthFieldBasedFrameDecoder(configuration),
-            )
-            pipeline.addLast("iso8583Decoder", createIso8583Decoder(isoMessageFactory))
+            if (configuration.flushBatchSize > 0) {
+                pipeline.addLast("flushBatching", createFlushBatchingHandler(configuration))
+            }
+            val routingHeaderFields = configuration.routingHeaderFields
+            if (routingHeaderFields.isEmpty() && configuration.singlePassDecoder) {
+                pipeline.addLast("iso8583Decoder", createIso8583FrameDecoder(configuration, isoMessageFactory))
+            } else {
+                pipeline.addLast(
+                    "lengthFieldFrameDecoder",
+                    createLengthFieldBasedFrameDecoder(configuration),
+                )
+                if (routingHeaderFields.isEmpty()) {
+                    pipeline.addLast("iso8583Decoder", createIso8583Decoder(isoMessageFactory))
+                } else {
+                    pipeline.addLast(
+                        "iso8583Decoder",
+                        createRoutingHeaderDecoder(isoMessageFactory, routingHeaderFields),
+                    )
+                }
+            }
             pipeline.addLast("iso8583Encoder", isoMessageEncoder)
+            // null group means the channel's own event loop
+            val executionModel = configuration.executionModel
+            val handlerGroup = workerGroup.takeIf { executionModel == ExecutionModel.WORKER_GROUP }
+            val listenerGroup = workerGroup.takeIf { executionModel != ExecutionModel.EVENT_LOOP }
             if (configuration.addLoggingHandler()) {
-                pipeline.addLast(workerGroup, "logging", loggingHandler)
+                pipeline.addLast(handlerGroup, "logging", loggingHandler)
             }
             if (configuration.replyOnError()) {
-                pipeline.addLast(workerGroup, "replyOnError", parseExceptionHandler)
+                pipeline.addLast(handlerGroup, "replyOnError", parseExceptionHandler)
             }
             if (configuration.shouldAddEchoMessageListener()) {
                 pipeline.addLast(
-                    workerGroup,
+                    handlerGroup,
                     "idleState",
                     IdleStateHandler(0, 0, configuration.idleTimeout),
                 )
                 pipeline.addLast(
-                    workerGroup,
+                    handlerGroup,
                     "idleEventHandler",
                     IdleEventHandler(isoMessageFactory),
                 )
             }
             @Suppress("SpreadOperator")
-            pipeline.addLast(workerGroup, *customChannelHandlers)
+            pipeline.addLast(listenerGroup, *customChannelHandlers)
             configurer?.configurePipeline(pipeline, configuration)
         }
 
@@ -97,16 +121,42 @@ public open class Iso8583ChannelInitializer<
         protected fun createParseExceptionHandler(): ChannelHandler =
             ParseExceptionHandler(isoMessageFactory, true)
 
-        protected fun createIso8583Encoder(configuration: C): Iso8583Encoder =
-            Iso8583Encoder(
+        protected fun createIso8583Encoder(configuration: C): Iso8583Encoder {
+            val j8583MessageFactory = isoMessageFactory as? J8583MessageFactory<*>
+            return Iso8583Encoder(
                 configuration.frameLengthFieldLength,
                 configuration.encodeFrameLengthAsString(),
+                j8583MessageFactory?.forceStringEncoding ?: false,
+                j8583MessageFactory?.etx ?: -1,
             )
+        }
+
+        protected fun createFlushBatchingHandler(configuration: C): ChannelHandler =
+            FlushBatchingHandler(configuration.flushBatchSize, configuration.flushDelayMicros)
 
         protected fun createIso8583Decoder(
             messageFactory: MessageFactory<IsoMessage>,
         ): Iso8583Decoder = Iso8583Decoder(messageFactory)
 
+        protected fun createIso8583FrameDecoder(
+            configuration: C,
+            messageFactory: MessageFactory<IsoMessage>,
+        ): ChannelHandler =
+            Iso8583FrameDecoder(
+                messageFactory,
+                configuration.maxFrameLength,
+                configuration.frameLengthFieldOffset,
+                configuration.frameLengthFieldLength,
+                configuration.frameLengthFieldAdjust,
+                configuration.encodeFrameLengthAsString(),
+            )
+
+        @Suppress("SpreadOperator")
+        protected fun createRoutingHeaderDecoder(
+            messageFactory: MessageFactory<IsoMessage>,
+            fields: IntArray,
+        ): RoutingHeaderDecoder = RoutingHeaderDecoder(messageFactory, *fields)
+
         protected fun createLoggingHandler(configuration: C): ChannelHandler =
             IsoMessageLoggingHandler(
                 LogLevel.DEBUG,
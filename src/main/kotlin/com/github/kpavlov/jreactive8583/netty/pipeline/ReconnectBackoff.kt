@@ -0,0 +1,51 @@
+package com.github.kpavlov.jreactive8583.netty.pipeline
+
+import java.util.Random
+
+/**
+ * Exponential backoff with decorrelated jitter: every delay is random between [baseMillis]
+ * and three times the previous delay, capped by [capMillis].
+ * Clients disconnected at the same moment spread their reconnects instead of retrying in lockstep.
+ *
+ * When [capMillis] equals [baseMillis], every delay is random between half of [baseMillis] and [baseMillis],
+ * so that clients without backoff still don't reconnect in lockstep. A zero [baseMillis] grows from 1 millisecond.
+ */
+internal class ReconnectBackoff(
+    private val baseMillis: Long,
+    private val capMillis: Long,
+    private val random: Random = Random(),
+) {
+    private var delay = baseMillis
+
+    init {
+        require(baseMillis >= 0) { "baseMillis must not be negative: $baseMillis" }
+        require(capMillis >= baseMillis) { "capMillis must not be less than baseMillis: $capMillis < $baseMillis" }
+    }
+
+    @Synchronized
+    fun nextDelay(): Long {
+        delay =
+            if (capMillis == baseMillis) {
+                baseMillis - random.nextLong(baseMillis / 2 + 1)
+            } else {
+                val upper = minOf(capMillis, maxOf(delay, 1) * BACKOFF_FACTOR)
+                baseMillis + random.nextLong(upper - baseMillis + 1)
+            }
+        return delay
+    }
+
+    /**
+     * Returns the last delay without advancing the backoff.
+     */
+    @Synchronized
+    fun currentDelay(): Long = delay
+
+    @Synchronized
+    fun reset() {
+        delay = baseMillis
+    }
+
+    private companion object {
+        private const val BACKOFF_FACTOR = 3
+    }
+}
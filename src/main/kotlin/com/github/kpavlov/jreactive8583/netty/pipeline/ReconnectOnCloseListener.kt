@@ -1,45 +1,136 @@
 package com.github.kpavlov.jreactive8583.netty.pipeline
 
+import com.github.kpavlov.jreactive8583.client.CircuitState
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration
+import com.github.kpavlov.jreactive8583.client.ConnectLimiter
 import com.github.kpavlov.jreactive8583.client.Iso8583Client
 import io.netty.channel.ChannelFuture
 import io.netty.channel.ChannelFutureListener
 import org.slf4j.LoggerFactory
-import java.util.concurrent.Callable
 import java.util.concurrent.ScheduledExecutorService
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
 
-public open class ReconnectOnCloseListener(
-    private val client: Iso8583Client<*>,
-    private val reconnectInterval: Int,
-    private val executorService: ScheduledExecutorService,
-) : ChannelFutureListener {
-    private val logger = LoggerFactory.getLogger(ReconnectOnCloseListener::class.java)
-    private val disconnectRequested = AtomicBoolean(false)
+/**
+ * Reconnects the [client] when the connection is closed or can't be established.
+ *
+ * Reconnect delays grow from [reconnectInterval] up to [maxReconnectInterval] with decorrelated jitter.
+ * When they are equal, delays are random between half of [reconnectInterval] and [reconnectInterval].
+ * After [circuitBreakerThreshold] failed attempts in a row the circuit is [CircuitState.OPEN]
+ * and reconnects are attempted every [maxReconnectInterval], until one of them succeeds.
+ * When [connectLimiter] is set, a reconnect is postponed if too many connection attempts are in progress,
+ * by the current delay and without advancing the backoff.
+ */
+public open class ReconnectOnCloseListener
+    @JvmOverloads
+    constructor(
+        private val client: Iso8583Client<*>,
+        private val reconnectInterval: Int,
+        private val executorService: ScheduledExecutorService,
+        private val maxReconnectInterval: Int = reconnectInterval,
+        private val circuitBreakerThreshold: Int = ClientConfiguration.DEFAULT_CIRCUIT_BREAKER_THRESHOLD,
+        private val connectLimiter: ConnectLimiter? = null,
+    ) : ChannelFutureListener {
+        private val logger = LoggerFactory.getLogger(ReconnectOnCloseListener::class.java)
+        private val disconnectRequested = AtomicBoolean(false)
+        private val failedAttempts = AtomicInteger()
+        private val backoff = ReconnectBackoff(reconnectInterval.toLong(), maxReconnectInterval.toLong())
 
-    public fun requestReconnect() {
-        disconnectRequested.set(false)
-    }
+        @Volatile
+        public var circuitState: CircuitState = CircuitState.CLOSED
+            private set
 
-    public fun requestDisconnect() {
-        disconnectRequested.set(true)
-    }
+        public fun requestReconnect() {
+            disconnectRequested.set(false)
+        }
 
-    public override fun operationComplete(future: ChannelFuture) {
-        val channel = future.channel()
-        logger.debug("Client connection was closed to {}", channel.remoteAddress())
-        channel.disconnect()
-        scheduleReconnect()
-    }
+        public fun requestDisconnect() {
+            disconnectRequested.set(true)
+        }
+
+        public override fun operationComplete(future: ChannelFuture) {
+            val channel = future.channel()
+            logger.debug("Client connection was closed to {}", channel.remoteAddress())
+            channel.disconnect()
+            scheduleReconnect()
+        }
+
+        /**
+         * Resets backoff and closes the circuit.
+         */
+        public fun connected() {
+            failedAttempts.set(0)
+            backoff.reset()
+            circuitState = CircuitState.CLOSED
+        }
+
+        /**
+         * Counts the failed attempt and schedules the next one.
+         */
+        public fun connectFailed() {
+            val failures = failedAttempts.incrementAndGet()
+            if (circuitState == CircuitState.HALF_OPEN) {
+                circuitState = CircuitState.OPEN
+            } else if (circuitState == CircuitState.CLOSED && failures >= circuitBreakerThreshold) {
+                logger.warn("Failed to connect {} times in a row, opening circuit", failures)
+                circuitState = CircuitState.OPEN
+            }
+            scheduleReconnect()
+        }
+
+        public fun scheduleReconnect() {
+            if (circuitState == CircuitState.CLOSED) {
+                schedule(backoff.nextDelay())
+            } else {
+                schedule(maxReconnectInterval.toLong())
+            }
+        }
+
+        private fun postponeReconnect() {
+            val delay =
+                if (circuitState == CircuitState.CLOSED) {
+                    backoff.currentDelay()
+                } else {
+                    maxReconnectInterval.toLong()
+                }
+            schedule(maxOf(delay, MIN_POSTPONE_MILLIS))
+        }
+
+        private fun schedule(delay: Long) {
+            if (!disconnectRequested.get()) {
+                logger.trace("Will try to connect again in {} millis", delay)
+                executorService.schedule(::reconnect, delay, TimeUnit.MILLISECONDS)
+            }
+        }
+
+        private fun reconnect() {
+            if (disconnectRequested.get()) {
+                return
+            }
+            if (connectLimiter != null && !connectLimiter.tryAcquire()) {
+                logger.trace("Too many connection attempts in progress, postponing reconnect")
+                postponeReconnect()
+                return
+            }
+            if (circuitState == CircuitState.OPEN) {
+                circuitState = CircuitState.HALF_OPEN
+            }
+            @Suppress("TooGenericExceptionCaught")
+            val future =
+                try {
+                    client.connectAsync()
+                } catch (e: Exception) {
+                    connectLimiter?.release()
+                    throw e
+                }
+            connectLimiter?.let { limiter -> future.addListener { limiter.release() } }
+        }
 
-    public fun scheduleReconnect() {
-        if (!disconnectRequested.get()) {
-            logger.trace("Failed to connect. Will try again in {} millis", reconnectInterval)
-            executorService.schedule(
-                Callable { client.connectAsync() },
-                reconnectInterval.toLong(),
-                TimeUnit.MILLISECONDS,
-            )
+        private companion object {
+            /**
+             * Delay of a postponed reconnect with zero [reconnectInterval], so that it doesn't spin on the limiter.
+             */
+            private const val MIN_POSTPONE_MILLIS = 10L
         }
     }
-}
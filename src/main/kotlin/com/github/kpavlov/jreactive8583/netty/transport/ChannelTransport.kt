@@ -0,0 +1,181 @@
+package com.github.kpavlov.jreactive8583.netty.transport
+
+import com.github.kpavlov.jreactive8583.Transport
+import io.netty.channel.Channel
+import io.netty.channel.ChannelOption
+import io.netty.channel.IoHandlerFactory
+import io.netty.channel.MultiThreadIoEventLoopGroup
+import io.netty.channel.ServerChannel
+import io.netty.channel.epoll.Epoll
+import io.netty.channel.epoll.EpollDomainSocketChannel
+import io.netty.channel.epoll.EpollIoHandler
+import io.netty.channel.epoll.EpollServerDomainSocketChannel
+import io.netty.channel.epoll.EpollServerSocketChannel
+import io.netty.channel.epoll.EpollSocketChannel
+import io.netty.channel.nio.NioIoHandler
+import io.netty.channel.socket.ServerSocketChannel
+import io.netty.channel.socket.SocketChannel
+import io.netty.channel.socket.nio.NioDomainSocketChannel
+import io.netty.channel.socket.nio.NioServerDomainSocketChannel
+import io.netty.channel.socket.nio.NioServerSocketChannel
+import io.netty.channel.socket.nio.NioSocketChannel
+import io.netty.channel.unix.DomainSocketAddress
+import io.netty.channel.unix.UnixChannelOption
+import io.netty.channel.uring.IoUring
+import io.netty.channel.uring.IoUringDomainSocketChannel
+import io.netty.channel.uring.IoUringIoHandler
+import io.netty.channel.uring.IoUringServerDomainSocketChannel
+import io.netty.channel.uring.IoUringServerSocketChannel
+import io.netty.channel.uring.IoUringSocketChannel
+import org.slf4j.LoggerFactory
+import java.net.SocketAddress
+import java.net.UnixDomainSocketAddress
+import java.util.concurrent.ThreadFactory
+
+/**
+ * Netty classes implementing a [Transport].
+ *
+ * Native transport classes are optional dependencies: they are referenced from lambdas only,
+ * which are not invoked unless the transport is available.
+ */
+internal enum class ChannelTransport(
+    private val availabilityCheck: () -> Throwable?,
+    private val ioHandlerFactory: () -> IoHandlerFactory,
+    private val socketChannel: () -> Class<out SocketChannel>,
+    private val serverSocketChannel: () -> Class<out ServerSocketChannel>,
+    private val domainSocketChannel: () -> Class<out Channel>,
+    private val serverDomainSocketChannel: () -> Class<out ServerChannel>,
+) {
+    NIO(
+        { null },
+        { NioIoHandler.newFactory() },
+        { NioSocketChannel::class.java },
+        { NioServerSocketChannel::class.java },
+        { NioDomainSocketChannel::class.java },
+        { NioServerDomainSocketChannel::class.java },
+    ),
+    EPOLL(
+        { unavailabilityCause("io.netty.channel.epoll.Epoll") { Epoll.unavailabilityCause() } },
+        { EpollIoHandler.newFactory() },
+        { EpollSocketChannel::class.java },
+        { EpollServerSocketChannel::class.java },
+        { EpollDomainSocketChannel::class.java },
+        { EpollServerDomainSocketChannel::class.java },
+    ),
+    IO_URING(
+        { unavailabilityCause("io.netty.channel.uring.IoUring") { IoUring.unavailabilityCause() } },
+        { IoUringIoHandler.newFactory() },
+        { IoUringSocketChannel::class.java },
+        { IoUringServerSocketChannel::class.java },
+        { IoUringDomainSocketChannel::class.java },
+        { IoUringServerDomainSocketChannel::class.java },
+    ),
+    ;
+
+    /**
+     * Reason why the transport can't be used, or `null` if it is available.
+     */
+    val unavailabilityCause: Throwable? by lazy { availabilityCheck() }
+
+    val isAvailable: Boolean
+        get() = unavailabilityCause == null
+
+    /**
+     * Client channel class connecting to [remoteAddress], a TCP or Unix domain socket address.
+     */
+    fun channelClass(remoteAddress: SocketAddress): Class<out Channel> =
+        if (isDomainSocket(remoteAddress)) domainSocketChannel() else socketChannel()
+
+    /**
+     * Server channel class listening at [localAddress], a TCP or Unix domain socket address.
+     */
+    fun serverChannelClass(localAddress: SocketAddress): Class<out ServerChannel> =
+        if (isDomainSocket(localAddress)) serverDomainSocketChannel() else serverSocketChannel()
+
+    /**
+     * Converts a Unix domain socket [address] to the type expected by the transport channels:
+     * [UnixDomainSocketAddress] for NIO and [DomainSocketAddress] for native transports.
+     * Other addresses are returned as is.
+     */
+    fun socketAddress(address: SocketAddress): SocketAddress =
+        when {
+            !isDomainSocket(address) -> address
+            this == NIO -> UnixDomainSocketAddress.of(domainSocketPath(address))
+            else -> DomainSocketAddress(domainSocketPath(address))
+        }
+
+    /**
+     * `SO_REUSEPORT` socket option, or `null` if the transport doesn't support it.
+     */
+    val reusePortOption: ChannelOption<Boolean>?
+        get() = if (this == NIO) null else UnixChannelOption.SO_REUSEPORT
+
+    /**
+     * @param threads number of threads, `0` for Netty default
+     * @param threadFactory factory of event loop threads, `null` for Netty default
+     */
+    fun newEventLoopGroup(
+        threads: Int,
+        threadFactory: ThreadFactory? = null,
+    ): MultiThreadIoEventLoopGroup = MultiThreadIoEventLoopGroup(threads, threadFactory, ioHandlerFactory())
+
+    companion object {
+        private val logger = LoggerFactory.getLogger(ChannelTransport::class.java)
+
+        /**
+         * Native [DomainSocketAddress] is compared by name, as the class may be missing.
+         */
+        private const val NATIVE_DOMAIN_SOCKET_ADDRESS = "io.netty.channel.unix.DomainSocketAddress"
+
+        /**
+         * Whether [address] is a Unix domain socket address, either [UnixDomainSocketAddress]
+         * or Netty [DomainSocketAddress].
+         */
+        fun isDomainSocket(address: SocketAddress): Boolean =
+            address is UnixDomainSocketAddress || address.javaClass.name == NATIVE_DOMAIN_SOCKET_ADDRESS
+
+        private fun domainSocketPath(address: SocketAddress): String =
+            if (address is UnixDomainSocketAddress) {
+                address.path.toString()
+            } else {
+                (address as DomainSocketAddress).path()
+            }
+
+        /**
+         * Selects the requested [transport] or the first available fallback.
+         */
+        fun resolve(transport: Transport): ChannelTransport {
+            val candidates =
+                when (transport) {
+                    Transport.AUTO -> listOf(EPOLL, NIO)
+                    Transport.NIO -> listOf(NIO)
+                    Transport.EPOLL -> listOf(EPOLL, NIO)
+                    Transport.IO_URING -> listOf(IO_URING, EPOLL, NIO)
+                }
+            val selected = candidates.first { it.isAvailable }
+            if (transport != Transport.AUTO && selected.name != transport.name) {
+                logger.warn(
+                    "Transport {} is not available, using {}",
+                    transport,
+                    selected,
+                    candidates.first().unavailabilityCause,
+                )
+            }
+            logger.debug("Using {} transport", selected)
+            return selected
+        }
+
+        private fun unavailabilityCause(
+            className: String,
+            nativeCheck: () -> Throwable?,
+        ): Throwable? =
+            try {
+                Class.forName(className, false, ChannelTransport::class.java.classLoader)
+                nativeCheck()
+            } catch (e: ClassNotFoundException) {
+                e
+            } catch (e: LinkageError) {
+                e
+            }
+    }
+}
@@ -3,92 +3,200 @@
 package com.github.kpavlov.jreactive8583.server
 
 import com.github.kpavlov.jreactive8583.AbstractIso8583Connector
+import com.github.kpavlov.jreactive8583.ConnectorConfigurer
+import com.github.kpavlov.jreactive8583.Transport
 import com.github.kpavlov.jreactive8583.iso.MessageFactory
 import com.github.kpavlov.jreactive8583.netty.pipeline.Iso8583ChannelInitializer
+import com.github.kpavlov.jreactive8583.netty.transport.ChannelTransport
 import com.solab.iso8583.IsoMessage
 import io.netty.bootstrap.ServerBootstrap
 import io.netty.channel.Channel
 import io.netty.channel.ChannelFuture
+import io.netty.channel.ChannelHandler
 import io.netty.channel.ChannelOption
-import io.netty.channel.socket.nio.NioServerSocketChannel
-import io.netty.util.concurrent.GenericFutureListener
+import io.netty.channel.EventLoopGroup
+import io.netty.channel.group.ChannelGroup
+import io.netty.channel.group.DefaultChannelGroup
+import io.netty.util.concurrent.GlobalEventExecutor
 import java.net.InetSocketAddress
+import java.net.SocketAddress
+import java.util.concurrent.CopyOnWriteArrayList
 
+/**
+ * @param socketAddress address to listen at, a TCP or Unix domain socket address, see [Transport]
+ */
 public open class Iso8583Server<T : IsoMessage>(
-    port: Int,
+    private val socketAddress: SocketAddress,
     config: ServerConfiguration,
     messageFactory: MessageFactory<T>,
 ) : AbstractIso8583Connector<ServerConfiguration, ServerBootstrap, T>(config, messageFactory) {
-    private val socketAddress = InetSocketAddress(port)
+    /**
+     * Listens at [port] on all interfaces.
+     */
+    public constructor(
+        port: Int,
+        config: ServerConfiguration,
+        messageFactory: MessageFactory<T>,
+    ) : this(InetSocketAddress(port), config, messageFactory)
+
+    private val isDomainSocket = ChannelTransport.isDomainSocket(socketAddress)
+
+    private val acceptorChannels = CopyOnWriteArrayList<Channel>()
+
+    /**
+     * Accepted connections, closed on [shutdown] as event loop groups may be shared and keep running.
+     * Connections initialized after that are closed at once. A new group is created with every bootstrap.
+     */
+    @Volatile
+    private var connections = newConnectionGroup()
+
+    /**
+     * Number of listening sockets to bind, see [ServerConfiguration.acceptorCount].
+     */
+    private val acceptorCount: Int by lazy {
+        if (configuration.acceptorCount > 1 && (channelTransport.reusePortOption == null || isDomainSocket)) {
+            logger.warn(
+                "SO_REUSEPORT is not supported by {} transport at {}, binding a single acceptor instead of {}",
+                channelTransport,
+                socketAddress,
+                configuration.acceptorCount,
+            )
+            1
+        } else {
+            configuration.acceptorCount
+        }
+    }
 
+    /**
+     * Binds [ServerConfiguration.acceptorCount] listening sockets.
+     * Each of them is registered with its own boss event loop.
+     * The first one is bound before the others, which share its address, including a port chosen for port 0.
+     */
     @Throws(InterruptedException::class)
     public fun start() {
-        bootstrap
-            .bind()
-            .addListener(
-                GenericFutureListener { future: ChannelFuture ->
-                    channel = future.channel()
-                    logger.info("Server is started and listening at {}", channel?.localAddress())
-                },
-            ).sync()
-            .await()
+        val futures = mutableListOf(bootstrap.bind())
+        @Suppress("TooGenericExceptionCaught")
+        try {
+            val boundAddress = futures.first().sync().channel().localAddress()
+            repeat(acceptorCount - 1) { futures.add(bootstrap.bind(boundAddress)) }
+            futures.forEach { it.sync() }
+        } catch (e: Exception) {
+            futures.forEach { it.channel().close() }
+            throw e
+        }
+        acceptorChannels.addAll(futures.map(ChannelFuture::channel))
+        channel = acceptorChannels.first()
+        logger.info(
+            "Server is started and listening at {} with {} acceptor(s)",
+            channel?.localAddress(),
+            acceptorChannels.size,
+        )
     }
 
+    /**
+     * Uses a boss event loop per acceptor, when there is more than one.
+     */
+    override fun createBossEventLoopGroup(): EventLoopGroup =
+        if (acceptorCount > 1) {
+            channelTransport.newEventLoopGroup(acceptorCount)
+        } else {
+            super.createBossEventLoopGroup()
+        }
+
     public override fun createBootstrap(): ServerBootstrap {
         val bootstrap = ServerBootstrap()
-        val tcpNoDelay =
-            java.lang.Boolean.parseBoolean(System.getProperty("nfs.rpc.tcp.nodelay", "true"))
+        connections = newConnectionGroup()
         @Suppress("UNCHECKED_CAST")
         bootstrap
             .group(bossEventLoopGroup, workerEventLoopGroup)
-            .channel(NioServerSocketChannel::class.java)
-            .childOption(ChannelOption.TCP_NODELAY, tcpNoDelay)
-            .childOption(ChannelOption.SO_KEEPALIVE, true)
-            .localAddress(socketAddress)
+            .channel(channelTransport.serverChannelClass(socketAddress))
+            .localAddress(channelTransport.socketAddress(socketAddress))
             .childHandler(
-                Iso8583ChannelInitializer<Channel, ServerBootstrap, ServerConfiguration>(
+                TrackingChannelInitializer(
+                    connections,
                     configuration,
                     configurer,
-                    workerEventLoopGroup,
+                    handlerEventLoopGroup,
                     isoMessageFactory as MessageFactory<IsoMessage>,
                     messageHandler,
                 ),
             )
-        configureBootstrap(bootstrap)
+        if (!isDomainSocket) {
+            val tcpNoDelay =
+                java.lang.Boolean.parseBoolean(System.getProperty("nfs.rpc.tcp.nodelay", "true"))
+            bootstrap
+                .childOption(ChannelOption.TCP_NODELAY, tcpNoDelay)
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+        }
+        channelTransport.reusePortOption
+            ?.takeIf { acceptorCount > 1 }
+            ?.let { bootstrap.option(it, true) }
+        writeBufferWaterMark?.let { bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, it) }
+        configureBootstrap(bootstrap, tcp = !isDomainSocket)
         bootstrap.validate()
         return bootstrap
     }
 
     public override fun shutdown() {
         stop()
+        connections.close().syncUninterruptibly()
         super.shutdown()
     }
 
     /**
-     * @return True if server is ready to accept connections.
+     * Addresses of listening sockets, one per acceptor, or empty list if the server is not started.
+     */
+    public val localAddresses: List<SocketAddress>
+        get() = acceptorChannels.map { it.localAddress() }
+
+    /**
+     * @return True if server is ready to accept connections on all acceptors.
      */
     public val isStarted: Boolean
-        get() {
-            val channel = channel
-            return channel != null && channel.isOpen
-        }
+        get() = acceptorChannels.isNotEmpty() && acceptorChannels.all { it.isOpen }
 
     public fun stop() {
-        val channel = channel
-        if (channel == null) {
+        if (acceptorChannels.isEmpty()) {
             logger.info("The Server is not started...")
             return
         }
         logger.info("Stopping the Server...")
-        with(channel) {
-            @Suppress("TooGenericExceptionCaught")
-            try {
-                deregister()
-                close().syncUninterruptibly()
-                logger.info("Server was Stopped.")
-            } catch (e: Exception) {
-                logger.error("Error while stopping the server", e)
-            }
+        @Suppress("TooGenericExceptionCaught")
+        try {
+            acceptorChannels.forEach { it.deregister() }
+            acceptorChannels.map { it.close() }.forEach { it.syncUninterruptibly() }
+            logger.info("Server was Stopped.")
+        } catch (e: Exception) {
+            logger.error("Error while stopping the server", e)
+        } finally {
+            acceptorChannels.clear()
+        }
+    }
+
+    private fun newConnectionGroup(): ChannelGroup =
+        DefaultChannelGroup("iso8583-server", GlobalEventExecutor.INSTANCE, true)
+
+    /**
+     * Adds accepted connections to the [connections] group before initializing their pipeline.
+     * Unlike a handler of the listening channel, it is not replaced when a configurer sets [ServerBootstrap.handler].
+     */
+    private class TrackingChannelInitializer(
+        private val connections: ChannelGroup,
+        configuration: ServerConfiguration,
+        configurer: ConnectorConfigurer<ServerConfiguration, ServerBootstrap>?,
+        workerGroup: EventLoopGroup,
+        isoMessageFactory: MessageFactory<IsoMessage>,
+        messageHandler: ChannelHandler,
+    ) : Iso8583ChannelInitializer<Channel, ServerBootstrap, ServerConfiguration>(
+            configuration,
+            configurer,
+            workerGroup,
+            isoMessageFactory,
+            messageHandler,
+        ) {
+        override fun initChannel(ch: Channel) {
+            connections.add(ch)
+            super.initChannel(ch)
         }
     }
 }
@@ -8,6 +8,18 @@ import com.github.kpavlov.jreactive8583.ConnectorConfiguration
 public class ServerConfiguration(
     builder: Builder,
 ) : ConnectorConfiguration(builder) {
+    /**
+     * Number of listening sockets bound to the server port, each accepting connections on its own event loop.
+     *
+     * More than one acceptor requires `SO_REUSEPORT`, supported by native transports only,
+     * so the kernel spreads incoming connections across them.
+     * With NIO transport a single socket is bound.
+     * With [eventLoopGroups], sockets are spread across threads of the shared boss group.
+     *
+     * Default value is `1`.
+     */
+    public val acceptorCount: Int = builder.acceptorCount
+
     public companion object {
         @JvmStatic
         public fun newBuilder(): Builder = Builder()
@@ -18,6 +30,17 @@ public class ServerConfiguration(
     }
 
     public class Builder : ConnectorConfiguration.Builder<Builder>() {
+        internal var acceptorCount = 1
+
+        /**
+         * @param acceptorCount Number of listening sockets to bind with `SO_REUSEPORT`, at least `1`
+         */
+        public fun acceptorCount(acceptorCount: Int): Builder =
+            apply {
+                require(acceptorCount > 0) { "acceptorCount must be positive: $acceptorCount" }
+                this.acceptorCount = acceptorCount
+            }
+
         public fun build(): ServerConfiguration = ServerConfiguration(this)
     }
 }
@@ -0,0 +1,96 @@
+package com.github.kpavlov.jreactive8583.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.IntSummaryStatistics;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs limits against a simulated host which processes {@code capacity} requests at a time
+ * in {@link #BASE_RTT} and queues the rest, so that round-trip time grows with the number of requests
+ * in flight beyond the capacity. The client always has requests to send, so the window is full.
+ */
+class AdaptiveLimitSimulationTest {
+
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long TIMEOUT = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int SAMPLES = 20_000;
+
+    /**
+     * Feeds {@code samples} completions at the current limit and returns statistics of the limit
+     * over the last quarter of them.
+     */
+    private static IntSummaryStatistics simulate(ConcurrencyLimit limit, int capacity, int samples) {
+        final var settled = new IntSummaryStatistics();
+        for (int i = 0; i < samples; i++) {
+            final int inFlight = limit.getLimit();
+            final long rtt = (long) (BASE_RTT * Math.max(1.0, (double) inFlight / capacity));
+            limit.onSample(Math.min(rtt, TIMEOUT), inFlight, rtt >= TIMEOUT);
+            if (i >= samples * 3 / 4) {
+                settled.accept(limit.getLimit());
+            }
+        }
+        return settled;
+    }
+
+    @Test
+    void aimdShouldConvergeAroundLatencyThreshold() {
+        // congestion is 15 ms, reached at 150 requests in flight
+        final var limit = new AimdLimit(20, 1, 1000, 0.9, 15);
+
+        final var healthy = simulate(limit, 100, SAMPLES);
+        assertThat(healthy.getMin()).isGreaterThanOrEqualTo(100);
+        assertThat(healthy.getMax()).isLessThanOrEqualTo(160);
+
+        final var slow = simulate(limit, 40, SAMPLES);
+        assertThat(slow.getMin()).isGreaterThanOrEqualTo(40);
+        assertThat(slow.getMax()).isLessThanOrEqualTo(64);
+
+        final var recovered = simulate(limit, 100, SAMPLES);
+        assertThat(recovered.getMin()).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    void vegasShouldConvergeToCapacity() {
+        final var limit = new VegasLimit();
+
+        final var healthy = simulate(limit, 100, SAMPLES);
+        assertThat(healthy.getMin()).isGreaterThanOrEqualTo(80);
+        assertThat(healthy.getMax()).isLessThanOrEqualTo(120);
+
+        final var slow = simulate(limit, 40, SAMPLES);
+        assertThat(slow.getMin()).isGreaterThanOrEqualTo(30);
+        assertThat(slow.getMax()).isLessThanOrEqualTo(55);
+
+        final var recovered = simulate(limit, 100, SAMPLES);
+        assertThat(recovered.getMin()).isGreaterThanOrEqualTo(80);
+    }
+
+    @Test
+    void shouldBackOffOnTimeouts() {
+        final var aimd = new AimdLimit(100, 1, 1000, 0.5, 1000);
+        final var vegas = new VegasLimit(100, 1, 1000, 1000);
+
+        aimd.onSample(TIMEOUT, 100, true);
+        vegas.onSample(TIMEOUT, 100, true);
+
+        assertThat(aimd.getLimit()).isEqualTo(50);
+        assertThat(vegas.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    void shouldNotGrowWhenLimitIsNotUsed() {
+        final var aimd = new AimdLimit();
+        final var vegas = new VegasLimit();
+
+        for (int i = 0; i < 100; i++) {
+            aimd.onSample(BASE_RTT, 1, false);
+            vegas.onSample(BASE_RTT, 1, false);
+        }
+
+        assertThat(aimd.getLimit()).isEqualTo(AimdLimit.DEFAULT_INITIAL_LIMIT);
+        assertThat(vegas.getLimit()).isEqualTo(AimdLimit.DEFAULT_INITIAL_LIMIT);
+    }
+}
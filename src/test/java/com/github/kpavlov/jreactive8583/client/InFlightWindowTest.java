@@ -0,0 +1,168 @@
+package com.github.kpavlov.jreactive8583.client;
+
+import com.solab.iso8583.IsoMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InFlightWindowTest {
+
+    private final List<PendingRequests.Pending<IsoMessage>> sent = new ArrayList<>();
+    private final InFlightWindow<IsoMessage> window = new InFlightWindow<>(new FixedLimit(2), 2, pending -> {
+        sent.add(pending);
+        return null;
+    });
+
+    private static PendingRequests.Pending<IsoMessage> pending(long key) {
+        return new PendingRequests.Pending<>(key, new IsoMessage());
+    }
+
+    @Test
+    void shouldQueueRequestsOverLimitInOrder() {
+        final var first = pending(1);
+        final var second = pending(2);
+        final var third = pending(3);
+        final var fourth = pending(4);
+        window.submit(first);
+        window.submit(second);
+        window.submit(third);
+        window.submit(fourth);
+
+        assertThat(sent).containsExactly(first, second);
+        assertThat(window.metrics().getInFlight()).isEqualTo(2);
+        assertThat(window.metrics().getQueueDepth()).isEqualTo(2);
+
+        window.release(second, InFlightWindow.Outcome.ANSWERED);
+        assertThat(sent).containsExactly(first, second, third);
+
+        window.release(first, InFlightWindow.Outcome.ANSWERED);
+        assertThat(sent).containsExactly(first, second, third, fourth);
+        final var metrics = window.metrics();
+        assertThat(metrics.getInFlight()).isEqualTo(2);
+        assertThat(metrics.getQueueDepth()).isZero();
+        assertThat(metrics.getWaitedRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSkipRequestsCompletedWhileQueued() {
+        final var first = pending(1);
+        final var second = pending(2);
+        final var expired = pending(3);
+        final var fourth = pending(4);
+        window.submit(first);
+        window.submit(second);
+        window.submit(expired);
+        window.submit(fourth);
+
+        window.release(expired, InFlightWindow.Outcome.TIMED_OUT);
+        window.release(first, InFlightWindow.Outcome.ANSWERED);
+
+        assertThat(sent).containsExactly(first, second, fourth);
+        assertThat(window.metrics().getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRemoveRequestsReleasedWhileQueued() {
+        final var first = pending(1);
+        final var second = pending(2);
+        final var expired = pending(3);
+        window.submit(first);
+        window.submit(second);
+        window.submit(expired);
+
+        window.release(expired, InFlightWindow.Outcome.TIMED_OUT);
+        assertThat(window.metrics().getQueueDepth()).isZero();
+
+        window.release(first, InFlightWindow.Outcome.ANSWERED);
+        final var next = pending(4);
+        window.submit(next);
+
+        assertThat(sent).containsExactly(first, second, next);
+        assertThat(window.metrics().getQueueDepth()).isZero();
+    }
+
+    @Test
+    void shouldReleasePermitOnce() {
+        final var first = pending(1);
+        window.submit(first);
+
+        window.release(first, InFlightWindow.Outcome.ANSWERED);
+        window.release(first, InFlightWindow.Outcome.ANSWERED);
+
+        assertThat(window.metrics().getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldNotExceedLimitUnderContention() throws Exception {
+        final int threads = 4;
+        final int requests = 10_000;
+        final var inFlight = new AtomicInteger();
+        final var maxInFlight = new AtomicInteger();
+        final var granted = new ConcurrentLinkedQueue<PendingRequests.Pending<IsoMessage>>();
+        final var concurrentWindow = new InFlightWindow<IsoMessage>(new FixedLimit(3), 3, pending -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            granted.add(pending);
+            return null;
+        });
+        final var done = new CountDownLatch(threads);
+        final var released = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < requests; i++) {
+                    concurrentWindow.submit(pending(i));
+                    final var next = granted.poll();
+                    if (next != null) {
+                        inFlight.decrementAndGet();
+                        concurrentWindow.release(next, InFlightWindow.Outcome.ANSWERED);
+                        released.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        PendingRequests.Pending<IsoMessage> next;
+        while ((next = granted.poll()) != null) {
+            inFlight.decrementAndGet();
+            concurrentWindow.release(next, InFlightWindow.Outcome.ANSWERED);
+            released.incrementAndGet();
+        }
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+        assertThat(released).hasValue(threads * requests);
+        assertThat(concurrentWindow.metrics().getQueueDepth()).isZero();
+        assertThat(concurrentWindow.metrics().getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldFollowAdaptiveLimit() {
+        final var limit = new AimdLimit(2, 1, 10, 0.5, 1000);
+        final var adaptiveWindow = new InFlightWindow<IsoMessage>(limit, Integer.MAX_VALUE, pending -> {
+            sent.add(pending);
+            return null;
+        });
+        final var first = pending(1);
+        final var second = pending(2);
+        final var third = pending(3);
+        adaptiveWindow.submit(first);
+        adaptiveWindow.submit(second);
+        adaptiveWindow.submit(third);
+        assertThat(sent).containsExactly(first, second);
+
+        adaptiveWindow.release(first, InFlightWindow.Outcome.TIMED_OUT);
+
+        assertThat(adaptiveWindow.getLimit()).isEqualTo(1);
+        assertThat(sent).containsExactly(first, second);
+
+        adaptiveWindow.release(second, InFlightWindow.Outcome.ANSWERED);
+
+        assertThat(adaptiveWindow.getLimit()).isEqualTo(2);
+        assertThat(sent).containsExactly(first, second, third);
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.kpavlov.jreactive8583.client;
+
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageMatcherTest {
+
+    private final MessageMatcher matcher = MessageMatcher.DEFAULT;
+
+    private static IsoMessage message(int type, int stan, String terminalId) {
+        final var message = new IsoMessage();
+        message.setType(type);
+        message.setValue(11, stan, IsoType.NUMERIC, 6);
+        if (terminalId != null) {
+            message.setValue(41, terminalId, IsoType.ALPHA, 8);
+        }
+        return message;
+    }
+
+    @Test
+    void shouldMatchResponseToRequest() {
+        final var request = message(0x0200, 123456, "TERM0001");
+        final var response = message(0x0210, 123456, "TERM0001");
+        response.setValue(39, "00", IsoType.ALPHA, 2);
+
+        assertThat(matcher.matchKey(response))
+            .isEqualTo(matcher.matchKey(request))
+            .isNotEqualTo(MessageMatcher.NO_KEY);
+    }
+
+    @Test
+    void shouldTellApartRequestsByMtiAndStan() {
+        final long key = matcher.matchKey(message(0x0200, 1, "TERM0001"));
+
+        assertThat(matcher.matchKey(message(0x0100, 1, "TERM0001"))).isNotEqualTo(key);
+        assertThat(matcher.matchKey(message(0x0200, 2, "TERM0001"))).isNotEqualTo(key);
+    }
+
+    @Test
+    void shouldMatchResponseWithoutEchoedTerminalOrWithHostRrn() {
+        final var request = message(0x0200, 1, "TERM0001");
+        final var response = message(0x0210, 1, null);
+        response.setValue(37, "000000000042", IsoType.ALPHA, 12);
+
+        assertThat(matcher.matchKey(response)).isEqualTo(matcher.matchKey(request));
+    }
+
+    @Test
+    void shouldTellApartRequestsByOptInFields() {
+        final var byFields = MessageMatcher.byFields(41, 37);
+        final var request = message(0x0200, 1, "TERM0001");
+        final long key = byFields.matchKey(request);
+
+        assertThat(byFields.matchKey(message(0x0200, 1, "TERM0002"))).isNotEqualTo(key);
+        assertThat(byFields.matchKey(message(0x0200, 1, null))).isNotEqualTo(key);
+
+        request.setValue(37, "000000000042", IsoType.ALPHA, 12);
+        assertThat(byFields.matchKey(request)).isNotEqualTo(key);
+    }
+
+    @Test
+    void shouldIgnorePaddingAndStanRepresentation() {
+        final var byFields = MessageMatcher.byFields(41);
+        final var padded = message(0x0200, 7, "TERM1   ");
+        final var parsed = new IsoMessage();
+        parsed.setType(0x0210);
+        parsed.setValue(11, "000007", IsoType.ALPHA, 6);
+        parsed.setValue(41, "TERM1", IsoType.ALPHA, 5);
+
+        assertThat(byFields.matchKey(parsed)).isEqualTo(byFields.matchKey(padded));
+        assertThat(matcher.matchKey(parsed)).isEqualTo(matcher.matchKey(padded));
+    }
+
+    @Test
+    void shouldNotMatchMessageWithoutStan() {
+        final var message = new IsoMessage();
+        message.setType(0x0200);
+
+        assertThat(matcher.matchKey(message)).isEqualTo(MessageMatcher.NO_KEY);
+    }
+}
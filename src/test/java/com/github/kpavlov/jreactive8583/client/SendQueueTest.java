@@ -0,0 +1,180 @@
+package com.github.kpavlov.jreactive8583.client;
+
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.MessageFactory;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCounted;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SendQueueTest {
+
+    private EmbeddedChannel channel;
+    private List<Boolean> writabilityChanges;
+
+    private SendQueue createQueue(int capacity, BackpressurePolicy policy) {
+        final var queue = new SendQueue(capacity, policy, 100);
+        queue.addListener(writabilityChanges::add);
+        channel = new EmbeddedChannel(queue.getHandler());
+        return queue;
+    }
+
+    @BeforeEach
+    void setUp() {
+        writabilityChanges = new ArrayList<>();
+    }
+
+    private void setWritable(boolean writable) {
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, writable);
+        channel.runPendingTasks();
+    }
+
+    private static IsoMessage message(int stan) {
+        final var message = new IsoMessage();
+        message.setType(0x0200);
+        message.setValue(11, stan, IsoType.NUMERIC, 6);
+        return message;
+    }
+
+    private static ReferenceCounted pooledMessage(int stan) {
+        final var factory = new J8583MessageFactory<>(new MessageFactory<>(), ISO8583Version.V1987,
+            MessageOrigin.OTHER, false, true);
+        final var message = factory.newMessage(0x0200);
+        message.setValue(11, stan, IsoType.NUMERIC, 6);
+        return (ReferenceCounted) message;
+    }
+
+    @Test
+    void shouldWriteDirectlyWhenWritable() {
+        final var queue = createQueue(0, BackpressurePolicy.FAIL_FAST);
+        final var message = message(1);
+
+        final var future = queue.send(channel, message);
+
+        assertThat(future.isSuccess()).isTrue();
+        assertThat((Object) channel.readOutbound()).isSameAs(message);
+    }
+
+    @Test
+    void shouldFailFastWhenNotWritable() {
+        final var queue = createQueue(0, BackpressurePolicy.FAIL_FAST);
+        setWritable(false);
+
+        assertThatThrownBy(() -> queue.send(channel, message(1)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(writabilityChanges).containsExactly(false);
+    }
+
+    @Test
+    void shouldQueueUntilWritable() {
+        final var queue = createQueue(2, BackpressurePolicy.FAIL_FAST);
+        setWritable(false);
+
+        final var first = queue.send(channel, message(1));
+        final var second = queue.send(channel, message(2));
+        assertThatThrownBy(() -> queue.send(channel, message(3)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(channel.outboundMessages()).isEmpty();
+
+        setWritable(true);
+
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(second.isSuccess()).isTrue();
+        assertThat(channel.outboundMessages())
+            .extracting(it -> ((IsoMessage) it).getObjectValue(11))
+            .containsExactly(1, 2);
+        assertThat(writabilityChanges).containsExactly(false, true);
+    }
+
+    @Test
+    void shouldDropOldestWhenFull() {
+        final var queue = createQueue(2, BackpressurePolicy.DROP_OLDEST);
+        setWritable(false);
+
+        final var first = queue.send(channel, message(1));
+        queue.send(channel, message(2));
+        queue.send(channel, message(3));
+
+        assertThat(first.cause()).isInstanceOf(IllegalStateException.class);
+
+        setWritable(true);
+
+        assertThat(channel.outboundMessages())
+            .extracting(it -> ((IsoMessage) it).getObjectValue(11))
+            .containsExactly(2, 3);
+    }
+
+    @Test
+    void shouldNotWaitOnEventLoop() {
+        // embedded channel runs everything on its event loop
+        final var queue = createQueue(0, BackpressurePolicy.WAIT);
+        setWritable(false);
+
+        assertThatThrownBy(() -> queue.send(channel, message(1)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldFailQueuedMessagesWhenClosed() {
+        final var queue = createQueue(2, BackpressurePolicy.FAIL_FAST);
+        setWritable(false);
+        final var future = queue.send(channel, message(1));
+
+        channel.close();
+
+        assertThat(future.cause()).isInstanceOf(ClosedChannelException.class);
+    }
+
+    @Test
+    void shouldFailAndReleaseMessageSentOverClosedChannel() {
+        final var queue = createQueue(2, BackpressurePolicy.FAIL_FAST);
+        channel.close();
+        final var message = pooledMessage(1);
+
+        final var future = queue.send(channel, (IsoMessage) message);
+
+        assertThat(future.cause()).isInstanceOf(ClosedChannelException.class);
+        assertThat(message.refCnt()).isZero();
+    }
+
+    @Test
+    void shouldReleaseDroppedAndFailedMessages() {
+        final var queue = createQueue(1, BackpressurePolicy.DROP_OLDEST);
+        setWritable(false);
+        final var dropped = pooledMessage(1);
+        final var failed = pooledMessage(2);
+
+        queue.send(channel, (IsoMessage) dropped);
+        queue.send(channel, (IsoMessage) failed);
+        assertThat(dropped.refCnt()).isZero();
+        assertThat(failed.refCnt()).isOne();
+
+        channel.close();
+
+        assertThat(failed.refCnt()).isZero();
+    }
+
+    @Test
+    void shouldNotWriteMessagesOfPreviousChannel() {
+        final var queue = createQueue(2, BackpressurePolicy.FAIL_FAST);
+        setWritable(false);
+        final var stale = queue.send(channel, message(1));
+
+        final var next = new EmbeddedChannel(queue.getHandler());
+
+        assertThat(stale.cause()).isInstanceOf(ClosedChannelException.class);
+        assertThat(next.outboundMessages()).isEmpty();
+        assertThat(queue.send(next, message(2)).isSuccess()).isTrue();
+    }
+}
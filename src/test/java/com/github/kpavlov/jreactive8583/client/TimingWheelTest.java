@@ -0,0 +1,117 @@
+package com.github.kpavlov.jreactive8583.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    private final List<Timed> expired = new ArrayList<>();
+    private final TimingWheel<Timed> wheel = new TimingWheel<>(TICK, 8, 0);
+
+    private static final class Timed extends TimingWheel.Node {
+        private final String name;
+
+        private Timed(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private Timed add(String name, long deadline) {
+        final var timed = new Timed(name);
+        wheel.add(timed, deadline);
+        return timed;
+    }
+
+    private void expire(long now) {
+        wheel.expire(now, timed -> {
+            expired.add(timed);
+            return null;
+        });
+    }
+
+    @Test
+    void shouldNotExpireBeforeDeadline() {
+        final var timed = add("a", 25);
+
+        expire(29);
+        assertThat(expired).isEmpty();
+
+        expire(30);
+        assertThat(expired).containsExactly(timed);
+        assertThat(wheel.getSize()).isZero();
+    }
+
+    @Test
+    void shouldExpireTicksElapsedSinceLastCallInBatch() {
+        final var a = add("a", 10);
+        final var b = add("b", 20);
+        final var c = add("c", 20);
+        add("d", 50);
+
+        expire(40);
+
+        assertThat(expired).containsExactlyInAnyOrder(a, b, c);
+        assertThat(wheel.getSize()).isOne();
+    }
+
+    @Test
+    void shouldExpireDeadlinesBeyondWheelRound() {
+        final var later = add("later", 8 * TICK + 15);
+        final var sooner = add("sooner", 15);
+
+        expire(20);
+        assertThat(expired).containsExactly(sooner);
+
+        expire(8 * TICK + 20);
+        assertThat(expired).containsExactly(sooner, later);
+    }
+
+    @Test
+    void shouldNotExpireRemovedNodes() {
+        final var a = add("a", 10);
+        final var b = add("b", 10);
+        final var c = add("c", 10);
+
+        assertThat(wheel.remove(b)).isTrue();
+        assertThat(wheel.remove(b)).isFalse();
+        expire(10);
+
+        assertThat(expired).containsExactlyInAnyOrder(a, c);
+    }
+
+    @Test
+    void shouldExpireOverdueDeadlineAtNextTick() {
+        expire(100);
+        final var overdue = add("overdue", 50);
+
+        expire(100);
+
+        assertThat(expired).containsExactly(overdue);
+    }
+
+    @Test
+    void shouldRemoveAllNodesOnClear() {
+        add("a", 10);
+        add("b", 1000);
+        final List<Timed> removed = new ArrayList<>();
+
+        wheel.clear(timed -> {
+            removed.add(timed);
+            return null;
+        });
+
+        assertThat(removed).hasSize(2);
+        assertThat(wheel.getSize()).isZero();
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.kpavlov.jreactive8583.coroutines;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadBackpressureTest {
+
+    private final ReadBackpressure backpressure = new ReadBackpressure(4);
+    private final EmbeddedChannel first = new EmbeddedChannel();
+    private final EmbeddedChannel second = new EmbeddedChannel();
+
+    @Test
+    void shouldPauseReadingAtHighWatermarkAndResumeAtHalf() {
+        backpressure.received(first);
+        backpressure.received(second);
+        backpressure.received(first);
+        assertThat(first.config().isAutoRead()).isTrue();
+
+        backpressure.received(second);
+        backpressure.received(first);
+        assertThat(second.config().isAutoRead()).isFalse();
+        assertThat(first.config().isAutoRead()).isFalse();
+
+        backpressure.consumed();
+        backpressure.consumed();
+        assertThat(first.config().isAutoRead()).isFalse();
+
+        backpressure.consumed();
+        assertThat(first.config().isAutoRead()).isTrue();
+        assertThat(second.config().isAutoRead()).isTrue();
+        assertThat(backpressure.getBufferedMessages()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldResumeReadingWhenCollectionStops() {
+        for (int i = 0; i < 4; i++) {
+            backpressure.received(first);
+        }
+        assertThat(first.config().isAutoRead()).isFalse();
+
+        backpressure.resumeAll();
+
+        assertThat(first.config().isAutoRead()).isTrue();
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.kpavlov.jreactive8583.iso;
+
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class J8583MessageFactoryTest {
+
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private byte[] bytes;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        j8583MessageFactory.setAssignDate(true);
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+
+        final var message = messageFactory.newMessage(0x0200);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        bytes = message.writeData();
+    }
+
+    @Test
+    void shouldParseHeapByteBufferInPlace() throws Exception {
+        final var framed = new byte[bytes.length + 10];
+        System.arraycopy(bytes, 0, framed, 3, bytes.length);
+        final var buf = ByteBuffer.wrap(framed, 3, bytes.length).slice();
+
+        final var result = messageFactory.parseMessage(buf, 0);
+
+        assertThat(result.debugString()).isEqualTo(messageFactory.parseMessage(bytes, 0).debugString());
+        assertThat(buf.position()).isZero();
+    }
+
+    @Test
+    void shouldParseDirectByteBuffer() throws Exception {
+        final var buf = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+        final var result = messageFactory.parseMessage(buf, 0);
+
+        assertThat(result.debugString()).isEqualTo(messageFactory.parseMessage(bytes, 0).debugString());
+        assertThat(result.<String>getObjectValue(41)).isEqualTo("TERMINAL        ");
+        assertThat(result.hasField(100)).isTrue();
+    }
+
+    @Test
+    void shouldRejectTruncatedMessageInsteadOfReadingPastLimit() {
+        final var framed = Arrays.copyOf(bytes, bytes.length * 2);
+        System.arraycopy(bytes, 0, framed, bytes.length, bytes.length);
+        final var buf = ByteBuffer.wrap(framed, 0, bytes.length - 5);
+
+        assertThatThrownBy(() -> messageFactory.parseMessage(buf, 0))
+            .isInstanceOf(ParseException.class);
+    }
+}
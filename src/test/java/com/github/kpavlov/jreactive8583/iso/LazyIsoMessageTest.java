@@ -0,0 +1,95 @@
+package com.github.kpavlov.jreactive8583.iso;
+
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.IsoValue;
+import com.solab.iso8583.parse.ConfigParser;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyIsoMessageTest {
+
+    private J8583MessageFactory<IsoMessage> eagerFactory;
+    private J8583MessageFactory<IsoMessage> lazyFactory;
+    private byte[] bytes;
+
+    private void setUp(boolean binary) throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        j8583MessageFactory.setUseBinaryMessages(binary);
+        eagerFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        lazyFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, true);
+
+        final var message = eagerFactory.newMessage(0x0200);
+        message.setValue(4, new BigDecimal("123.45"), IsoType.AMOUNT, 0);
+        message.setValue(7, new Date(), IsoType.DATE10, 0);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(12, new Date(), IsoType.TIME, 0);
+        message.setValue(13, new Date(), IsoType.DATE4, 0);
+        message.setValue(17, new Date(), IsoType.DATE_EXP, 0);
+        message.setValue(37, 1234567890L, IsoType.NUMERIC, 12);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        bytes = message.writeData();
+    }
+
+    private LazyIsoMessage parseLazy() throws Exception {
+        return (LazyIsoMessage) lazyFactory.parseMessage(ByteBuffer.wrap(bytes), 0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void shouldDecodeFieldsOnDemand(boolean binary) throws Exception {
+        setUp(binary);
+        final var eager = eagerFactory.parseMessage(bytes, 0);
+
+        final var lazy = parseLazy();
+
+        final var deferred = lazy.getDeferredFieldCount();
+        assertThat(deferred).isPositive();
+        assertThat(lazy.hasField(41)).isTrue();
+        assertThat(lazy.getDeferredFieldCount()).isEqualTo(deferred);
+
+        assertThat(lazy.<String>getObjectValue(41)).isEqualTo(eager.<String>getObjectValue(41));
+        assertThat(lazy.getDeferredFieldCount()).isEqualTo(deferred - 1);
+        assertThat(lazy.getField(41)).isSameAs(lazy.getField(41));
+
+        assertThat(lazy.debugString()).isEqualTo(eager.debugString());
+        assertThat(lazy.getDeferredFieldCount()).isZero();
+        assertThat(lazy.writeData()).isEqualTo(bytes);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void shouldCreateResponse(boolean binary) throws Exception {
+        setUp(binary);
+
+        final var response = lazyFactory.createResponse(parseLazy());
+
+        assertThat(response.getType()).isEqualTo(0x0210);
+        assertThat(response.<String>getObjectValue(48)).isEqualTo("Private data");
+        assertThat(response.getObjectValue(11).toString()).isEqualTo("123456");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void shouldReplaceDeferredField(boolean binary) throws Exception {
+        setUp(binary);
+        final var lazy = parseLazy();
+        final var deferred = lazy.getDeferredFieldCount();
+
+        lazy.setField(48, new IsoValue<>(IsoType.LLLVAR, "Replaced"));
+        lazy.removeFields(41);
+
+        assertThat(lazy.getDeferredFieldCount()).isEqualTo(deferred - 2);
+        assertThat(lazy.<String>getObjectValue(48)).isEqualTo("Replaced");
+        assertThat(lazy.hasField(41)).isFalse();
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.kpavlov.jreactive8583.iso;
+
+import com.github.kpavlov.jreactive8583.netty.codec.Iso8583Encoder;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.IllegalReferenceCountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledIsoMessageTest {
+
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private J8583MessageFactory<IsoMessage> pooledMessageFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        pooledMessageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, true);
+    }
+
+    private static <M extends IsoMessage> M populate(M message) {
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        return message;
+    }
+
+    @Test
+    void shouldCreateMessagesLikeJ8583() throws Exception {
+        final var expected = populate(messageFactory.newMessage(0x0200));
+
+        final var message = (PooledIsoMessage) populate(pooledMessageFactory.newMessage(0x0200));
+
+        assertThat(message.refCnt()).isEqualTo(1);
+        assertThat(message.writeData()).isEqualTo(expected.writeData());
+
+        final var response = (PooledIsoMessage) pooledMessageFactory.createResponse(message);
+        assertThat(response.debugString()).isEqualTo(messageFactory.createResponse(expected).debugString());
+        assertThat(pooledMessageFactory.createResponse(message, false).debugString())
+            .isEqualTo(messageFactory.createResponse(expected, false).debugString());
+
+        assertThat(message.release()).isTrue();
+        assertThat(response.release()).isTrue();
+    }
+
+    @Test
+    void shouldParseMessagesLikeJ8583() throws Exception {
+        final var bytes = populate(messageFactory.newMessage(0x0200)).writeData();
+
+        final var message = pooledMessageFactory.parseMessage(ByteBuffer.wrap(bytes), 0);
+
+        assertThat(message).isInstanceOf(PooledIsoMessage.class);
+        assertThat(message.debugString()).isEqualTo(messageFactory.parseMessage(bytes, 0).debugString());
+        assertThat(((PooledIsoMessage) message).release()).isTrue();
+    }
+
+    @Test
+    void shouldClearRecycledMessage() {
+        final var message = (PooledIsoMessage) populate(pooledMessageFactory.newMessage(0x0200));
+        message.setIsoHeader("ISO015000055");
+        message.setBinaryFields(true);
+
+        message.retain();
+        assertThat(message.release()).isFalse();
+        assertThat(message.release()).isTrue();
+        assertThat(message.refCnt()).isZero();
+        assertThatThrownBy(message::release).isInstanceOf(IllegalReferenceCountException.class);
+
+        assertThat(message.hasField(11)).isFalse();
+        assertThat(message.getIsoHeader()).isNull();
+        assertThat(message.isBinaryFields()).isFalse();
+        assertThat(message.getType()).isZero();
+
+        final var reused = (PooledIsoMessage) pooledMessageFactory.newMessage(0x0800);
+        assertThat(reused).isSameAs(message);
+        assertThat(reused.refCnt()).isEqualTo(1);
+        assertThat(reused.getType()).isEqualTo(0x0800);
+        reused.release();
+    }
+
+    @Test
+    void shouldReleaseMessageWhenWritten() {
+        final var channel = new EmbeddedChannel(new Iso8583Encoder(2, false));
+        final var message = (PooledIsoMessage) populate(pooledMessageFactory.newMessage(0x0200));
+        final var expected = message.writeData();
+
+        channel.writeOutbound(message);
+
+        assertThat(message.refCnt()).isZero();
+        final ByteBuf frame = channel.readOutbound();
+        assertThat(frame.readUnsignedShort()).isEqualTo(expected.length);
+        assertThat(frame.readableBytes()).isEqualTo(expected.length);
+        frame.release();
+    }
+
+    @Test
+    void shouldRejectLazyPooledFactory() {
+        assertThatThrownBy(() -> new J8583MessageFactory<>(
+            ConfigParser.createDefault(), ISO8583Version.V1987, MessageOrigin.OTHER, true, true))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.kpavlov.jreactive8583.iso;
+
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.MessageFactory;
+import com.solab.iso8583.parse.ConfigParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseTemplatesTest {
+
+    private MessageFactory<IsoMessage> j8583MessageFactory;
+    private J8583MessageFactory<IsoMessage> compiledFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        j8583MessageFactory.setIsoHeader(0x0210, "ISO015000055");
+        compiledFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, false, true);
+    }
+
+    private IsoMessage newRequest(int type) {
+        final var message = j8583MessageFactory.newMessage(type);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(100, "Request data", IsoType.LLVAR, 0);
+        message.setValue(128, "MAC", IsoType.ALPHA, 8);
+        return message;
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0200, true", "0200, false", "0800, true", "0800, false", "0400, true", "0400, false"})
+    void shouldCreateResponsesLikeJ8583(String type, boolean copyAllFields) throws Exception {
+        final var request = newRequest(Integer.parseInt(type, 16));
+
+        final var response = compiledFactory.createResponse(request, copyAllFields);
+
+        final var expected = j8583MessageFactory.createResponse(request, copyAllFields);
+        assertThat(response.getType()).isEqualTo(expected.getType());
+        assertThat(response.getIsoHeader()).isEqualTo(expected.getIsoHeader());
+        assertThat(response.debugString()).isEqualTo(expected.debugString());
+        assertThat(response.writeData()).isEqualTo(expected.writeData());
+    }
+
+    @Test
+    void shouldNotShareRequestAndTemplateValues() {
+        final var request = newRequest(0x0200);
+
+        final var response = compiledFactory.createResponse(request);
+        response.getField(41).setCharacterEncoding(StandardCharsets.ISO_8859_1.name());
+        response.getField(126).setCharacterEncoding(StandardCharsets.ISO_8859_1.name());
+        final var other = compiledFactory.createResponse(newRequest(0x0200));
+
+        assertThat(response.getField(41)).isNotSameAs(request.getField(41)).isEqualTo(request.getField(41));
+        assertThat(response.getField(100)).isNotSameAs(request.getField(100)).isEqualTo(request.getField(100));
+        assertThat(response.getField(126)).isNotSameAs(other.getField(126)).isEqualTo(other.getField(126));
+        assertThat(request.getField(41).getCharacterEncoding()).isEqualTo(StandardCharsets.US_ASCII.name());
+        assertThat(other.getField(126).getCharacterEncoding()).isEqualTo(StandardCharsets.US_ASCII.name());
+        assertThat(response.hasField(128)).isFalse();
+    }
+
+    @Test
+    void shouldCloneValuesInOtherEncoding() {
+        final var request = newRequest(0x0200);
+        request.setCharacterEncoding(StandardCharsets.ISO_8859_1.name());
+
+        final var response = compiledFactory.createResponse(request);
+
+        assertThat(response.getField(41)).isNotSameAs(request.getField(41)).isEqualTo(request.getField(41));
+        assertThat(response.getField(41).getCharacterEncoding()).isEqualTo(StandardCharsets.ISO_8859_1.name());
+        assertThat(request.getField(41).getCharacterEncoding()).isEqualTo(StandardCharsets.US_ASCII.name());
+    }
+
+    @Test
+    void shouldCreatePooledResponses() {
+        final var pooledFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, true, true);
+        final var request = newRequest(0x0200);
+
+        final var response = pooledFactory.createResponse(request);
+
+        assertThat(response).isInstanceOf(PooledIsoMessage.class);
+        assertThat(response.debugString()).isEqualTo(j8583MessageFactory.createResponse(request).debugString());
+        assertThat(((PooledIsoMessage) response).release()).isTrue();
+    }
+
+    @Test
+    void shouldRejectCustomJ8583Factory() {
+        final var customFactory = new MessageFactory<IsoMessage>() {
+        };
+        assertThatThrownBy(() -> new J8583MessageFactory<>(
+            customFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, false, true))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
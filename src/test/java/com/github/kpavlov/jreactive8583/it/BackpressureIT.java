@@ -0,0 +1,88 @@
+package com.github.kpavlov.jreactive8583.it;
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.client.BackpressurePolicy;
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BackpressureIT {
+
+    private static final int MESSAGES = 5000;
+
+    @Test
+    void shouldSlowDownProducerInsteadOfFailing() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        final var messageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        final int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        final var server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .build(), messageFactory);
+        final var client = new Iso8583Client<>(new InetSocketAddress("127.0.0.1", port),
+            ClientConfiguration.newBuilder()
+                .writeBufferWaterMark(256, 512)
+                .backpressure(16, BackpressurePolicy.WAIT)
+                .sendTimeout(5000)
+                .build(), messageFactory);
+        final var responses = new Semaphore(0);
+        final var writabilityChanges = new CopyOnWriteArrayList<Boolean>();
+        client.addWritabilityListener(writabilityChanges::add);
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                responses.release();
+                return false;
+            }
+        });
+        try {
+            server.init();
+            server.start();
+            client.init();
+            client.connect();
+            await().alias("client connected").until(client::isConnected);
+
+            for (int i = 0; i < MESSAGES; i++) {
+                final var request = messageFactory.newMessage(0x0800);
+                request.setValue(11, i, IsoType.NUMERIC, 6);
+                client.sendAsync(request);
+            }
+
+            assertThat(responses.tryAcquire(MESSAGES, 30, TimeUnit.SECONDS)).isTrue();
+            assertThat(writabilityChanges).contains(false, true);
+            assertThat(client.awaitWritable(1, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+}
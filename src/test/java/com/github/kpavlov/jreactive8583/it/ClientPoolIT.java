@@ -0,0 +1,172 @@
+package com.github.kpavlov.jreactive8583.it;
+
+import com.github.kpavlov.jreactive8583.ConnectorConfigurer;
+import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583ClientPool;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ClientPoolIT {
+
+    private static final int POOL_SIZE = 3;
+
+    private final List<Channel> serverChannels = new CopyOnWriteArrayList<>();
+    private final Semaphore responses = new Semaphore(0);
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private Iso8583Server<IsoMessage> server;
+    private Iso8583ClientPool<IsoMessage> pool;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .build(), messageFactory);
+        server.setConfigurer(new ConnectorConfigurer<>() {
+            @Override
+            public void configurePipeline(ChannelPipeline pipeline, ServerConfiguration configuration) {
+                serverChannels.add(pipeline.channel());
+            }
+        });
+        server.init();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        server.shutdown();
+    }
+
+    private void createPool(Iso8583ClientPool.Selection selection) {
+        createPool(selection, ClientConfiguration.newBuilder().build());
+    }
+
+    private void createPool(Iso8583ClientPool.Selection selection, ClientConfiguration configuration) {
+        pool = new Iso8583ClientPool<>(new InetSocketAddress("127.0.0.1", port), POOL_SIZE,
+            configuration, messageFactory, selection);
+        pool.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                responses.release();
+                return false;
+            }
+        });
+        pool.init();
+        pool.connectAsync();
+        await().alias("all members connected")
+            .until(() -> pool.health().stream().allMatch(Iso8583ClientPool.MemberHealth::getConnected));
+    }
+
+    @Test
+    void shouldSpreadMessagesRoundRobin() throws Exception {
+        createPool(Iso8583ClientPool.Selection.ROUND_ROBIN);
+
+        for (int i = 0; i < 3 * POOL_SIZE; i++) {
+            pool.send(messageFactory.newMessage(0x0800));
+        }
+
+        assertThat(responses.tryAcquire(3 * POOL_SIZE, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.health()).extracting(Iso8583ClientPool.MemberHealth::getSent).containsOnly(3L);
+    }
+
+    @Test
+    void shouldReconnectMembersIndependently() throws Exception {
+        createPool(Iso8583ClientPool.Selection.LEAST_IN_FLIGHT);
+        assertThat(serverChannels).hasSize(POOL_SIZE);
+
+        serverChannels.get(0).close().sync();
+
+        await().alias("member reconnected")
+            .until(() -> serverChannels.size() == POOL_SIZE + 1
+                && pool.health().stream().allMatch(Iso8583ClientPool.MemberHealth::getConnected));
+        for (int i = 0; i < 10; i++) {
+            pool.send(messageFactory.newMessage(0x0800));
+        }
+        assertThat(responses.tryAcquire(10, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(serverChannels).hasSize(POOL_SIZE + 1);
+    }
+
+    @Test
+    void shouldSelectLeastInFlightAndStopCountingAfterResponseTimeout() throws Exception {
+        createPool(Iso8583ClientPool.Selection.LEAST_IN_FLIGHT,
+            ClientConfiguration.newBuilder().responseTimeout(200).build());
+
+        final var futures = new ArrayList<CompletableFuture<IsoMessage>>();
+        for (int stan = 1; stan <= POOL_SIZE; stan++) {
+            final var request = messageFactory.newMessage(0x0200);
+            request.setValue(11, stan, IsoType.NUMERIC, 6);
+            futures.add(pool.sendAndReceive(request));
+        }
+
+        assertThat(pool.health()).extracting(Iso8583ClientPool.MemberHealth::getInFlight).containsOnly(1);
+        await().alias("unanswered requests expired")
+            .until(() -> pool.health().stream().allMatch(it -> it.getInFlight() == 0));
+        assertThat(futures).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(pool.health()).allMatch(Iso8583ClientPool.MemberHealth::getConnected);
+    }
+
+    @Test
+    void shouldConnectWaitingForMembers() throws Exception {
+        pool = new Iso8583ClientPool<>(new InetSocketAddress("127.0.0.1", port), POOL_SIZE,
+            ClientConfiguration.newBuilder().build(), messageFactory);
+        pool.init();
+
+        assertThat(pool.connect(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldStopWaitingWhenAllMembersFailToConnect() throws Exception {
+        final int closedPort;
+        try (var socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        pool = new Iso8583ClientPool<>(new InetSocketAddress("127.0.0.1", closedPort), POOL_SIZE,
+            ClientConfiguration.newBuilder().build(), messageFactory);
+        pool.init();
+
+        final var start = System.nanoTime();
+        assertThat(pool.connect(30, TimeUnit.SECONDS)).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    }
+}
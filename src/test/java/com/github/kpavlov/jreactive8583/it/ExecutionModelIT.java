@@ -0,0 +1,78 @@
+package com.github.kpavlov.jreactive8583.it;
+
+import com.github.kpavlov.jreactive8583.ExecutionModel;
+import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ExecutionModelIT {
+
+    @ParameterizedTest
+    @EnumSource(ExecutionModel.class)
+    void shouldRunListenersOnConfiguredExecutor(ExecutionModel executionModel) throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        final var messageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        final int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        final var server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .executionModel(executionModel)
+            .build(), messageFactory);
+        final var client = new Iso8583Client<>(new InetSocketAddress("127.0.0.1", port),
+            ClientConfiguration.newBuilder()
+                .executionModel(executionModel)
+                .build(), messageFactory);
+        final var listenerOnEventLoop = new CompletableFuture<Boolean>();
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                listenerOnEventLoop.complete(ctx.channel().eventLoop().inEventLoop());
+                return false;
+            }
+        });
+        try {
+            server.init();
+            server.start();
+            client.init();
+            client.connect();
+            await().alias("client connected").until(client::isConnected);
+
+            client.send(messageFactory.newMessage(0x0800));
+
+            assertThat(listenerOnEventLoop.get(5, TimeUnit.SECONDS))
+                .isEqualTo(executionModel == ExecutionModel.EVENT_LOOP);
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+}
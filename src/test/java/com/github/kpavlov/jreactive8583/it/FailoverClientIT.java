@@ -0,0 +1,254 @@
+package com.github.kpavlov.jreactive8583.it;
+
+import com.github.kpavlov.jreactive8583.ConnectorConfigurer;
+import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583FailoverClient;
+import com.github.kpavlov.jreactive8583.client.Iso8583FailoverClient.Endpoint;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.iso.PooledIsoMessage;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class FailoverClientIT {
+
+    private final List<Iso8583Server<IsoMessage>> servers = new ArrayList<>();
+    private final List<Channel> silentChannels = new CopyOnWriteArrayList<>();
+    private final Semaphore responses = new Semaphore(0);
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private J8583MessageFactory<IsoMessage> pooledMessageFactory;
+    private Iso8583FailoverClient<IsoMessage> client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        pooledMessageFactory = new J8583MessageFactory<>(
+            j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        servers.forEach(Iso8583Server::shutdown);
+    }
+
+    private InetSocketAddress echoServer(AtomicInteger requests) throws Exception {
+        final int port = freePort();
+        final var server = createServer(port);
+        server.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0800;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                requests.incrementAndGet();
+                ctx.writeAndFlush(messageFactory.createResponse(isoMessage));
+                return false;
+            }
+        });
+        return start(server, port);
+    }
+
+    private InetSocketAddress silentServer() throws Exception {
+        final int port = freePort();
+        final var server = createServer(port);
+        server.setConfigurer(new ConnectorConfigurer<>() {
+            @Override
+            public void configurePipeline(ChannelPipeline pipeline, ServerConfiguration configuration) {
+                silentChannels.add(pipeline.channel());
+            }
+        });
+        return start(server, port);
+    }
+
+    private static int freePort() throws Exception {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private Iso8583Server<IsoMessage> createServer(int port) {
+        final var server = new Iso8583Server<>(port, ServerConfiguration.getDefault(), messageFactory);
+        servers.add(server);
+        return server;
+    }
+
+    private static InetSocketAddress start(Iso8583Server<IsoMessage> server, int port) throws Exception {
+        server.init();
+        server.start();
+        return new InetSocketAddress("127.0.0.1", port);
+    }
+
+    private void createClient(ClientConfiguration configuration, Endpoint... endpoints) {
+        createClient(configuration, messageFactory, endpoints);
+    }
+
+    private void createClient(ClientConfiguration configuration,
+                              J8583MessageFactory<IsoMessage> clientMessageFactory,
+                              Endpoint... endpoints) {
+        client = new Iso8583FailoverClient<>(List.of(endpoints), configuration, clientMessageFactory);
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                responses.release();
+                return false;
+            }
+        });
+        client.init();
+        client.connectAsync();
+        await().alias("all endpoints connected")
+            .until(() -> client.health().stream().allMatch(Iso8583FailoverClient.EndpointHealth::getConnected));
+    }
+
+    private IsoMessage echoRequest(int stan) {
+        return echoRequest(messageFactory, stan);
+    }
+
+    private static IsoMessage echoRequest(J8583MessageFactory<IsoMessage> factory, int stan) {
+        final var message = factory.newMessage(0x0800);
+        message.setValue(11, stan, IsoType.NUMERIC, 6);
+        return message;
+    }
+
+    @Test
+    void shouldSpreadRequestsByWeight() throws Exception {
+        final var primaryRequests = new AtomicInteger();
+        final var secondaryRequests = new AtomicInteger();
+        createClient(ClientConfiguration.newBuilder().build(),
+            new Endpoint(echoServer(primaryRequests), 3),
+            new Endpoint(echoServer(secondaryRequests), 1));
+
+        for (int i = 0; i < 40; i++) {
+            client.send(echoRequest(i));
+        }
+
+        assertThat(responses.tryAcquire(40, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(primaryRequests).hasValue(30);
+        assertThat(secondaryRequests).hasValue(10);
+        await().alias("responses matched")
+            .until(() -> client.health().stream().allMatch(it -> it.getInFlight() == 0));
+        assertThat(client.health()).allMatch(it -> it.getLatencyMillis() > 0);
+    }
+
+    @Test
+    void shouldMoveTrafficAwayFromDisconnectedEndpoint() throws Exception {
+        final var primaryRequests = new AtomicInteger();
+        final var secondaryRequests = new AtomicInteger();
+        createClient(ClientConfiguration.newBuilder().build(),
+            new Endpoint(echoServer(primaryRequests), 3),
+            new Endpoint(echoServer(secondaryRequests), 1));
+
+        servers.get(0).shutdown();
+        await().alias("primary disconnected")
+            .until(() -> !client.health().get(0).getConnected());
+
+        for (int i = 0; i < 10; i++) {
+            client.send(echoRequest(i));
+        }
+
+        assertThat(responses.tryAcquire(10, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(primaryRequests).hasValue(0);
+        assertThat(secondaryRequests).hasValue(10);
+    }
+
+    @Test
+    void shouldRetryRequestsLostWithConnection() throws Exception {
+        final var secondaryRequests = new AtomicInteger();
+        createClient(ClientConfiguration.newBuilder().retryInFlight(true).build(),
+            new Endpoint(silentServer()),
+            new Endpoint(echoServer(secondaryRequests)));
+
+        client.send(echoRequest(1));
+        await().alias("request in flight")
+            .until(() -> client.health().get(0).getInFlight() == 1);
+
+        silentChannels.get(0).close().sync();
+
+        assertThat(responses.tryAcquire(1, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(secondaryRequests).hasValue(1);
+    }
+
+    @Test
+    void shouldReportUnansweredRequests() throws Exception {
+        final var unanswered = new CopyOnWriteArrayList<Throwable>();
+        createClient(ClientConfiguration.newBuilder().responseTimeout(100).build(),
+            new Endpoint(silentServer()));
+        client.addUnansweredMessageListener((isoMessage, endpoint, cause) -> unanswered.add(cause));
+
+        client.send(echoRequest(1));
+
+        await().alias("request expired").until(() -> !unanswered.isEmpty());
+        assertThat(unanswered).singleElement().isInstanceOf(TimeoutException.class);
+        assertThat(client.health().get(0).getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldRetryPooledRequestsLostWithConnection() throws Exception {
+        final var secondaryRequests = new AtomicInteger();
+        createClient(ClientConfiguration.newBuilder().retryInFlight(true).build(), pooledMessageFactory,
+            new Endpoint(silentServer()),
+            new Endpoint(echoServer(secondaryRequests)));
+
+        // the encoder releases the request once written, the client keeps its own reference
+        client.send(echoRequest(pooledMessageFactory, 1));
+        await().alias("request in flight")
+            .until(() -> client.health().get(0).getInFlight() == 1);
+
+        silentChannels.get(0).close().sync();
+
+        assertThat(responses.tryAcquire(1, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(secondaryRequests).hasValue(1);
+    }
+
+    @Test
+    void shouldReportPooledUnansweredRequestsIntact() throws Exception {
+        final var unanswered = new CopyOnWriteArrayList<String>();
+        createClient(ClientConfiguration.newBuilder().responseTimeout(100).build(), pooledMessageFactory,
+            new Endpoint(silentServer()));
+        client.addUnansweredMessageListener(
+            (isoMessage, endpoint, cause) -> unanswered.add(String.valueOf((Object) isoMessage.getObjectValue(11))));
+
+        final var request = (PooledIsoMessage) echoRequest(pooledMessageFactory, 1);
+        client.send(request);
+
+        await().alias("request expired").until(() -> !unanswered.isEmpty());
+        assertThat(unanswered).containsExactly("1");
+        await().alias("request released").until(() -> request.refCnt() == 0);
+    }
+}
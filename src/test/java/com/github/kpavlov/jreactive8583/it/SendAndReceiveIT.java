@@ -0,0 +1,255 @@
+package com.github.kpavlov.jreactive8583.it;
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.iso.PooledIsoMessage;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class SendAndReceiveIT {
+
+    private final AtomicInteger unmatchedResponses = new AtomicInteger();
+    private com.solab.iso8583.MessageFactory<IsoMessage> j8583MessageFactory;
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private Iso8583Server<IsoMessage> server;
+    private Iso8583Client<IsoMessage> client;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new Iso8583Server<>(port, ServerConfiguration.getDefault(), messageFactory);
+        server.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0200;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                // STAN 999999 is never answered
+                if (!"999999".equals(isoMessage.getObjectValue(11).toString())) {
+                    ctx.writeAndFlush(messageFactory.createResponse(isoMessage));
+                }
+                return false;
+            }
+        });
+        server.init();
+        server.start();
+
+        createClient(ClientConfiguration.newBuilder().build());
+    }
+
+    private void createClient(ClientConfiguration configuration) throws Exception {
+        createClient(configuration, messageFactory);
+    }
+
+    private void createClient(ClientConfiguration configuration,
+                              J8583MessageFactory<IsoMessage> clientMessageFactory) throws Exception {
+        if (client != null) {
+            client.shutdown();
+        }
+        client = new Iso8583Client<>(new InetSocketAddress("127.0.0.1", port), configuration, clientMessageFactory);
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0210;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                unmatchedResponses.incrementAndGet();
+                return false;
+            }
+        });
+        client.init();
+        client.connect();
+        await().alias("client connected").until(client::isConnected);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    private IsoMessage request(int stan) {
+        final var message = messageFactory.newMessage(0x0200);
+        message.setValue(11, stan, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERM0001", IsoType.ALPHA, 16);
+        return message;
+    }
+
+    @Test
+    void shouldCompleteRequestsWithMatchingResponses() throws Exception {
+        final List<Integer> stans = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            stans.add(i);
+        }
+        Collections.shuffle(stans);
+        final List<CompletableFuture<IsoMessage>> futures = new ArrayList<>();
+        for (int stan : stans) {
+            futures.add(client.sendAndReceive(request(stan), 5, TimeUnit.SECONDS));
+        }
+
+        for (int i = 0; i < stans.size(); i++) {
+            final var response = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(response.getType()).isEqualTo(0x0210);
+            assertThat(response.getObjectValue(11).toString()).isEqualTo("%06d".formatted(stans.get(i)));
+        }
+        assertThat(unmatchedResponses).hasValue(0);
+    }
+
+    @Test
+    void shouldFailOnTimeout() {
+        final var future = client.sendAndReceive(request(999999), 100, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void shouldPassTimedOutRequestsToListener() throws Exception {
+        final var timedOut = new CopyOnWriteArrayList<IsoMessage>();
+        client.addRequestTimeoutListener(timedOut::addAll);
+        final var request = request(999999);
+
+        final var future = client.sendAndReceive(request, 100, TimeUnit.MILLISECONDS);
+        final var answered = client.sendAndReceive(request(1), 100, TimeUnit.MILLISECONDS);
+
+        await().alias("request timed out").until(() -> !timedOut.isEmpty());
+        assertThat(timedOut).containsExactly(request);
+        assertThat(future).isCompletedExceptionally();
+        assertThat(answered.get(1, TimeUnit.SECONDS).getType()).isEqualTo(0x0210);
+    }
+
+    @Test
+    void shouldRejectRequestWithSameKeyInFlight() {
+        client.sendAndReceive(request(999999), 5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> client.sendAndReceive(request(999999), 5, TimeUnit.SECONDS))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRejectRequestWithoutMatchKey() {
+        assertThatThrownBy(() -> client.sendAndReceive(messageFactory.newMessage(0x0200)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldFailRequestsInFlightWhenConnectionIsClosed() throws Exception {
+        final var future = client.sendAndReceive(request(999999), 5, TimeUnit.SECONDS);
+
+        client.disconnect();
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(ClosedChannelException.class);
+    }
+
+    @Test
+    void shouldQueueRequestsOverInFlightLimit() throws Exception {
+        createClient(ClientConfiguration.newBuilder().maxInFlight(1).build());
+
+        final var unanswered = client.sendAndReceive(request(999999), 200, TimeUnit.MILLISECONDS);
+        final var queued = client.sendAndReceive(request(1), 5, TimeUnit.SECONDS);
+
+        assertThat(client.inFlightMetrics().getInFlight()).isEqualTo(1);
+        assertThat(client.inFlightMetrics().getQueueDepth()).isEqualTo(1);
+        assertThat(queued.get(5, TimeUnit.SECONDS).getType()).isEqualTo(0x0210);
+        assertThat(unanswered).isCompletedExceptionally();
+
+        final var metrics = client.inFlightMetrics();
+        assertThat(metrics.getInFlight()).isZero();
+        assertThat(metrics.getQueueDepth()).isZero();
+        assertThat(metrics.getWaitedRequests()).isEqualTo(1);
+        // the wait starts after the deadline of the unanswered request is set
+        assertThat(metrics.getTotalWaitNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(150));
+    }
+
+    @Test
+    void shouldRemoveCancelledRequests() throws Exception {
+        createClient(ClientConfiguration.newBuilder().maxInFlight(1).build());
+
+        final var cancelled = client.sendAndReceive(request(999999), 5, TimeUnit.SECONDS);
+        final var queued = client.sendAndReceive(request(1), 5, TimeUnit.SECONDS);
+        cancelled.cancel(false);
+
+        assertThat(queued.get(1, TimeUnit.SECONDS).getType()).isEqualTo(0x0210);
+        assertThat(client.inFlightMetrics().getInFlight()).isZero();
+        assertThat(client.sendAndReceive(request(999999), 5, TimeUnit.SECONDS)).isNotDone();
+    }
+
+    private J8583MessageFactory<IsoMessage> pooledMessageFactory() {
+        return new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, true);
+    }
+
+    @Test
+    void shouldRetainPooledResponseForCaller() throws Exception {
+        createClient(ClientConfiguration.newBuilder().build(), pooledMessageFactory());
+
+        final var response = (PooledIsoMessage) client.sendAndReceive(request(1)).get(5, TimeUnit.SECONDS);
+        // responses parsed later on the same event loop would reuse a recycled instance
+        ReferenceCountUtil.release(client.sendAndReceive(request(2)).get(5, TimeUnit.SECONDS));
+
+        await().alias("released by pipeline").until(() -> response.refCnt() == 1);
+        assertThat(response.getType()).isEqualTo(0x0210);
+        assertThat(response.getObjectValue(11).toString()).isEqualTo("000001");
+        assertThat(response.release()).isTrue();
+    }
+
+    @Test
+    void shouldPassPooledTimedOutRequestsToListenerIntact() throws Exception {
+        final var pooledMessageFactory = pooledMessageFactory();
+        createClient(ClientConfiguration.newBuilder().build(), pooledMessageFactory);
+        final var timedOut = new CopyOnWriteArrayList<String>();
+        client.addRequestTimeoutListener(requests ->
+            requests.forEach(it -> timedOut.add(it.getObjectValue(11).toString())));
+        final var request = (PooledIsoMessage) pooledMessageFactory.newMessage(0x0200);
+        request.setValue(11, 999999, IsoType.NUMERIC, 6);
+        request.setValue(41, "TERM0001", IsoType.ALPHA, 16);
+
+        client.sendAndReceive(request, 100, TimeUnit.MILLISECONDS);
+
+        await().alias("request timed out").until(() -> !timedOut.isEmpty());
+        assertThat(timedOut).containsExactly("999999");
+        await().alias("request released").until(() -> request.refCnt() == 0);
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.kpavlov.jreactive8583.it;
+
+import com.github.kpavlov.jreactive8583.ConnectorConfigurer;
+import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.SharedEventLoopGroups;
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.logging.LoggingHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SharedEventLoopGroupsIT {
+
+    private SharedEventLoopGroups groups;
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private Iso8583Server<IsoMessage> server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        groups = new SharedEventLoopGroups();
+        server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .eventLoopGroups(groups)
+            .build(), messageFactory);
+        server.init();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.shutdown();
+        if (groups.refCnt() > 0) {
+            groups.release(groups.refCnt());
+        }
+    }
+
+    private Iso8583Client<IsoMessage> newClient(BlockingQueue<IsoMessage> responses) {
+        final var client = new Iso8583Client<>(new InetSocketAddress("127.0.0.1", port),
+            ClientConfiguration.newBuilder()
+                .eventLoopGroups(groups)
+                .build(), messageFactory);
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                responses.add(isoMessage);
+                return false;
+            }
+        });
+        return client;
+    }
+
+    @Test
+    void shouldShareGroupsAndShutDownThemWithLastReference() throws Exception {
+        final var responses = new LinkedBlockingQueue<IsoMessage>();
+        final var client1 = newClient(responses);
+        final var client2 = newClient(responses);
+        client1.init();
+        client2.init();
+        assertThat(groups.refCnt()).isEqualTo(4);
+
+        client1.connect();
+        client2.connect();
+        await().alias("clients connected").until(() -> client1.isConnected() && client2.isConnected());
+
+        client1.shutdown();
+        client1.shutdown();
+        assertThat(groups.refCnt()).isEqualTo(3);
+        await().alias("client1 disconnected").until(() -> !client1.isConnected());
+
+        client2.send(messageFactory.newMessage(0x0800));
+        assertThat(responses.poll(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(groups.getWorkerGroup().isShuttingDown()).isFalse();
+
+        client2.shutdown();
+        server.shutdown();
+        assertThat(groups.release()).isTrue();
+        assertThat(groups.getBossGroup().isShuttingDown()).isTrue();
+        assertThat(groups.getWorkerGroup().isShuttingDown()).isTrue();
+    }
+
+    @Test
+    void shouldCloseAcceptedConnectionsWhenConfigurerSetsServerHandler() throws Exception {
+        final var configuredServer = new Iso8583Server<>(0, ServerConfiguration.newBuilder()
+            .eventLoopGroups(groups)
+            .build(), messageFactory);
+        configuredServer.setConfigurer(new ConnectorConfigurer<>() {
+            @Override
+            public void configureBootstrap(ServerBootstrap bootstrap, ServerConfiguration configuration) {
+                bootstrap.handler(new LoggingHandler());
+            }
+        });
+        configuredServer.init();
+        configuredServer.start();
+        final var client = new Iso8583Client<>(configuredServer.getLocalAddresses().get(0),
+            ClientConfiguration.newBuilder()
+                .eventLoopGroups(groups)
+                .build(), messageFactory);
+        client.init();
+        client.connectAsync().sync();
+
+        configuredServer.shutdown();
+
+        await().alias("connection closed by server").until(() -> !client.isConnected());
+        client.shutdown();
+    }
+
+    @Test
+    void shouldRetainGroupsOnceWhenInitializedTwice() {
+        final var client = newClient(new LinkedBlockingQueue<>());
+        client.init();
+        client.init();
+        assertThat(groups.refCnt()).isEqualTo(3);
+
+        client.shutdown();
+        assertThat(groups.refCnt()).isEqualTo(2);
+    }
+}
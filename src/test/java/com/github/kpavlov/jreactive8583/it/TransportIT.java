@@ -0,0 +1,227 @@
+package com.github.kpavlov.jreactive8583.it;
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.Transport;
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.github.kpavlov.jreactive8583.server.Iso8583Server;
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.nio.NioDomainSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringDomainSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class TransportIT {
+
+    private static Class<?> expectedChannelClass(Transport transport) {
+        if (transport == Transport.IO_URING && IoUring.isAvailable()) {
+            return IoUringSocketChannel.class;
+        }
+        if (transport != Transport.NIO && Epoll.isAvailable()) {
+            return EpollSocketChannel.class;
+        }
+        return NioSocketChannel.class;
+    }
+
+    private static Class<?> expectedDomainChannelClass(Transport transport) {
+        if (transport == Transport.IO_URING && IoUring.isAvailable()) {
+            return IoUringDomainSocketChannel.class;
+        }
+        if (transport != Transport.NIO && Epoll.isAvailable()) {
+            return EpollDomainSocketChannel.class;
+        }
+        return NioDomainSocketChannel.class;
+    }
+
+    /**
+     * NIO doesn't support SO_REUSEPORT, so it binds a single acceptor.
+     */
+    private static int expectedAcceptorCount(Transport transport, int acceptorCount) {
+        return expectedChannelClass(transport) == NioSocketChannel.class ? 1 : acceptorCount;
+    }
+
+    private static J8583MessageFactory<IsoMessage> messageFactory() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        return new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+    }
+
+    private static int freePort() throws Exception {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Connects a client, sends an echo request and returns the context of the response.
+     */
+    private static ChannelHandlerContext echo(int port,
+                                              Transport transport,
+                                              J8583MessageFactory<IsoMessage> messageFactory) throws Exception {
+        return echo(new InetSocketAddress("127.0.0.1", port), transport, messageFactory);
+    }
+
+    private static ChannelHandlerContext echo(SocketAddress address,
+                                              Transport transport,
+                                              J8583MessageFactory<IsoMessage> messageFactory) throws Exception {
+        final var client = new Iso8583Client<>(address,
+            ClientConfiguration.newBuilder()
+                .transport(transport)
+                .build(), messageFactory);
+        final var response = new CompletableFuture<ChannelHandlerContext>();
+        client.addMessageListener(new IsoMessageListener<>() {
+            @Override
+            public boolean applies(IsoMessage isoMessage) {
+                return isoMessage.getType() == 0x0810;
+            }
+
+            @Override
+            public boolean onMessage(ChannelHandlerContext ctx, IsoMessage isoMessage) {
+                response.complete(ctx);
+                return false;
+            }
+        });
+        try {
+            client.init();
+            client.connect();
+            await().alias("client connected").until(client::isConnected);
+
+            client.send(messageFactory.newMessage(0x0800));
+
+            return response.get(5, TimeUnit.SECONDS);
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void shouldExchangeMessages(Transport transport) throws Exception {
+        final var messageFactory = messageFactory();
+        final int port = freePort();
+        final var server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .transport(transport)
+            .build(), messageFactory);
+        try {
+            server.init();
+            server.start();
+
+            final var ctx = echo(port, transport, messageFactory);
+
+            assertThat(ctx.channel()).isInstanceOf(expectedChannelClass(transport));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void shouldAcceptOnMultipleAcceptors(Transport transport) throws Exception {
+        final var messageFactory = messageFactory();
+        final int port = freePort();
+        final var server = new Iso8583Server<>(port, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .acceptorCount(3)
+            .transport(transport)
+            .build(), messageFactory);
+        try {
+            server.init();
+            server.start();
+            assertThat(server.isStarted()).isTrue();
+            assertThat(server.getLocalAddresses()).hasSize(expectedAcceptorCount(transport, 3));
+
+            for (int i = 0; i < 6; i++) {
+                assertThat(echo(port, transport, messageFactory).channel())
+                    .isInstanceOf(expectedChannelClass(transport));
+            }
+
+            server.stop();
+            assertThat(server.isStarted()).isFalse();
+            try (var socket = new Socket()) {
+                assertThatThrownBy(() -> socket.connect(new InetSocketAddress("127.0.0.1", port), 1000))
+                    .isInstanceOf(IOException.class);
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void shouldBindAllAcceptorsToPortChosenForFirst(Transport transport) throws Exception {
+        final var messageFactory = messageFactory();
+        final var server = new Iso8583Server<>(0, ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .acceptorCount(3)
+            .transport(transport)
+            .build(), messageFactory);
+        try {
+            server.init();
+            server.start();
+
+            final var addresses = server.getLocalAddresses();
+            assertThat(addresses).hasSize(expectedAcceptorCount(transport, 3));
+            assertThat(addresses).containsOnly(addresses.get(0));
+            final int port = ((InetSocketAddress) addresses.get(0)).getPort();
+            assertThat(port).isPositive();
+            for (int i = 0; i < 6; i++) {
+                assertThat(echo(port, transport, messageFactory).channel())
+                    .isInstanceOf(expectedChannelClass(transport));
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void shouldExchangeMessagesOverDomainSocket(Transport transport, @TempDir Path dir) throws Exception {
+        final var messageFactory = messageFactory();
+        final var path = dir.resolve("iso8583.sock");
+        final var server = new Iso8583Server<>(UnixDomainSocketAddress.of(path), ServerConfiguration.newBuilder()
+            .addEchoMessageListener(true)
+            .transport(transport)
+            .build(), messageFactory);
+        try {
+            server.init();
+            server.start();
+
+            // native address is accepted by every transport too
+            final var ctx = echo(new DomainSocketAddress(path.toString()), transport, messageFactory);
+
+            assertThat(ctx.channel()).isInstanceOf(expectedDomainChannelClass(transport));
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.kpavlov.jreactive8583.netty.codec;
+
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteConversionsTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 1L, 0x7230_0540_28C0_8206L, 0xF230_0540_28C0_8206L, -1L})
+    void shouldWriteBitmapWordAsHex(long word) {
+        final var hex = Unpooled.buffer();
+
+        ByteConversions.INSTANCE.writeHex(word, hex);
+
+        assertThat(hex.toString(StandardCharsets.US_ASCII)).isEqualTo("%016X".formatted(word));
+    }
+}
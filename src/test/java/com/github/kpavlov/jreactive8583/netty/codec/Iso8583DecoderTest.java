@@ -3,6 +3,7 @@ package com.github.kpavlov.jreactive8583.netty.codec;
 import com.github.kpavlov.jreactive8583.iso.MessageFactory;
 import com.solab.iso8583.IsoMessage;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,8 +11,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
@@ -42,4 +50,20 @@ class Iso8583DecoderTest {
 
         verifyNoInteractions(ctx, out, messageFactory);
     }
+
+    @Test
+    void shouldParseFrameWithByteArrayMethodOfCustomFactory() throws Exception {
+        final var bytes = "0800frame".getBytes(StandardCharsets.US_ASCII);
+        final var message = new IsoMessage();
+        when(messageFactory.parseMessage(any(ByteBuffer.class), eq(0))).thenCallRealMethod();
+        when(messageFactory.parseMessage(bytes, 0)).thenReturn(message);
+        final var frame = Unpooled.directBuffer().writeBytes(bytes);
+        final var decoded = new ArrayList<>();
+
+        decoder.decode(ctx, frame, decoded);
+
+        assertThat(decoded).containsExactly(message);
+        verify(messageFactory).parseMessage(bytes, 0);
+        frame.release();
+    }
 }
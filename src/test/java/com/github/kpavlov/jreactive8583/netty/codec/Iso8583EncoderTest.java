@@ -0,0 +1,112 @@
+package com.github.kpavlov.jreactive8583.netty.codec;
+
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class Iso8583EncoderTest {
+
+    @Mock
+    private ChannelHandlerContext ctx;
+
+    private IsoMessage message;
+    private ByteBuf out;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var messageFactory = ConfigParser.createDefault();
+        messageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory.setAssignDate(true);
+        message = messageFactory.newMessage(0x0200);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        out = Unpooled.buffer();
+    }
+
+    @Test
+    void shouldEncodeWithoutLengthHeader() {
+        new Iso8583Encoder(0, false).encode(ctx, message, out);
+
+        assertThat(ByteBufUtil.getBytes(out)).isEqualTo(message.writeData());
+    }
+
+    @Test
+    void shouldEncodeStringLengthHeader() {
+        new Iso8583Encoder(4, true).encode(ctx, message, out);
+
+        final var data = message.writeData();
+        final var expected = String.format("%04d", data.length) + new String(data, StandardCharsets.US_ASCII);
+        assertThat(out.toString(StandardCharsets.US_ASCII)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldRejectMessageLongerThanStringLengthHeader() {
+        final var encoder = new Iso8583Encoder(1, true);
+
+        assertThatThrownBy(() -> encoder.encode(ctx, message, out))
+            .isInstanceOf(EncoderException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4})
+    void shouldEncodeBinaryLengthHeader(int lengthHeaderLength) {
+        message.setEtx(0x03);
+
+        new Iso8583Encoder(lengthHeaderLength, false, false, 0x03).encode(ctx, message, out);
+
+        assertThat(ByteBufUtil.getBytes(out)).isEqualTo(message.writeToBuffer(lengthHeaderLength).array());
+    }
+
+    @Test
+    void shouldEncodeBinaryMessage() {
+        message.setBinaryHeader(true);
+        message.setBinaryFields(true);
+        message.setForceSecondaryBitmap(true);
+
+        new Iso8583Encoder(2, false).encode(ctx, message, out);
+
+        assertThat(ByteBufUtil.getBytes(out)).isEqualTo(message.writeToBuffer(2).array());
+    }
+
+    @Test
+    void shouldEncodeWithForcedStringEncoding() throws Exception {
+        final var messageFactory = ConfigParser.createDefault();
+        messageFactory.setCharacterEncoding(StandardCharsets.UTF_16BE.name());
+        messageFactory.setForceStringEncoding(true);
+        final var forced = messageFactory.newMessage(0x0800);
+        forced.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+
+        new Iso8583Encoder(0, false, true, -1).encode(ctx, forced, out);
+
+        assertThat(ByteBufUtil.getBytes(out)).isEqualTo(forced.writeData());
+    }
+
+    @Test
+    void shouldEncodeIsoHeaderAndTextBitmap() {
+        message.setIsoHeader("ISO015000077");
+        message.setValue(102, "ACCOUNT", IsoType.LLVAR, 0);
+
+        new Iso8583Encoder(0, false).encode(ctx, message, out);
+
+        assertThat(ByteBufUtil.getBytes(out)).isEqualTo(message.writeData());
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.kpavlov.jreactive8583.netty.codec;
+
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.TooLongFrameException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class Iso8583FrameDecoderTest {
+
+    private J8583MessageFactory<IsoMessage> messageFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+    }
+
+    private EmbeddedChannel newChannel(boolean lengthAsString) {
+        return new EmbeddedChannel(new Iso8583FrameDecoder(messageFactory, 8192, 0, 4, 0, lengthAsString));
+    }
+
+    private ByteBuf encode(IsoMessage message, boolean lengthAsString) throws Exception {
+        final var buf = Unpooled.buffer();
+        new Iso8583Encoder(4, lengthAsString).encode(mock(ChannelHandlerContext.class), message, buf);
+        return buf;
+    }
+
+    private IsoMessage newMessage(String data) {
+        final var message = messageFactory.newMessage(0x0200);
+        message.setValue(48, data, IsoType.LLLVAR, 0);
+        return message;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldDecodeMessagesSplitAcrossReads(boolean lengthAsString) throws Exception {
+        final var channel = newChannel(lengthAsString);
+        final var stream = Unpooled.buffer();
+        stream.writeBytes(encode(newMessage("first"), lengthAsString));
+        stream.writeBytes(encode(newMessage("second"), lengthAsString));
+
+        assertThat(channel.writeInbound(stream.readRetainedSlice(7))).isFalse();
+        assertThat(channel.writeInbound(stream.readRetainedSlice(stream.readableBytes() - 3))).isTrue();
+        assertThat(channel.writeInbound(stream.readRetainedSlice(3))).isTrue();
+
+        final IsoMessage first = channel.readInbound();
+        final IsoMessage second = channel.readInbound();
+        assertThat(first.<String>getObjectValue(48)).isEqualTo("first");
+        assertThat(second.<String>getObjectValue(48)).isEqualTo("second");
+        assertThat(stream.release()).isTrue();
+        assertThat(channel.finish()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldSkipEmptyFrame(boolean lengthAsString) {
+        final var channel = newChannel(lengthAsString);
+        final var header = lengthAsString
+            ? Unpooled.copiedBuffer("0000", StandardCharsets.US_ASCII)
+            : Unpooled.buffer().writeInt(0);
+
+        assertThat(channel.writeInbound(header)).isFalse();
+        assertThat(channel.finish()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldRejectInvalidFrames(boolean lengthAsString) throws Exception {
+        final var channel = new EmbeddedChannel(new Iso8583FrameDecoder(messageFactory, 64, 0, 4, 0, lengthAsString));
+
+        assertThatThrownBy(() -> channel.writeInbound(encode(newMessage("too long"), lengthAsString)))
+            .isInstanceOf(TooLongFrameException.class);
+
+        final var garbage = lengthAsString
+            ? Unpooled.copiedBuffer("0004XXXX", StandardCharsets.US_ASCII)
+            : Unpooled.buffer().writeInt(4).writeBytes("XXXX".getBytes(StandardCharsets.US_ASCII));
+        assertThatThrownBy(() -> channel.writeInbound(garbage))
+            .isInstanceOf(DecoderException.class)
+            .hasCauseInstanceOf(ParseException.class);
+        channel.finishAndReleaseAll();
+    }
+}
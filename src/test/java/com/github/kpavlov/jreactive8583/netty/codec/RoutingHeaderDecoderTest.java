@@ -0,0 +1,75 @@
+package com.github.kpavlov.jreactive8583.netty.codec;
+
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version;
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory;
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin;
+import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
+import com.solab.iso8583.parse.ConfigParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutingHeaderDecoderTest {
+
+    private J8583MessageFactory<IsoMessage> messageFactory;
+    private byte[] bytes;
+
+    private void setUp(boolean binary) throws Exception {
+        final var j8583MessageFactory = ConfigParser.createDefault();
+        j8583MessageFactory.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        j8583MessageFactory.setUseBinaryMessages(binary);
+        messageFactory = new J8583MessageFactory<>(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER);
+
+        final var message = messageFactory.newMessage(0x0200);
+        message.setValue(3, "650000", IsoType.NUMERIC, 6);
+        message.setValue(4, new BigDecimal("123.45"), IsoType.AMOUNT, 0);
+        message.setValue(7, new Date(), IsoType.DATE10, 0);
+        message.setValue(11, 123456, IsoType.NUMERIC, 6);
+        message.setValue(12, new Date(), IsoType.TIME, 0);
+        message.setValue(32, "456", IsoType.LLVAR, 0);
+        message.setValue(41, "TERMINAL", IsoType.ALPHA, 16);
+        message.setValue(48, "Private data", IsoType.LLLVAR, 0);
+        bytes = message.writeData();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void shouldDecodeRoutingFieldsOnly(boolean binary) throws Exception {
+        setUp(binary);
+        final var channel = new EmbeddedChannel(new RoutingHeaderDecoder(messageFactory, 2, 3, 11, 41));
+        final ByteBuf frame = Unpooled.directBuffer().writeBytes(bytes);
+
+        channel.writeInbound(frame);
+        final RoutingEnvelope envelope = channel.readInbound();
+
+        final var header = envelope.getHeader();
+        assertThat(header.getType()).isEqualTo(0x0200);
+        assertThat(header.hasField(2)).isFalse();
+        assertThat(header.<String>getObjectValue(2)).isNull();
+        assertThat(header.getObjectValue(3).toString()).isEqualTo("650000");
+        assertThat(header.getObjectValue(11).toString()).isEqualTo("123456");
+        assertThat(header.<String>getObjectValue(41)).isEqualTo("TERMINAL        ");
+        assertThat(header.hasField(48)).isTrue();
+        assertThat(header.getField(48)).isNull();
+
+        assertThat(envelope.content()).isSameAs(frame);
+        assertThat(frame.refCnt()).isEqualTo(1);
+        assertThat(envelope.isDecoded()).isFalse();
+
+        final var message = envelope.decode();
+        assertThat(message.debugString()).isEqualTo(messageFactory.parseMessage(bytes, 0).debugString());
+        assertThat(envelope.decode()).isSameAs(message);
+
+        assertThat(envelope.release()).isTrue();
+        assertThat(channel.finish()).isFalse();
+    }
+}
@@ -1,8 +1,10 @@
 package com.github.kpavlov.jreactive8583.netty.codec;
 
 import com.solab.iso8583.IsoMessage;
+import com.solab.iso8583.IsoType;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,7 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.nio.charset.StandardCharsets;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(MockitoExtension.class)
 class StringLengthFieldBasedFrameDecoderTest {
@@ -23,8 +25,6 @@ class StringLengthFieldBasedFrameDecoderTest {
     @Mock
     private ChannelHandlerContext ctx;
 
-    @Mock
-    private IsoMessage message;
     private int frameLengthHeaderLength;
     private int frameLengthFieldOffset;
     private int maxFrameLength;
@@ -51,12 +51,17 @@ class StringLengthFieldBasedFrameDecoderTest {
     @Test
     void shouldGetUnadjustedFrameLength() {
         // given
-        final var content = "MESSAGE";
-        when(message.writeData()).thenReturn(content.getBytes(StandardCharsets.US_ASCII));
+        final var message = new IsoMessage();
+        message.setCharacterEncoding(StandardCharsets.US_ASCII.name());
+        message.setType(0x0800);
+        message.setValue(48, "MESSAGE", IsoType.LLLVAR, 0);
+        final var content = new String(message.writeData(), StandardCharsets.US_ASCII);
 
         final var buf = Unpooled.buffer();
         encoder.encode(ctx, message, buf);
-        assertThat(buf.toString(StandardCharsets.US_ASCII)).isEqualTo("0007MESSAGE");
+        assertThat(buf.toString(StandardCharsets.US_ASCII))
+                .isEqualTo("0030" + content)
+                .endsWith("007MESSAGE");
 
         //when
         final var frameLength = decoder.getUnadjustedFrameLength(
@@ -69,4 +74,16 @@ class StringLengthFieldBasedFrameDecoderTest {
         //then
         assertThat(frameLength).isEqualTo(content.length());
     }
+
+    @Test
+    void shouldRejectMalformedLengthHeader() {
+        final var buf = Unpooled.copiedBuffer("00-7MESSAGE", StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> decoder.getUnadjustedFrameLength(
+                buf,
+                frameLengthFieldOffset,
+                frameLengthHeaderLength,
+                buf.order()
+        )).isInstanceOf(CorruptedFrameException.class);
+    }
 }
@@ -1,6 +1,8 @@
 package com.github.kpavlov.jreactive8583.netty.pipeline;
 
 import com.github.kpavlov.jreactive8583.IsoMessageListener;
+import com.github.kpavlov.jreactive8583.iso.MessageHeader;
+import com.github.kpavlov.jreactive8583.netty.codec.RoutingEnvelope;
 import com.solab.iso8583.IsoMessage;
 import io.netty.channel.ChannelHandlerContext;
 import org.junit.jupiter.api.BeforeEach;
@@ -102,4 +104,41 @@ class CompositeIsoMessageHandlerTest {
         verify(listener2, never()).onMessage(ctx, message);
         verify(listener3).onMessage(ctx, message);
     }
+
+    @Test
+    void shouldDecodeEnvelopeOnlyForListenersAcceptingHeader() throws Exception {
+        //given
+        final var header = mock(MessageHeader.class);
+        final var envelope = mock(RoutingEnvelope.class);
+        when(envelope.getHeader()).thenReturn(header);
+        when(envelope.decode()).thenReturn(message);
+        when(listener1.appliesToHeader(header)).thenReturn(false);
+        when(listener2.appliesToHeader(header)).thenReturn(true);
+        when(listener3.appliesToHeader(header)).thenReturn(true);
+        when(listener2.applies(message)).thenReturn(true);
+        when(listener3.applies(message)).thenReturn(true);
+        when(listener2.onMessage(ctx, message)).thenReturn(true);
+
+        //when
+        handler.channelRead(ctx, envelope);
+
+        //then
+        verify(listener1, never()).applies(any());
+        verify(listener2).onMessage(ctx, message);
+        verify(listener3).onMessage(ctx, message);
+        verify(ctx).fireChannelRead(envelope);
+    }
+
+    @Test
+    void shouldNotDecodeEnvelopeWhenNoListenerAcceptsHeader() throws Exception {
+        //given
+        final var envelope = mock(RoutingEnvelope.class);
+
+        //when
+        handler.channelRead(ctx, envelope);
+
+        //then
+        verify(envelope, never()).decode();
+        verify(ctx).fireChannelRead(envelope);
+    }
 }
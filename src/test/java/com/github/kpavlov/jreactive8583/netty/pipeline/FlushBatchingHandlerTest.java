@@ -0,0 +1,93 @@
+package com.github.kpavlov.jreactive8583.netty.pipeline;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlushBatchingHandlerTest {
+
+    private int socketFlushes;
+    private ChannelOutboundHandlerAdapter flushCounter;
+
+    @BeforeEach
+    void setUp() {
+        flushCounter = new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void flush(ChannelHandlerContext ctx) {
+                socketFlushes++;
+                ctx.flush();
+            }
+        };
+    }
+
+    @Test
+    void shouldCoalesceFlushesUntilDelayElapses() {
+        // embedded channel runs pending tasks on every write, so flushes are delayed to keep them pending
+        final var channel = new EmbeddedChannel(flushCounter, new FlushBatchingHandler(16, 500));
+        channel.freezeTime();
+
+        channel.pipeline().writeAndFlush("1");
+        channel.pipeline().writeAndFlush("2");
+        channel.pipeline().writeAndFlush("3");
+        channel.runPendingTasks();
+        assertThat(socketFlushes).isZero();
+
+        channel.advanceTimeBy(500, TimeUnit.MICROSECONDS);
+        channel.runPendingTasks();
+
+        assertThat(socketFlushes).isEqualTo(1);
+        assertThat(channel.outboundMessages()).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void shouldFlushWhenBatchIsFull() {
+        final var channel = new EmbeddedChannel(flushCounter, new FlushBatchingHandler(2, 500));
+        channel.freezeTime();
+
+        channel.pipeline().writeAndFlush("1");
+        channel.pipeline().writeAndFlush("2");
+        channel.pipeline().writeAndFlush("3");
+
+        assertThat(socketFlushes).isEqualTo(1);
+        assertThat(channel.outboundMessages()).containsExactly("1", "2");
+
+        channel.advanceTimeBy(500, TimeUnit.MICROSECONDS);
+        channel.runPendingTasks();
+
+        assertThat(socketFlushes).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFlushRepliesAfterReadComplete() {
+        final var echo = new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                assertThat(socketFlushes).isZero();
+                ctx.writeAndFlush(msg);
+            }
+        };
+        final var channel = new EmbeddedChannel(flushCounter, new FlushBatchingHandler(16, 0), echo);
+
+        channel.writeInbound("1", "2", "3");
+
+        assertThat(socketFlushes).isEqualTo(1);
+        assertThat(channel.outboundMessages()).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void shouldFlushOnClose() {
+        final var channel = new EmbeddedChannel(flushCounter, new FlushBatchingHandler(16, 1000));
+
+        channel.pipeline().writeAndFlush("1");
+        channel.close();
+
+        assertThat(socketFlushes).isEqualTo(1);
+    }
+}
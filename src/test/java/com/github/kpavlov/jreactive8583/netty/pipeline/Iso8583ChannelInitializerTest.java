@@ -2,7 +2,11 @@ package com.github.kpavlov.jreactive8583.netty.pipeline;
 
 import com.github.kpavlov.jreactive8583.ConnectorConfiguration;
 import com.github.kpavlov.jreactive8583.ConnectorConfigurer;
+import com.github.kpavlov.jreactive8583.ExecutionModel;
 import com.github.kpavlov.jreactive8583.iso.MessageFactory;
+import com.github.kpavlov.jreactive8583.netty.codec.Iso8583Decoder;
+import com.github.kpavlov.jreactive8583.netty.codec.Iso8583FrameDecoder;
+import com.github.kpavlov.jreactive8583.netty.codec.RoutingHeaderDecoder;
 import com.github.kpavlov.jreactive8583.server.ServerConfiguration;
 import com.solab.iso8583.IsoMessage;
 import io.netty.bootstrap.AbstractBootstrap;
@@ -10,7 +14,9 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.EventExecutorGroup;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -119,6 +125,84 @@ class Iso8583ChannelInitializerTest {
             .addLast(anyString(), any(IdleEventHandler.class));
     }
 
+    @Test
+    void shouldInitChannelWithRoutingHeaderDecoder() {
+        //given
+        configurationBuilder.routingHeaderFields(2, 3, 11, 41);
+        final var channelInitializer = createChannelInitializer(configurer);
+
+        //when
+        channelInitializer.initChannel(channel);
+
+        //then
+        verify(pipeline).addLast(eq("iso8583Decoder"), any(RoutingHeaderDecoder.class));
+        verify(pipeline, never()).addLast(anyString(), any(Iso8583Decoder.class));
+    }
+
+    @Test
+    void shouldInitChannelWithSinglePassDecoder() {
+        //given
+        configurationBuilder.singlePassDecoder(true);
+        final var channelInitializer = createChannelInitializer(configurer);
+
+        //when
+        channelInitializer.initChannel(channel);
+
+        //then
+        verify(pipeline).addLast(eq("iso8583Decoder"), any(Iso8583FrameDecoder.class));
+        verify(pipeline, never()).addLast(eq("lengthFieldFrameDecoder"), any(ChannelHandler.class));
+    }
+
+    @Test
+    void shouldInitChannelWithSeparateFrameDecoderByDefault() {
+        //given
+        final var channelInitializer = createChannelInitializer(configurer);
+
+        //when
+        channelInitializer.initChannel(channel);
+
+        //then
+        verify(pipeline).addLast(eq("lengthFieldFrameDecoder"), any(LengthFieldBasedFrameDecoder.class));
+        verify(pipeline).addLast(eq("iso8583Decoder"), any(Iso8583Decoder.class));
+    }
+
+    @Test
+    void shouldRunAllHandlersOnEventLoop() {
+        //given
+        configurationBuilder
+            .executionModel(ExecutionModel.EVENT_LOOP)
+            .addLoggingHandler(true)
+            .addEchoMessageListener(true);
+        final var channelInitializer = createChannelInitializer(configurer);
+
+        //when
+        channelInitializer.initChannel(channel);
+
+        //then
+        verify(pipeline).addLast(isNull(), eq("logging"), any(IsoMessageLoggingHandler.class));
+        verify(pipeline).addLast(isNull(), eq("idleEventHandler"), any(IdleEventHandler.class));
+        verify(pipeline).addLast((EventExecutorGroup) isNull(), same(handlers));
+        verifyNoInteractions(workerGroup);
+    }
+
+    @Test
+    void shouldOffloadListenersOnly() {
+        //given
+        configurationBuilder
+            .executionModel(ExecutionModel.OFFLOAD_LISTENERS)
+            .addLoggingHandler(true)
+            .addEchoMessageListener(true);
+        final var channelInitializer = createChannelInitializer(configurer);
+
+        //when
+        channelInitializer.initChannel(channel);
+
+        //then
+        verify(pipeline).addLast(isNull(), eq("logging"), any(IsoMessageLoggingHandler.class));
+        verify(pipeline).addLast(isNull(), eq("idleEventHandler"), any(IdleEventHandler.class));
+        verify(pipeline).addLast(same(workerGroup), same(handlers));
+    }
+
     private Iso8583ChannelInitializer<Channel, AbstractBootstrap<?, ?>, ConnectorConfiguration> createChannelInitializer(final ConnectorConfigurer<ConnectorConfiguration, AbstractBootstrap<?, ?>> configurer) {
         return new Iso8583ChannelInitializer(
             configurationBuilder.build(),
@@ -0,0 +1,76 @@
+package com.github.kpavlov.jreactive8583.netty.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReconnectBackoffTest {
+
+    @Test
+    void shouldGrowDelaysWithinBoundsUpToCap() {
+        final var backoff = new ReconnectBackoff(100, 5000, new Random(42));
+
+        long previous = 100;
+        long max = 0;
+        for (int i = 0; i < 100; i++) {
+            final long delay = backoff.nextDelay();
+            assertThat(delay).isBetween(100L, Math.min(5000L, previous * 3));
+            previous = delay;
+            max = Math.max(max, delay);
+        }
+        assertThat(max).isGreaterThan(2500);
+    }
+
+    @Test
+    void shouldGrowDelaysFromZeroBase() {
+        final var backoff = new ReconnectBackoff(0, 5000, new Random(42));
+
+        long max = 0;
+        for (int i = 0; i < 100; i++) {
+            max = Math.max(max, backoff.nextDelay());
+        }
+        assertThat(max).isGreaterThan(2500);
+    }
+
+    @Test
+    void shouldSpreadDelaysOfClientsDisconnectedTogether() {
+        final var first = new ReconnectBackoff(100, 5000, new Random(1));
+        final var second = new ReconnectBackoff(100, 5000, new Random(2));
+
+        int equal = 0;
+        for (int i = 0; i < 10; i++) {
+            if (first.nextDelay() == second.nextDelay()) {
+                equal++;
+            }
+        }
+        assertThat(equal).isLessThan(10);
+    }
+
+    @Test
+    void shouldJitterDelayWhenCapEqualsBase() {
+        final var backoff = new ReconnectBackoff(100, 100, new Random(42));
+
+        final var delays = new HashSet<Long>();
+        for (int i = 0; i < 10; i++) {
+            final long delay = backoff.nextDelay();
+            assertThat(delay).isBetween(50L, 100L);
+            delays.add(delay);
+        }
+        assertThat(delays).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void shouldRestartFromBaseAfterReset() {
+        final var backoff = new ReconnectBackoff(100, 5000, new Random(42));
+        for (int i = 0; i < 10; i++) {
+            backoff.nextDelay();
+        }
+
+        backoff.reset();
+
+        assertThat(backoff.nextDelay()).isBetween(100L, 300L);
+    }
+}
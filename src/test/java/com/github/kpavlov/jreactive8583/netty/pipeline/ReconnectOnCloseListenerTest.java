@@ -0,0 +1,140 @@
+package com.github.kpavlov.jreactive8583.netty.pipeline;
+
+import com.github.kpavlov.jreactive8583.client.CircuitState;
+import com.github.kpavlov.jreactive8583.client.ConnectLimiter;
+import com.github.kpavlov.jreactive8583.client.Iso8583Client;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReconnectOnCloseListenerTest {
+
+    @Mock
+    private Iso8583Client<?> client;
+    @Mock
+    private ScheduledExecutorService executor;
+
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel();
+    }
+
+    /**
+     * Runs the last scheduled reconnect.
+     */
+    private void runScheduledReconnect(int times) {
+        final var captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(times)).schedule(captor.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        captor.getValue().run();
+    }
+
+    @Test
+    void shouldOpenCircuitAfterThresholdFailures() {
+        final var listener = new ReconnectOnCloseListener(client, 100, executor, 1000, 3, null);
+
+        listener.connectFailed();
+        listener.connectFailed();
+        assertThat(listener.getCircuitState()).isEqualTo(CircuitState.CLOSED);
+        listener.connectFailed();
+
+        assertThat(listener.getCircuitState()).isEqualTo(CircuitState.OPEN);
+        verify(executor).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldHalfOpenCircuitOnReconnectAndCloseOnSuccess() {
+        when(client.connectAsync()).thenReturn(channel.newPromise());
+        final var listener = new ReconnectOnCloseListener(client, 100, executor, 1000, 1, null);
+        listener.connectFailed();
+
+        runScheduledReconnect(1);
+
+        assertThat(listener.getCircuitState()).isEqualTo(CircuitState.HALF_OPEN);
+        listener.connected();
+        assertThat(listener.getCircuitState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void shouldReopenCircuitWhenHalfOpenAttemptFails() {
+        when(client.connectAsync()).thenReturn(channel.newPromise());
+        final var listener = new ReconnectOnCloseListener(client, 100, executor, 1000, 1, null);
+        listener.connectFailed();
+        runScheduledReconnect(1);
+
+        listener.connectFailed();
+
+        assertThat(listener.getCircuitState()).isEqualTo(CircuitState.OPEN);
+    }
+
+    @Test
+    void shouldPostponeReconnectWhenLimiterHasNoPermits() {
+        final var limiter = new ConnectLimiter(1);
+        final var pendingConnect = channel.newPromise();
+        when(client.connectAsync()).thenReturn(pendingConnect);
+        final var first = new ReconnectOnCloseListener(client, 100, executor, 1000, 5, limiter);
+        final var second = new ReconnectOnCloseListener(client, 100, executor, 1000, 5, limiter);
+
+        first.scheduleReconnect();
+        runScheduledReconnect(1);
+        assertThat(limiter.getAvailablePermits()).isZero();
+        second.scheduleReconnect();
+        runScheduledReconnect(2);
+
+        verify(client, times(1)).connectAsync();
+        verify(executor, times(3)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+        pendingConnect.setFailure(new Exception("Connection refused"));
+        assertThat(limiter.getAvailablePermits()).isOne();
+    }
+
+    @Test
+    void shouldNotAdvanceBackoffWhenReconnectIsPostponed() {
+        final var limiter = new ConnectLimiter(1);
+        when(client.connectAsync()).thenReturn(channel.newPromise());
+        final var holder = new ReconnectOnCloseListener(client, 100, executor, 100, 5, limiter);
+        holder.scheduleReconnect();
+        runScheduledReconnect(1);
+        final var listener = new ReconnectOnCloseListener(client, 100, executor, 60000, 5, limiter);
+
+        listener.scheduleReconnect();
+        for (int i = 2; i <= 6; i++) {
+            runScheduledReconnect(i);
+        }
+
+        final var delays = ArgumentCaptor.forClass(Long.class);
+        verify(executor, times(7)).schedule(any(Runnable.class), delays.capture(), eq(TimeUnit.MILLISECONDS));
+        final var postponed = delays.getAllValues().subList(1, 7);
+        assertThat(postponed).containsOnly(postponed.get(0));
+        verify(client, times(1)).connectAsync();
+    }
+
+    @Test
+    void shouldNotReconnectAfterDisconnectRequested() {
+        final var listener = new ReconnectOnCloseListener(client, 100, executor);
+        listener.scheduleReconnect();
+
+        listener.requestDisconnect();
+        runScheduledReconnect(1);
+
+        verify(client, never()).connectAsync();
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.kpavlov.jreactive8583.it
+
+import com.github.kpavlov.jreactive8583.IsoMessageListener
+import com.github.kpavlov.jreactive8583.client.ClientConfiguration
+import com.github.kpavlov.jreactive8583.client.Iso8583Client
+import com.github.kpavlov.jreactive8583.coroutines.inboundMessages
+import com.github.kpavlov.jreactive8583.coroutines.sendAndAwait
+import com.github.kpavlov.jreactive8583.coroutines.sendAndAwaitResponse
+import com.github.kpavlov.jreactive8583.iso.ISO8583Version
+import com.github.kpavlov.jreactive8583.iso.J8583MessageFactory
+import com.github.kpavlov.jreactive8583.iso.MessageOrigin
+import com.github.kpavlov.jreactive8583.iso.PooledIsoMessage
+import com.github.kpavlov.jreactive8583.server.Iso8583Server
+import com.github.kpavlov.jreactive8583.server.ServerConfiguration
+import com.solab.iso8583.IsoMessage
+import com.solab.iso8583.IsoType
+import com.solab.iso8583.parse.ConfigParser
+import io.netty.channel.ChannelHandlerContext
+import io.netty.util.ReferenceCountUtil
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.awaitCancellation
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.flow.take
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.awaitility.Awaitility.await
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.net.InetSocketAddress
+import java.net.ServerSocket
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeoutException
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.seconds
+
+internal class CoroutinesIT {
+    private lateinit var messageFactory: J8583MessageFactory<IsoMessage>
+    private lateinit var server: Iso8583Server<IsoMessage>
+    private lateinit var client: Iso8583Client<IsoMessage>
+
+    @BeforeEach
+    fun setUp() {
+        val j8583MessageFactory = ConfigParser.createDefault()
+        j8583MessageFactory.characterEncoding = StandardCharsets.US_ASCII.name()
+        messageFactory = J8583MessageFactory(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER)
+        val port = ServerSocket(0).use { it.localPort }
+        // server messages are pooled, so that messages used after release are recycled
+        val pooledMessageFactory =
+            J8583MessageFactory(j8583MessageFactory, ISO8583Version.V1987, MessageOrigin.OTHER, false, true)
+        server = Iso8583Server(port, ServerConfiguration.getDefault(), pooledMessageFactory)
+        server.addMessageListener(
+            object : IsoMessageListener<IsoMessage> {
+                override fun applies(isoMessage: IsoMessage) = isoMessage.type == 0x0200
+
+                override fun onMessage(
+                    ctx: ChannelHandlerContext,
+                    isoMessage: IsoMessage,
+                ): Boolean {
+                    // STAN 999999 is never answered
+                    if (isoMessage.getObjectValue<Any>(11).toString() != "999999") {
+                        ctx.writeAndFlush(messageFactory.createResponse(isoMessage))
+                    }
+                    return true
+                }
+            },
+        )
+        server.init()
+        server.start()
+
+        client = Iso8583Client(InetSocketAddress("127.0.0.1", port), ClientConfiguration.getDefault(), messageFactory)
+        client.init()
+        client.connect()
+        await().until { client.isConnected }
+    }
+
+    @AfterEach
+    fun tearDown() {
+        client.shutdown()
+        server.shutdown()
+    }
+
+    private fun request(stan: Int): IsoMessage =
+        messageFactory.newMessage(0x0200).apply {
+            setValue(11, stan, IsoType.NUMERIC, 6)
+            setValue(41, "TERM0001", IsoType.ALPHA, 16)
+        }
+
+    private fun stan(message: IsoMessage) = message.getObjectValue<Any>(11).toString().toInt()
+
+    private fun stanAndRelease(message: IsoMessage) = stan(message).also { ReferenceCountUtil.release(message) }
+
+    @Test
+    fun shouldAwaitResponsesOfConcurrentRequests() =
+        runBlocking<Unit>(Dispatchers.Default) {
+            val stans = (1..1000).toList()
+
+            val responses =
+                withTimeout(10.seconds) {
+                    stans.map { async { client.sendAndAwaitResponse(request(it), 5.seconds) } }.awaitAll()
+                }
+
+            assertThat(responses.map { it.type }).containsOnly(0x0210)
+            assertThat(responses.map(::stan)).containsExactlyElementsOf(stans)
+        }
+
+    @Test
+    fun shouldFailOnResponseTimeout() {
+        assertThatThrownBy {
+            runBlocking { client.sendAndAwaitResponse(request(999999), 100.milliseconds) }
+        }.isInstanceOf(TimeoutException::class.java)
+    }
+
+    @Test
+    fun shouldEmitInboundMessages() =
+        runBlocking<Unit>(Dispatchers.Default) {
+            val received =
+                async(start = CoroutineStart.UNDISPATCHED) {
+                    server.inboundMessages().take(10).map(::stanAndRelease).toList()
+                }
+
+            (1..10).forEach { client.sendAndAwait(request(it)) }
+
+            assertThat(withTimeout(5.seconds) { received.await() }).containsExactlyElementsOf(1..10)
+        }
+
+    @Test
+    fun shouldDeliverAllMessagesToSlowCollector() =
+        runBlocking<Unit>(Dispatchers.Default) {
+            val received =
+                async(start = CoroutineStart.UNDISPATCHED) {
+                    server
+                        .inboundMessages(highWatermark = 4)
+                        .take(100)
+                        .onEach { delay(1) }
+                        .map(::stanAndRelease)
+                        .toList()
+                }
+
+            (1..100).forEach { client.sendAndAwait(request(it)) }
+
+            assertThat(withTimeout(10.seconds) { received.await() }).containsExactlyElementsOf(1..100)
+        }
+
+    @Test
+    fun shouldReleaseBufferedMessagesWhenCollectionStops() =
+        runBlocking<Unit>(Dispatchers.Default) {
+            val first = CompletableDeferred<IsoMessage>()
+            val collector =
+                launch(start = CoroutineStart.UNDISPATCHED) {
+                    server.inboundMessages().collect {
+                        first.complete(it)
+                        awaitCancellation()
+                    }
+                }
+            val received = CopyOnWriteArrayList<PooledIsoMessage>()
+            server.addMessageListener(
+                object : IsoMessageListener<IsoMessage> {
+                    override fun applies(isoMessage: IsoMessage) = true
+
+                    override fun onMessage(
+                        ctx: ChannelHandlerContext,
+                        isoMessage: IsoMessage,
+                    ): Boolean = received.add(isoMessage as PooledIsoMessage)
+                },
+            )
+
+            (1..5).forEach { client.sendAndAwait(request(it)) }
+            await().until { received.size == 5 }
+            val emitted = withTimeout(5.seconds) { first.await() }
+            collector.cancelAndJoin()
+
+            await().until { received.filter { it !== emitted }.all { it.refCnt() == 0 } }
+            assertThat(stanAndRelease(emitted)).isEqualTo(1)
+        }
+}